@@ -5,14 +5,40 @@
 #define SCREEN_HEIGHT 64
 #define OLED_RESET -1
 
+// cadru binar: sync, secventa, ADC low, ADC high, checksum
+#define FRAME_SYNC 0xA5
+// raspuns la comanda in mod binar: sync, id, stare (0 = OK), valoare low, valoare high, checksum
+// valoarea are 16 biti; ACK_NO_VALUE inseamna fara valoare, millis() la PING se trimite modulo 65535
+#define ACK_SYNC 0xA6
+#define ACK_NO_VALUE 0xFFFF
+
+// comenzi "#<id> <COD> [argument]", raspuns "@<id> OK [valoare]" / "@<id> ERR <motiv>"
+#define COMMAND_MAX 24
+#define CMD_OK 0
+#define CMD_ERR_UNKNOWN 1
+#define CMD_ERR_ARGUMENT 2
+#define NO_VALUE -1
+
 Adafruit_SSD1306 display(SCREEN_WIDTH, SCREEN_HEIGHT, &Wire, OLED_RESET);
 
 const int voltagePin = A0;
 const int redLed = 7;
 const int greenLed = 8;
-const float thresholdVoltage = 4.0;
+float thresholdVoltage = 4.0;
+unsigned long asciiIntervalMs = 300;
+unsigned long binaryIntervalMs = 0;
+const unsigned long displayIntervalMs = 300;
 float voltage = 0;
 
+bool binaryMode = false;
+byte sequence = 0;
+unsigned long lastSampleMs = 0;
+unsigned long lastDisplayMs = 0;
+
+char commandLine[COMMAND_MAX + 1];
+byte commandLength = 0;
+bool readingCommand = false;
+
 void setup() {
 Serial.begin(9600);
 pinMode(redLed,OUTPUT);
@@ -32,22 +58,148 @@ display.display();
 delay(1000);
 }
 
-void loop() {
-int raw = analogRead(voltagePin);
-voltage = (raw / 1023.0) * 5.0;
+// raspunsul merge pe acelasi port, intre esantioane, in formatul modului curent
+void reply(byte id, byte status, long value) {
+if (binaryMode) {
+  unsigned int ackValue = value == NO_VALUE ? ACK_NO_VALUE : (unsigned long) value % ACK_NO_VALUE;
+  byte frame[6];
+  frame[0] = ACK_SYNC;
+  frame[1] = id;
+  frame[2] = status;
+  frame[3] = ackValue & 0xFF;
+  frame[4] = ackValue >> 8;
+  frame[5] = frame[0] ^ frame[1] ^ frame[2] ^ frame[3] ^ frame[4];
+  Serial.write(frame, sizeof(frame));
+  return;
+}
+Serial.print('@');
+Serial.print(id);
+if (status == CMD_OK) {
+  Serial.print(F(" OK"));
+  if (value != NO_VALUE) {
+    Serial.print(' ');
+    Serial.print(value);
+  }
+}
+else if (status == CMD_ERR_ARGUMENT) {
+  Serial.print(F(" ERR argument invalid"));
+}
+else {
+  Serial.print(F(" ERR comanda necunoscuta"));
+}
+Serial.println();
+}
 
-Serial.println("Tensiunea de pe pin:");
-Serial.println(voltage);
+void executeCommand() {
+commandLine[commandLength] = '\0';
+char* cursor;
+long id = strtol(commandLine, &cursor, 10);
+// fara id valid nu are cui raspunde
+if (cursor == commandLine || id < 1 || id > 255 || *cursor != ' ') {
+  return;
+}
+cursor++;
+char* argument = strchr(cursor, ' ');
+if (argument != NULL) {
+  *argument = '\0';
+  argument++;
+}
 
-if(voltage > thresholdVoltage){
-  digitalWrite(redLed, HIGH);
-  digitalWrite(greenLed, LOW);
+if (strcmp(cursor, "PING") == 0) {
+  reply(id, CMD_OK, millis());
+}
+else if (strcmp(cursor, "THR") == 0) {
+  float value = argument != NULL ? atof(argument) : 0;
+  if (value <= 0 || value > 5.5) {
+    reply(id, CMD_ERR_ARGUMENT, NO_VALUE);
+    return;
+  }
+  thresholdVoltage = value;
+  reply(id, CMD_OK, NO_VALUE);
+}
+else if (strcmp(cursor, "INT") == 0) {
+  long value = argument != NULL ? atol(argument) : -1;
+  if (value < 0 || value > 60000) {
+    reply(id, CMD_ERR_ARGUMENT, NO_VALUE);
+    return;
+  }
+  // intervalul modului curent
+  if (binaryMode) {
+    binaryIntervalMs = value;
+  }
+  else {
+    asciiIntervalMs = value;
+  }
+  reply(id, CMD_OK, value);
+}
+else if (strcmp(cursor, "BIN") == 0) {
+  reply(id, CMD_OK, NO_VALUE);
+  if (!binaryMode) {
+    Serial.println(F("MOD BINAR"));
+    Serial.flush();
+    binaryMode = true;
+    sequence = 0;
+  }
+}
+else if (strcmp(cursor, "ASC") == 0) {
+  // confirmarea pleaca inca in binar, aplicatia comuta la primirea ei
+  reply(id, CMD_OK, NO_VALUE);
+  if (binaryMode) {
+    Serial.flush();
+    binaryMode = false;
+    Serial.println(F("MOD ASCII"));
+  }
+}
+else {
+  reply(id, CMD_ERR_UNKNOWN, NO_VALUE);
 }
-else{
-  digitalWrite(redLed, LOW);
-  digitalWrite(greenLed, HIGH);
 }
 
+// comenzi de la aplicatie: linii "#..." sau litere simple T = test, B = mod binar, A = mod ASCII
+void readCommands() {
+while (Serial.available() > 0) {
+  char command = Serial.read();
+  if (readingCommand) {
+    if (command == '\n' || command == '\r') {
+      readingCommand = false;
+      executeCommand();
+    }
+    else if (commandLength < COMMAND_MAX) {
+      commandLine[commandLength++] = command;
+    }
+    continue;
+  }
+  if (command == '#') {
+    readingCommand = true;
+    commandLength = 0;
+  }
+  else if (command == 'T') {
+    Serial.println(F("TEST OK BIN"));
+  }
+  else if (command == 'B') {
+    Serial.println(F("MOD BINAR"));
+    Serial.flush();
+    binaryMode = true;
+    sequence = 0;
+  }
+  else if (command == 'A') {
+    binaryMode = false;
+    Serial.println(F("MOD ASCII"));
+  }
+}
+}
+
+void sendBinaryFrame(int raw) {
+byte frame[5];
+frame[0] = FRAME_SYNC;
+frame[1] = sequence++;
+frame[2] = raw & 0xFF;
+frame[3] = (raw >> 8) & 0x03;
+frame[4] = frame[0] ^ frame[1] ^ frame[2] ^ frame[3];
+Serial.write(frame, sizeof(frame));
+}
+
+void updateDisplay() {
 display.clearDisplay();
 display.setCursor(0, 10);
 display.setTextSize(1);
@@ -57,6 +209,40 @@ display.setCursor(0, 30);
 display.print(voltage, 2);
 display.print("V");
 display.display();
+}
+
+void loop() {
+readCommands();
 
-delay(300);
+unsigned long now = millis();
+if (now - lastSampleMs < (binaryMode ? binaryIntervalMs : asciiIntervalMs)) {
+  return;
+}
+lastSampleMs = now;
+
+int raw = analogRead(voltagePin);
+voltage = (raw / 1023.0) * 5.0;
+
+if (binaryMode) {
+  sendBinaryFrame(raw);
+}
+else {
+  Serial.println("Tensiunea de pe pin:");
+  Serial.println(voltage);
+}
+
+if(voltage > thresholdVoltage){
+  digitalWrite(redLed, HIGH);
+  digitalWrite(greenLed, LOW);
+}
+else{
+  digitalWrite(redLed, LOW);
+  digitalWrite(greenLed, HIGH);
+}
+
+// ecranul OLED este lent, nu il redesenam la fiecare esantion
+if (now - lastDisplayMs >= displayIntervalMs) {
+  lastDisplayMs = now;
+  updateDisplay();
+}
 }
@@ -1,14 +0,0 @@
-package ace.overvoltageapp;
-
-import javafx.fxml.FXML;
-import javafx.scene.control.Label;
-
-public class MainController {
-    @FXML
-    private Label welcomeText;
-
-    @FXML
-    protected void onHelloButtonClick() {
-        welcomeText.setText("Welcome to JavaFX Application!");
-    }
-}
\ No newline at end of file
@@ -0,0 +1,431 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//alerte grupate pe (sursa, categorie): o repetare in fereastra DEDUP_NANOS doar incrementeaza contorul
+//livrarile catre destinatii sunt limitate global (token bucket); ce se retine pleaca agregat mai tarziu
+//fiecare destinatie are firul ei si o coada marginita, deci o destinatie lenta nu blocheaza nimic
+//raise() poate fi apelat de pe orice fir, inclusiv de pe firul de citire
+public class AlertDispatcher implements AutoCloseable {
+
+    public enum Severity {
+        INFO,
+        WARNING,
+        CRITICAL
+    }
+
+    public interface Sink {
+        String getName();
+
+        //pe firul destinatiei
+        void deliver(Notice notice) throws Exception;
+    }
+
+    public interface Listener {
+        void onLog(String source, LogBuffer.Level level, String message);
+    }
+
+    //instantaneu imuabil al unei alerte agregate
+    public static final class Notice {
+        private final String key;
+        private final String source;
+        private final Severity severity;
+        private final String title;
+        private final String message;
+        private final long count;
+        private final long repeats;
+        private final long firstMillis;
+        private final long lastMillis;
+        private final boolean acknowledged;
+
+        Notice(String key, String source, Severity severity, String title, String message, long count, long repeats,
+               long firstMillis, long lastMillis, boolean acknowledged) {
+            this.key = key;
+            this.source = source;
+            this.severity = severity;
+            this.title = title;
+            this.message = message;
+            this.count = count;
+            this.repeats = repeats;
+            this.firstMillis = firstMillis;
+            this.lastMillis = lastMillis;
+            this.acknowledged = acknowledged;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        //null pentru alertele aplicatiei
+        public String getSource() {
+            return source;
+        }
+
+        public Severity getSeverity() {
+            return severity;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        //mesajul celei mai recente aparitii
+        public String getMessage() {
+            return message;
+        }
+
+        //toate aparitiile de la prima
+        public long getCount() {
+            return count;
+        }
+
+        //aparitiile acoperite de aceasta livrare (1 daca nu s-a agregat nimic)
+        public long getRepeats() {
+            return repeats;
+        }
+
+        public long getFirstMillis() {
+            return firstMillis;
+        }
+
+        public long getLastMillis() {
+            return lastMillis;
+        }
+
+        public boolean isAcknowledged() {
+            return acknowledged;
+        }
+
+        public String describe() {
+            return (source != null ? source + ": " : "") + title + " - " + message
+                    + (repeats > 1 ? " (" + repeats + " aparitii)" : "");
+        }
+    }
+
+    public static final long DEDUP_NANOS = 10_000_000_000L;
+    public static final int RATE_BURST = 10;
+    public static final long RATE_REFILL_NANOS = 1_000_000_000L;
+    private static final int MAX_NOTICES = 200;
+    private static final int SINK_QUEUE = 64;
+    private static final long FLUSH_MILLIS = 500;
+
+    private final Listener listener;
+    //System.nanoTime in aplicatie; inlocuit in teste
+    private final LongSupplier nanoClock;
+    private final List<SinkWorker> sinks = new ArrayList<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "alert-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //ordinea de acces: cea mai recenta alerta la sfarsit
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private double tokens = RATE_BURST;
+    private long lastRefill;
+    private volatile long version;
+    private volatile int unacknowledged;
+    private final AtomicLong suppressedTotal = new AtomicLong();
+    private boolean closed;
+
+    private static final class Entry {
+        final String key;
+        final String source;
+        final String title;
+        Severity severity;
+        Severity deliveredSeverity;
+        String message;
+        long count;
+        long pending;
+        long firstMillis;
+        long lastMillis;
+        long lastDeliveredNanos;
+        boolean delivered;
+        boolean acknowledged;
+
+        Entry(String key, String source, String title) {
+            this.key = key;
+            this.source = source;
+            this.title = title;
+        }
+
+        Notice snapshot(long repeats) {
+            return new Notice(key, source, severity, title, message, count, repeats, firstMillis, lastMillis,
+                    acknowledged);
+        }
+    }
+
+    public AlertDispatcher(Listener listener) {
+        this(listener, System::nanoTime);
+    }
+
+    AlertDispatcher(Listener listener, LongSupplier nanoClock) {
+        this.listener = listener;
+        this.nanoClock = nanoClock;
+        lastRefill = nanoClock.getAsLong();
+        flusher.scheduleWithFixedDelay(this::flushPending, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    //severitatea minima sub care destinatia nu primeste nimic
+    public synchronized void addSink(Sink sink, Severity minimum) {
+        sinks.add(new SinkWorker(sink, minimum));
+        listener.onLog(null, LogBuffer.Level.INFO, "Destinatie alerte: " + sink.getName()
+                + " (de la " + minimum + ")");
+    }
+
+    //category grupeaza aparitiile; aceeasi sursa si categorie = aceeasi alerta
+    public void raise(String source, String category, Severity severity, String title, String message) {
+        String key = (source != null ? source : "") + "|" + category;
+        long now = nanoClock.getAsLong();
+        Notice deliver = null;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(key, source, title);
+                entry.firstMillis = System.currentTimeMillis();
+                entries.put(key, entry);
+                trim();
+            }
+            entry.count++;
+            entry.message = message;
+            entry.lastMillis = System.currentTimeMillis();
+            //intre doua livrari se pastreaza severitatea maxima
+            if (entry.pending == 0 || severity.compareTo(entry.severity) > 0) {
+                entry.severity = severity;
+            }
+            if (entry.acknowledged) {
+                entry.acknowledged = false;
+                unacknowledged++;
+            } else if (entry.count == 1) {
+                unacknowledged++;
+            }
+            entry.pending++;
+
+            //o escaladare trece peste fereastra de grupare si peste limita
+            boolean escalated = entry.delivered && severity.compareTo(entry.deliveredSeverity) > 0;
+            boolean due = !entry.delivered || now - entry.lastDeliveredNanos >= DEDUP_NANOS;
+            if (escalated || (due && takeToken(now))) {
+                deliver = markDelivered(entry, now);
+            } else {
+                suppressedTotal.incrementAndGet();
+            }
+            version++;
+        }
+        if (deliver != null) {
+            dispatch(deliver);
+        }
+    }
+
+    //pragurile folosesc aceeasi categorie, ca trecerea din avertizare in critic sa fie o escaladare
+    //revenirea si coborarea din critic in avertizare nu sunt alerte
+    public void raise(ThresholdEvent event) {
+        switch (event.getType()) {
+            case CRITICAL -> raise(event.getSource(), "prag", Severity.CRITICAL, "Supraalimentare", event.describe());
+            case WARNING -> {
+                if (event.getPreviousLevel() != ThresholdEngine.Level.CRITICAL) {
+                    raise(event.getSource(), "prag", Severity.WARNING, "Avertizare", event.describe());
+                }
+            }
+            case RATE_OF_CHANGE -> raise(event.getSource(), "dvdt", Severity.WARNING, "Variatie rapida",
+                    event.describe());
+            case RECOVERED -> {
+            }
+        }
+    }
+
+    //aparitiile retinute pleaca agregat dupa ce trece fereastra de grupare; periodic, pe firul dispecerului
+    void flushPending() {
+        long now = nanoClock.getAsLong();
+        List<Notice> due = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : entries.values()) {
+                boolean expired = !entry.delivered || now - entry.lastDeliveredNanos >= DEDUP_NANOS;
+                if (entry.pending > 0 && expired && takeToken(now)) {
+                    due.add(markDelivered(entry, now));
+                }
+            }
+        }
+        for (Notice notice : due) {
+            dispatch(notice);
+        }
+    }
+
+    private Notice markDelivered(Entry entry, long now) {
+        Notice notice = entry.snapshot(entry.pending);
+        entry.pending = 0;
+        entry.delivered = true;
+        entry.deliveredSeverity = entry.severity;
+        entry.lastDeliveredNanos = now;
+        return notice;
+    }
+
+    private boolean takeToken(long now) {
+        tokens = Math.min(RATE_BURST, tokens + (now - lastRefill) / (double) RATE_REFILL_NANOS);
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    //se elimina intai alertele confirmate, apoi cele mai vechi
+    private void trim() {
+        if (entries.size() <= MAX_NOTICES) {
+            return;
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && entries.size() > MAX_NOTICES) {
+            if (iterator.next().acknowledged) {
+                iterator.remove();
+            }
+        }
+        iterator = entries.values().iterator();
+        while (iterator.hasNext() && entries.size() > MAX_NOTICES) {
+            if (!iterator.next().acknowledged) {
+                unacknowledged--;
+            }
+            iterator.remove();
+        }
+    }
+
+    private void dispatch(Notice notice) {
+        List<SinkWorker> targets;
+        synchronized (this) {
+            targets = new ArrayList<>(sinks);
+        }
+        for (SinkWorker worker : targets) {
+            if (notice.getSeverity().compareTo(worker.minimum) >= 0) {
+                worker.submit(notice);
+            }
+        }
+    }
+
+    //creste la fiecare schimbare, ca panoul sa redeseneze doar atunci
+    public long getVersion() {
+        return version;
+    }
+
+    public int getUnacknowledgedCount() {
+        return unacknowledged;
+    }
+
+    public long getSuppressedTotal() {
+        return suppressedTotal.get();
+    }
+
+    //cea mai recenta prima
+    public synchronized List<Notice> getNotices() {
+        List<Notice> notices = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            notices.add(entry.snapshot(entry.count));
+        }
+        Collections.reverse(notices);
+        return notices;
+    }
+
+    public synchronized void acknowledgeAll() {
+        for (Entry entry : entries.values()) {
+            entry.acknowledged = true;
+        }
+        unacknowledged = 0;
+        version++;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        unacknowledged = 0;
+        version++;
+    }
+
+    //aparitiile inca retinute pleaca agregat, apoi se asteapta putin livrarile in curs (de ex. scrierea in fisier)
+    @Override
+    public void close() {
+        List<SinkWorker> workers;
+        List<Notice> pending = new ArrayList<>();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            workers = new ArrayList<>(sinks);
+            long now = nanoClock.getAsLong();
+            for (Entry entry : entries.values()) {
+                if (entry.pending > 0) {
+                    pending.add(markDelivered(entry, now));
+                }
+            }
+        }
+        flusher.shutdownNow();
+        for (Notice notice : pending) {
+            dispatch(notice);
+        }
+        for (SinkWorker worker : workers) {
+            worker.executor.shutdown();
+        }
+        try {
+            for (SinkWorker worker : workers) {
+                worker.executor.awaitTermination(1, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SinkWorker worker : workers) {
+            if (worker.sink instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    listener.onLog(null, LogBuffer.Level.ERROR, "EROARE: Inchidere " + worker.sink.getName()
+                            + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    //coada plina: se renunta la cea mai veche livrare in asteptare
+    private final class SinkWorker {
+        final Sink sink;
+        final Severity minimum;
+        final ThreadPoolExecutor executor;
+
+        SinkWorker(Sink sink, Severity minimum) {
+            this.sink = sink;
+            this.minimum = minimum;
+            executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(SINK_QUEUE),
+                    r -> {
+                        Thread thread = new Thread(r, "alert-" + sink.getName());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.DiscardOldestPolicy());
+        }
+
+        void submit(Notice notice) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        sink.deliver(notice);
+                    } catch (Exception e) {
+                        listener.onLog(notice.getSource(), LogBuffer.Level.ERROR,
+                                "EROARE: Alerta nu a putut fi trimisa la " + sink.getName() + ": " + e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                //dispecerul se inchide
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package app;
+
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+//alertele agregate din AlertDispatcher, in locul ferestrelor modale; cea mai recenta sus
+public class AlertPanel extends VBox {
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final AlertDispatcher dispatcher;
+    private final Label header = new Label();
+    private final ListView<AlertDispatcher.Notice> list = new ListView<>();
+    private long shownVersion = -1;
+
+    public AlertPanel(AlertDispatcher dispatcher) {
+        super(5);
+        this.dispatcher = dispatcher;
+
+        header.setFont(Font.font("Arial", 14));
+        list.setCellFactory(view -> new NoticeCell());
+        VBox.setVgrow(list, Priority.ALWAYS);
+
+        Button acknowledgeButton = new Button("Confirmare");
+        acknowledgeButton.setOnAction(e -> dispatcher.acknowledgeAll());
+        Button clearButton = new Button("Golire");
+        clearButton.setOnAction(e -> dispatcher.clear());
+
+        getChildren().addAll(header, list, new HBox(5, acknowledgeButton, clearButton));
+        setPadding(new Insets(5, 10, 5, 0));
+        setPrefWidth(300);
+    }
+
+    //apelat o data pe cadru; lista se reface doar cand dispecerul s-a schimbat
+    public void update() {
+        long version = dispatcher.getVersion();
+        if (version == shownVersion) {
+            return;
+        }
+        shownVersion = version;
+        list.getItems().setAll(dispatcher.getNotices());
+        int open = dispatcher.getUnacknowledgedCount();
+        header.setText(open > 0 ? "Alerte (" + open + " neconfirmate)" : "Alerte");
+        header.setStyle(open > 0 ? "-fx-text-fill: firebrick; -fx-font-weight: bold;" : "");
+    }
+
+    private static final class NoticeCell extends ListCell<AlertDispatcher.Notice> {
+        NoticeCell() {
+            setWrapText(true);
+            setPrefWidth(0);
+        }
+
+        @Override
+        protected void updateItem(AlertDispatcher.Notice notice, boolean empty) {
+            super.updateItem(notice, empty);
+            if (empty || notice == null) {
+                setText(null);
+                setStyle("");
+                return;
+            }
+            setText(TIME_FORMAT.format(Instant.ofEpochMilli(notice.getLastMillis()))
+                    + (notice.getCount() > 1 ? "  x" + notice.getCount() : "") + "\n"
+                    + (notice.getSource() != null ? notice.getSource() + ": " : "") + notice.getMessage());
+            String background = switch (notice.getSeverity()) {
+                case CRITICAL -> "#f8d0d0";
+                case WARNING -> "#fbe6c2";
+                case INFO -> "#e4ecf4";
+            };
+            setStyle("-fx-background-color: " + background + ";"
+                    + (notice.isAcknowledged() ? " -fx-opacity: 0.6;" : " -fx-font-weight: bold;"));
+        }
+    }
+}
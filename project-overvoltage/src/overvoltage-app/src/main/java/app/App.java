@@ -2,6 +2,13 @@ package app;
 
 public class App {
     public static void main(String[] args) {
+        //fara interfata: JavaFX nu este incarcat deloc
+        for (String arg : args) {
+            if (arg.equals("--headless")) {
+                HeadlessMonitor.main(args);
+                return;
+            }
+        }
         OvervoltageApp.main(args);
     }
 }
@@ -0,0 +1,543 @@
+package app;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+//interogari pe arhivele .ova ale unei placi (toate sesiunile): se citeste doar indexul,
+//blocurile sunt decodate numai cand intervalul cerut sau rezumatul min/max o cere
+//nu este sigur pentru mai multe fire (tablourile de decodare sunt refolosite)
+public class ArchiveReader implements AutoCloseable {
+
+    public interface SampleSink {
+        void accept(long timestampNanos, double voltage, int flags);
+    }
+
+    //esantioane consecutive peste nivel; end = primul esantion care a coborat (sau ultimul din interval)
+    public static final class Excursion {
+        private final long startNanos;
+        private final long endNanos;
+        private final double peak;
+        private final long peakNanos;
+        private final long samples;
+
+        Excursion(long startNanos, long endNanos, double peak, long peakNanos, long samples) {
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.peak = peak;
+            this.peakNanos = peakNanos;
+            this.samples = samples;
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getEndNanos() {
+            return endNanos;
+        }
+
+        public long getDurationNanos() {
+            return endNanos - startNanos;
+        }
+
+        public double getPeak() {
+            return peak;
+        }
+
+        public long getPeakNanos() {
+            return peakNanos;
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+    }
+
+    //rezumatul unei arhive, din index
+    public static final class Summary {
+        private final Path path;
+        private final long startNanos;
+        private final long endNanos;
+        private final long sampleCount;
+        private final int blockCount;
+
+        Summary(Path path, long startNanos, long endNanos, long sampleCount, int blockCount) {
+            this.path = path;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.sampleCount = sampleCount;
+            this.blockCount = blockCount;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        //0 pentru o arhiva goala
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getEndNanos() {
+            return endNanos;
+        }
+
+        public long getSampleCount() {
+            return sampleCount;
+        }
+
+        public int getBlockCount() {
+            return blockCount;
+        }
+    }
+
+    private static final class Block {
+        final MappedByteBuffer file;
+        final long startNanos;
+        final long endNanos;
+        final long offset;
+        final int count;
+        final int length;
+        final double min;
+        final double max;
+        final long minNanos;
+        final long maxNanos;
+        final int flags;
+
+        Block(MappedByteBuffer file, ByteBuffer index) {
+            this.file = file;
+            startNanos = index.getLong();
+            endNanos = index.getLong();
+            offset = index.getLong();
+            count = index.getInt();
+            length = index.getInt();
+            min = index.getDouble();
+            max = index.getDouble();
+            minNanos = index.getLong();
+            maxNanos = index.getLong();
+            flags = index.getInt();
+            index.getInt();
+        }
+    }
+
+    private static final Block[] NO_BLOCKS = new Block[0];
+
+    //golite la close(), ca maparile sa poata fi eliberate de GC
+    private Block[] blocks;
+    private long sampleCount;
+
+    //blocul decodat cel mai recent
+    private Block decoded;
+    private final long[] times = new long[ArchiveWriter.BLOCK_SAMPLES];
+    private final double[] values = new double[ArchiveWriter.BLOCK_SAMPLES];
+    private final int[] flags = new int[ArchiveWriter.BLOCK_SAMPLES];
+    private final BitInput in = new BitInput();
+
+    public ArchiveReader(List<Path> archives) throws IOException {
+        List<Block> all = new ArrayList<>();
+        for (Path path : archives) {
+            readIndex(path, all);
+        }
+        all.sort(Comparator.comparingLong(block -> block.startNanos));
+        blocks = all.toArray(new Block[0]);
+        long total = 0;
+        for (Block block : blocks) {
+            total += block.count;
+        }
+        sampleCount = total;
+    }
+
+    //arhivele unei placi (dupa prefixul numelui) sau tot directorul daca prefixul e null
+    public static List<Path> listArchives(Path directory, String devicePrefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String fileName = path.getFileName().toString();
+                return fileName.endsWith(ArchiveWriter.ARCHIVE_EXTENSION)
+                        && (devicePrefix == null || fileName.startsWith(devicePrefix + "-"));
+            }).sorted().toList();
+        }
+    }
+
+    private static void readIndex(Path path, List<Block> into) throws IOException {
+        MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int size = file.capacity();
+        if (size < ArchiveWriter.HEADER_SIZE + ArchiveWriter.TRAILER_SIZE) {
+            throw new IOException("Arhiva invalida sau neterminata: " + path);
+        }
+        long indexOffset = file.getLong(size - ArchiveWriter.TRAILER_SIZE);
+        int blockCount = file.getInt(size - 8);
+        checkLayout(path, size, file.getLong(0), file.getInt(size - 4), indexOffset, blockCount);
+        ByteBuffer index = file.slice((int) indexOffset, blockCount * ArchiveWriter.INDEX_ENTRY_SIZE);
+        for (int i = 0; i < blockCount; i++) {
+            into.add(new Block(file, index));
+        }
+    }
+
+    private static void checkLayout(Path path, long size, long magic, int indexMagic, long indexOffset, int blockCount)
+            throws IOException {
+        if (size < ArchiveWriter.HEADER_SIZE + ArchiveWriter.TRAILER_SIZE || magic != ArchiveWriter.MAGIC
+                || indexMagic != ArchiveWriter.INDEX_MAGIC) {
+            throw new IOException("Arhiva invalida sau neterminata: " + path);
+        }
+        long indexEnd = indexOffset + (long) blockCount * ArchiveWriter.INDEX_ENTRY_SIZE;
+        if (indexOffset < ArchiveWriter.HEADER_SIZE || blockCount < 0
+                || indexEnd != size - ArchiveWriter.TRAILER_SIZE) {
+            throw new IOException("Index de arhiva invalid: " + path);
+        }
+    }
+
+    //intervalul si numarul de esantioane citite doar din antet si index, fara maparea fisierului
+    public static Summary readSummary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < ArchiveWriter.HEADER_SIZE + ArchiveWriter.TRAILER_SIZE) {
+                throw new IOException("Arhiva invalida sau neterminata: " + path);
+            }
+            ByteBuffer header = readAt(channel, 0, 8);
+            ByteBuffer trailer = readAt(channel, size - ArchiveWriter.TRAILER_SIZE, ArchiveWriter.TRAILER_SIZE);
+            long indexOffset = trailer.getLong(0);
+            int blockCount = trailer.getInt(8);
+            checkLayout(path, size, header.getLong(0), trailer.getInt(12), indexOffset, blockCount);
+
+            ByteBuffer index = readAt(channel, indexOffset, blockCount * ArchiveWriter.INDEX_ENTRY_SIZE);
+            long start = 0;
+            long end = 0;
+            long samples = 0;
+            for (int i = 0; i < blockCount; i++) {
+                int entry = i * ArchiveWriter.INDEX_ENTRY_SIZE;
+                long blockStart = index.getLong(entry);
+                start = i == 0 ? blockStart : Math.min(start, blockStart);
+                end = Math.max(end, index.getLong(entry + 8));
+                samples += index.getInt(entry + 24);
+            }
+            return new Summary(path, start, end, samples, blockCount);
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Sfarsit neasteptat al arhivei");
+            }
+        }
+        return buffer;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getBlockCount() {
+        return blocks.length;
+    }
+
+    //0 pentru o arhiva goala
+    public long getStartNanos() {
+        return blocks.length == 0 ? 0 : blocks[0].startNanos;
+    }
+
+    public long getEndNanos() {
+        long end = 0;
+        for (Block block : blocks) {
+            end = Math.max(end, block.endNanos);
+        }
+        return end;
+    }
+
+    //numarul de esantioane din blocurile care ating intervalul, fara decodare (margini aproximate)
+    public long estimateCount(long fromNanos, long toNanos) {
+        long count = 0;
+        for (int b = firstBlock(fromNanos); b < blocks.length && blocks[b].startNanos < toNanos; b++) {
+            if (blocks[b].endNanos >= fromNanos) {
+                count += blocks[b].count;
+            }
+        }
+        return count;
+    }
+
+    //toate esantioanele cu fromNanos <= timestamp < toNanos, in ordine
+    public long scan(long fromNanos, long toNanos, SampleSink sink) {
+        long emitted = 0;
+        for (int b = firstBlock(fromNanos); b < blocks.length && blocks[b].startNanos < toNanos; b++) {
+            Block block = blocks[b];
+            if (block.endNanos < fromNanos) {
+                continue;
+            }
+            decode(block);
+            for (int i = 0; i < block.count; i++) {
+                if (times[i] >= fromNanos && times[i] < toNanos) {
+                    sink.accept(times[i], values[i], flags[i]);
+                    emitted++;
+                }
+            }
+        }
+        return emitted;
+    }
+
+    //min si max pe fiecare interval de timp, in ordinea aparitiei (ca SampleHistory.decimate)
+    //blocurile care incap intr-un singur interval se iau din index, fara decodare
+    public int decimate(long fromNanos, long toNanos, int buckets, SampleSink sink) {
+        if (fromNanos >= toNanos || buckets <= 0) {
+            return 0;
+        }
+        long span = toNanos - fromNanos;
+        double[] bucketMin = new double[buckets];
+        double[] bucketMax = new double[buckets];
+        long[] bucketMinNanos = new long[buckets];
+        long[] bucketMaxNanos = new long[buckets];
+        int[] bucketFlags = new int[buckets];
+        Arrays.fill(bucketMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(bucketMax, Double.NEGATIVE_INFINITY);
+
+        for (int b = firstBlock(fromNanos); b < blocks.length && blocks[b].startNanos < toNanos; b++) {
+            Block block = blocks[b];
+            if (block.endNanos < fromNanos) {
+                continue;
+            }
+            int first = bucketOf(block.startNanos, fromNanos, span, buckets);
+            if (block.startNanos >= fromNanos && block.endNanos < toNanos
+                    && first == bucketOf(block.endNanos, fromNanos, span, buckets)) {
+                if (block.min < bucketMin[first]) {
+                    bucketMin[first] = block.min;
+                    bucketMinNanos[first] = block.minNanos;
+                }
+                if (block.max > bucketMax[first]) {
+                    bucketMax[first] = block.max;
+                    bucketMaxNanos[first] = block.maxNanos;
+                }
+                bucketFlags[first] |= block.flags;
+                continue;
+            }
+            decode(block);
+            for (int i = 0; i < block.count; i++) {
+                long time = times[i];
+                if (time < fromNanos || time >= toNanos) {
+                    continue;
+                }
+                int bucket = bucketOf(time, fromNanos, span, buckets);
+                if (values[i] < bucketMin[bucket]) {
+                    bucketMin[bucket] = values[i];
+                    bucketMinNanos[bucket] = time;
+                }
+                if (values[i] > bucketMax[bucket]) {
+                    bucketMax[bucket] = values[i];
+                    bucketMaxNanos[bucket] = time;
+                }
+                bucketFlags[bucket] |= flags[i];
+            }
+        }
+
+        int emitted = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (bucketMax[bucket] == Double.NEGATIVE_INFINITY) {
+                continue;
+            }
+            if (bucketMinNanos[bucket] == bucketMaxNanos[bucket]) {
+                sink.accept(bucketMaxNanos[bucket], bucketMax[bucket], bucketFlags[bucket]);
+                emitted++;
+            } else if (bucketMinNanos[bucket] < bucketMaxNanos[bucket]) {
+                sink.accept(bucketMinNanos[bucket], bucketMin[bucket], bucketFlags[bucket]);
+                sink.accept(bucketMaxNanos[bucket], bucketMax[bucket], bucketFlags[bucket]);
+                emitted += 2;
+            } else {
+                sink.accept(bucketMaxNanos[bucket], bucketMax[bucket], bucketFlags[bucket]);
+                sink.accept(bucketMinNanos[bucket], bucketMin[bucket], bucketFlags[bucket]);
+                emitted += 2;
+            }
+        }
+        return emitted;
+    }
+
+    private static int bucketOf(long time, long fromNanos, long span, int buckets) {
+        return (int) Math.min(buckets - 1, Math.max(0, (long) ((double) (time - fromNanos) / span * buckets)));
+    }
+
+    //depasirile nivelului in interval; blocurile cu max <= nivel nu sunt decodate
+    public List<Excursion> findExcursions(long fromNanos, long toNanos, double level, long minDurationNanos) {
+        List<Excursion> excursions = new ArrayList<>();
+        boolean open = false;
+        long start = 0;
+        long last = 0;
+        double peak = 0;
+        long peakNanos = 0;
+        long samples = 0;
+
+        for (int b = firstBlock(fromNanos); b < blocks.length && blocks[b].startNanos < toNanos; b++) {
+            Block block = blocks[b];
+            if (block.endNanos < fromNanos) {
+                continue;
+            }
+            if (block.max <= level) {
+                if (open) {
+                    //primul esantion al blocului a coborat deja sub nivel
+                    addExcursion(excursions, start, block.startNanos, peak, peakNanos, samples, minDurationNanos);
+                    open = false;
+                }
+                continue;
+            }
+            decode(block);
+            for (int i = 0; i < block.count; i++) {
+                long time = times[i];
+                if (time < fromNanos || time >= toNanos) {
+                    continue;
+                }
+                double value = values[i];
+                if (value > level) {
+                    if (!open) {
+                        open = true;
+                        start = time;
+                        peak = value;
+                        peakNanos = time;
+                        samples = 0;
+                    } else if (value > peak) {
+                        peak = value;
+                        peakNanos = time;
+                    }
+                    samples++;
+                    last = time;
+                } else if (open) {
+                    addExcursion(excursions, start, time, peak, peakNanos, samples, minDurationNanos);
+                    open = false;
+                }
+            }
+        }
+        if (open) {
+            addExcursion(excursions, start, last, peak, peakNanos, samples, minDurationNanos);
+        }
+        return excursions;
+    }
+
+    private static void addExcursion(List<Excursion> excursions, long start, long end, double peak, long peakNanos,
+                                     long samples, long minDurationNanos) {
+        if (end - start >= minDurationNanos) {
+            excursions.add(new Excursion(start, end, peak, peakNanos, samples));
+        }
+    }
+
+    //primul bloc care se poate termina dupa fromNanos; blocurile sunt sortate dupa inceput si nu se suprapun
+    //in cadrul unei sesiuni, asa ca se cauta binar dupa inceput si se da un pas inapoi
+    private int firstBlock(long fromNanos) {
+        int low = 0;
+        int high = blocks.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blocks[mid].startNanos <= fromNanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return Math.max(0, low - 1);
+    }
+
+    private void decode(Block block) {
+        if (decoded == block) {
+            return;
+        }
+        in.load(block.file, (int) block.offset, block.length);
+        long time = in.read(64);
+        long valueBits = in.read(64);
+        int flag = (int) in.read(8);
+        times[0] = time;
+        values[0] = Double.longBitsToDouble(valueBits);
+        flags[0] = flag;
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < block.count; i++) {
+            delta += readDeltaOfDelta(in);
+            time += delta;
+
+            if (in.read(1) != 0) {
+                if (in.read(1) != 0) {
+                    leading = (int) in.read(6);
+                    int significant = (int) in.read(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                valueBits ^= in.read(64 - leading - trailing) << trailing;
+            }
+            if (in.read(1) != 0) {
+                flag = (int) in.read(8);
+            }
+            times[i] = time;
+            values[i] = Double.longBitsToDouble(valueBits);
+            flags[i] = flag;
+        }
+        decoded = block;
+    }
+
+    static long readDeltaOfDelta(BitInput in) {
+        if (in.read(1) == 0) {
+            return 0;
+        }
+        if (in.read(1) == 0) {
+            return in.readSigned(12);
+        }
+        if (in.read(1) == 0) {
+            return in.readSigned(24);
+        }
+        if (in.read(1) == 0) {
+            return in.readSigned(36);
+        }
+        return in.read(64);
+    }
+
+    //maparile nu se pot elibera explicit; fara referinte, GC le elibereaza
+    @Override
+    public void close() {
+        decoded = null;
+        blocks = NO_BLOCKS;
+        sampleCount = 0;
+    }
+
+    //citire biti dintr-un bloc copiat din fisierul mapat, cel mai semnificativ bit primul
+    static final class BitInput {
+        private byte[] bytes = new byte[ArchiveWriter.BLOCK_SAMPLES * 16];
+        private int position;
+        private long cache;
+        private int cacheBits;
+
+        void load(ByteBuffer file, int offset, int length) {
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            file.get(offset, bytes, 0, length);
+            position = 0;
+            cache = 0;
+            cacheBits = 0;
+        }
+
+        //pana la 56 de biti dintr-o data din cache; 64 in doua bucati
+        long read(int width) {
+            if (width > 56) {
+                long high = read(width - 32);
+                return (high << 32) | read(32);
+            }
+            while (cacheBits < width) {
+                cache = (cache << 8) | (bytes[position++] & 0xFF);
+                cacheBits += 8;
+            }
+            cacheBits -= width;
+            return (cache >>> cacheBits) & ((1L << width) - 1);
+        }
+
+        long readSigned(int width) {
+            long value = read(width);
+            return (value << (64 - width)) >> (64 - width);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package app;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+//arhiva comprimata (.ova) pentru o placa: blocuri de cel mult 1024 esantioane care nu traverseaza o granita de 10 s
+//in fiecare bloc: timestamp-uri delta-of-delta, tensiuni XOR fata de precedenta (Gorilla), flag-uri doar la schimbare
+//la sfarsitul fisierului: indexul blocurilor (interval, min/max, flag-uri) pentru sarirea blocurilor la interogare
+//structura: antet 64 octeti | blocuri | index (INDEX_ENTRY_SIZE per bloc) | offset index (8), numar blocuri (4), INDEX_MAGIC (4)
+public class ArchiveWriter implements AutoCloseable {
+
+    public static final long MAGIC = 0x4F56415243483031L; // "OVARCH01"
+    public static final int INDEX_MAGIC = 0x4F564149; // "OVAI"
+    public static final int HEADER_SIZE = 64;
+    public static final int INDEX_ENTRY_SIZE = 72;
+    public static final int TRAILER_SIZE = 16;
+    public static final int BLOCK_SAMPLES = 1024;
+    public static final long PARTITION_NANOS = 10_000_000_000L;
+    public static final String ARCHIVE_EXTENSION = ".ova";
+
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final BitOutput bits = new BitOutput(BLOCK_SAMPLES * 16);
+    private ByteBuffer index = ByteBuffer.allocate(INDEX_ENTRY_SIZE * 64);
+    private int blockCount;
+    private long fileOffset = HEADER_SIZE;
+    private boolean closed;
+
+    //blocul curent
+    private int count;
+    private long partition;
+    private long startNanos;
+    private long lastNanos;
+    private long lastDelta;
+    private long lastBits;
+    private int lastLeading;
+    private int lastTrailing;
+    private int lastFlags;
+    private double min;
+    private double max;
+    private long minNanos;
+    private long maxNanos;
+    private int flagsOr;
+
+    //fisierul apare sub numele final doar dupa close(), ca o arhiva neterminata sa nu fie citita
+    public ArchiveWriter(Path target, int deviceId) throws IOException {
+        this.target = target;
+        this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putLong(0, MAGIC);
+        header.putInt(8, BLOCK_SAMPLES);
+        header.putInt(12, deviceId);
+        writeFully(header);
+    }
+
+    //segmentele brute ale unei sesiuni (RecordingReader) intr-o singura arhiva
+    public static long archive(List<Path> segments, Path target, int deviceId) throws IOException {
+        long samples = 0;
+        try (RecordingReader reader = new RecordingReader(segments);
+             ArchiveWriter writer = new ArchiveWriter(target, deviceId)) {
+            while (reader.next()) {
+                writer.append(reader.getTimestampNanos(), reader.getVoltage(), reader.getFlags());
+                samples++;
+            }
+        }
+        return samples;
+    }
+
+    //timestamp-urile trebuie sa fie crescatoare (epoch nanos)
+    public void append(long timestampNanos, double voltage, int flags) throws IOException {
+        if (count > 0 && timestampNanos < lastNanos) {
+            throw new IllegalArgumentException("Esantion in afara ordinii: " + timestampNanos + " < " + lastNanos);
+        }
+        long samplePartition = Math.floorDiv(timestampNanos, PARTITION_NANOS);
+        if (count > 0 && (count == BLOCK_SAMPLES || samplePartition != partition)) {
+            finishBlock();
+        }
+
+        long valueBits = Double.doubleToRawLongBits(voltage);
+        flags &= 0xFF;
+        if (count == 0) {
+            partition = samplePartition;
+            startNanos = timestampNanos;
+            bits.reset();
+            bits.write(timestampNanos, 64);
+            bits.write(valueBits, 64);
+            bits.write(flags, 8);
+            lastDelta = 0;
+            lastLeading = Integer.MAX_VALUE;
+            lastTrailing = 0;
+            min = voltage;
+            max = voltage;
+            minNanos = timestampNanos;
+            maxNanos = timestampNanos;
+            flagsOr = 0;
+        } else {
+            writeTimestamp(timestampNanos - lastNanos);
+            writeValue(valueBits);
+            if (flags == lastFlags) {
+                bits.write(0, 1);
+            } else {
+                bits.write(1, 1);
+                bits.write(flags, 8);
+            }
+            if (voltage < min) {
+                min = voltage;
+                minNanos = timestampNanos;
+            }
+            if (voltage > max) {
+                max = voltage;
+                maxNanos = timestampNanos;
+            }
+        }
+        lastNanos = timestampNanos;
+        lastBits = valueBits;
+        lastFlags = flags;
+        flagsOr |= flags;
+        count++;
+    }
+
+    private void writeTimestamp(long delta) {
+        writeDeltaOfDelta(bits, delta - lastDelta);
+        lastDelta = delta;
+    }
+
+    //delta-of-delta: 0 intr-un bit, altfel prefix + 12/24/36/64 biti
+    //in cadrul unei partitii de 10 s ajung 36 de biti; forma de 64 ramane pentru orice valoare
+    static void writeDeltaOfDelta(BitOutput bits, long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            bits.write(0, 1);
+        } else if (fitsSigned(deltaOfDelta, 12)) {
+            bits.write(0b10, 2);
+            bits.write(deltaOfDelta, 12);
+        } else if (fitsSigned(deltaOfDelta, 24)) {
+            bits.write(0b110, 3);
+            bits.write(deltaOfDelta, 24);
+        } else if (fitsSigned(deltaOfDelta, 36)) {
+            bits.write(0b1110, 4);
+            bits.write(deltaOfDelta, 36);
+        } else {
+            bits.write(0b1111, 4);
+            bits.write(deltaOfDelta, 64);
+        }
+    }
+
+    //XOR cu valoarea precedenta; se refoloseste fereastra de biti semnificativi cand noul XOR incape in ea
+    private void writeValue(long valueBits) {
+        long xor = valueBits ^ lastBits;
+        if (xor == 0) {
+            bits.write(0, 1);
+            return;
+        }
+        int leading = Long.numberOfLeadingZeros(xor);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (leading >= lastLeading && trailing >= lastTrailing) {
+            bits.write(0b10, 2);
+            bits.write(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+        } else {
+            int significant = 64 - leading - trailing;
+            bits.write(0b11, 2);
+            bits.write(leading, 6);
+            bits.write(significant - 1, 6);
+            bits.write(xor >>> trailing, significant);
+            lastLeading = leading;
+            lastTrailing = trailing;
+        }
+    }
+
+    static boolean fitsSigned(long value, int width) {
+        long limit = 1L << (width - 1);
+        return value >= -limit && value < limit;
+    }
+
+    private void finishBlock() throws IOException {
+        ByteBuffer block = bits.finish();
+        int length = block.remaining();
+        writeFully(block);
+
+        if (index.remaining() < INDEX_ENTRY_SIZE) {
+            ByteBuffer larger = ByteBuffer.allocate(index.capacity() * 2);
+            index.flip();
+            larger.put(index);
+            index = larger;
+        }
+        index.putLong(startNanos);
+        index.putLong(lastNanos);
+        index.putLong(fileOffset);
+        index.putInt(count);
+        index.putInt(length);
+        index.putDouble(min);
+        index.putDouble(max);
+        index.putLong(minNanos);
+        index.putLong(maxNanos);
+        index.putInt(flagsOr);
+        index.putInt(0);
+
+        fileOffset += length;
+        blockCount++;
+        count = 0;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (count > 0) {
+                finishBlock();
+            }
+            index.flip();
+            writeFully(index);
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            trailer.putLong(0, fileOffset);
+            trailer.putInt(8, blockCount);
+            trailer.putInt(12, INDEX_MAGIC);
+            writeFully(trailer);
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //flux de biti, cel mai semnificativ bit primul; un singur bloc in memorie
+    static final class BitOutput {
+        private byte[] bytes;
+        private int length;
+        private long pending;
+        private int pendingBits;
+
+        BitOutput(int initialCapacity) {
+            bytes = new byte[initialCapacity];
+        }
+
+        void reset() {
+            length = 0;
+            pending = 0;
+            pendingBits = 0;
+        }
+
+        //ultimii width biti din value
+        void write(long value, int width) {
+            while (width > 0) {
+                int take = Math.min(width, 8 - pendingBits);
+                width -= take;
+                long chunk = (value >>> width) & ((1L << take) - 1);
+                pending = (pending << take) | chunk;
+                pendingBits += take;
+                if (pendingBits == 8) {
+                    append((byte) pending);
+                    pending = 0;
+                    pendingBits = 0;
+                }
+            }
+        }
+
+        private void append(byte value) {
+            if (length == bytes.length) {
+                byte[] larger = new byte[bytes.length * 2];
+                System.arraycopy(bytes, 0, larger, 0, length);
+                bytes = larger;
+            }
+            bytes[length++] = value;
+        }
+
+        ByteBuffer finish() {
+            if (pendingBits > 0) {
+                append((byte) (pending << (8 - pendingBits)));
+                pending = 0;
+                pendingBits = 0;
+            }
+            return ByteBuffer.wrap(bytes, 0, length);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package app;
+
+import java.awt.Toolkit;
+
+//semnal sonor al sistemului; AWT se incarca abia la prima alerta, pe firul destinatiei
+public class BeepAlertSink implements AlertDispatcher.Sink {
+
+    @Override
+    public String getName() {
+        return "sunet";
+    }
+
+    @Override
+    public void deliver(AlertDispatcher.Notice notice) {
+        Toolkit.getDefaultToolkit().beep();
+    }
+}
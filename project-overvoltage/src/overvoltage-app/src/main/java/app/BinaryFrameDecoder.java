@@ -0,0 +1,115 @@
+package app;
+
+import java.util.Arrays;
+
+public class BinaryFrameDecoder {
+
+    //cadru: sync, secventa, ADC low, ADC high, checksum (xor peste primii 4 octeti)
+    public static final int FRAME_SYNC = 0xA5;
+    public static final int FRAME_LENGTH = 5;
+    //raspuns la comanda: sync, id, stare (0 = OK), valoare low, valoare high, checksum (xor peste primii 5 octeti)
+    //nu intra in numaratoarea secventelor
+    public static final int ACK_SYNC = 0xA6;
+    public static final int ACK_LENGTH = 6;
+    //valoarea trimisa cand raspunsul nu are una (ca "@<id> OK" fara valoare in mod ASCII)
+    public static final int ACK_NO_VALUE = 0xFFFF;
+    private static final double ADC_MAX = 1023.0;
+    private static final double ADC_REFERENCE_VOLTAGE = 5.0;
+
+    private final VoltageFrameParser.Listener listener;
+    //octetii cadrului curent, de la sync; pastrati pentru recautarea dupa o eroare
+    private final int[] frame = new int[Math.max(FRAME_LENGTH, ACK_LENGTH)];
+    private int filled;
+    private int lastSequence = -1;
+
+    //statistici (scrise doar de firul de citire)
+    private volatile long frameCount;
+    private volatile long droppedFrames;
+    private volatile long checksumErrors;
+    private volatile long skippedBytes;
+
+    public BinaryFrameDecoder(VoltageFrameParser.Listener listener) {
+        this.listener = listener;
+    }
+
+    public void reset() {
+        filled = 0;
+        lastSequence = -1;
+    }
+
+    public void accept(byte b) {
+        int value = b & 0xFF;
+        if (filled == 0) {
+            if (value == FRAME_SYNC || value == ACK_SYNC) {
+                frame[filled++] = value;
+            } else {
+                skippedBytes++;
+            }
+            return;
+        }
+        frame[filled++] = value;
+        boolean ack = frame[0] == ACK_SYNC;
+        int length = ack ? ACK_LENGTH : FRAME_LENGTH;
+        if (filled < length) {
+            return;
+        }
+        filled = 0;
+
+        int checksum = 0;
+        for (int i = 0; i < length - 1; i++) {
+            checksum ^= frame[i];
+        }
+        boolean valid = frame[length - 1] == checksum;
+        if (ack && valid) {
+            onAck(frame[1], frame[2], frame[3] | (frame[4] << 8));
+        } else if (!ack && valid && frame[3] <= 0x03) {
+            onFrame(frame[1], (frame[3] << 8) | frame[2]);
+        } else {
+            checksumErrors++;
+            resync(length);
+        }
+    }
+
+    //cadru respins: sync-ul real poate fi printre octetii lui (cadru trunchiat), deci se reiau cei de dupa primul
+    //copie locala: reluarea poate respinge la randul ei un cadru; alocare doar la erori
+    private void resync(int length) {
+        int[] rest = Arrays.copyOfRange(frame, 1, length);
+        for (int b : rest) {
+            accept((byte) b);
+        }
+    }
+
+    private void onAck(int id, int status, int value) {
+        if (status != 0) {
+            listener.onCommandResponse(id, false, "cod " + status);
+        } else {
+            listener.onCommandResponse(id, true, value == ACK_NO_VALUE ? "" : String.valueOf(value));
+        }
+    }
+
+    private void onFrame(int sequence, int adc) {
+        if (lastSequence >= 0) {
+            int gap = (sequence - lastSequence - 1) & 0xFF;
+            droppedFrames += gap;
+        }
+        lastSequence = sequence;
+        frameCount++;
+        listener.onSample(adc / ADC_MAX * ADC_REFERENCE_VOLTAGE);
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public long getChecksumErrors() {
+        return checksumErrors;
+    }
+
+    public long getSkippedBytes() {
+        return skippedBytes;
+    }
+}
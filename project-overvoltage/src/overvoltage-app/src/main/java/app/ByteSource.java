@@ -0,0 +1,29 @@
+package app;
+
+import java.io.IOException;
+
+//sursa de octeti citita de SerialIngestEngine: port serial, inregistrare redata sau generator
+public interface ByteSource {
+
+    //pentru sursele care se reconecteaza singure; apelat pe firul de citire
+    interface ConnectionListener {
+        void onConnectionLost(IOException error);
+
+        //inaintea primilor octeti de dupa reconectare
+        void onConnectionResumed();
+    }
+
+    String getName();
+
+    //blocheaza pana la cel putin un octet; -1 la sfarsitul datelor sau dupa inchidere
+    int read(byte[] buffer, int length) throws IOException;
+
+    void write(byte[] data, int length) throws IOException;
+
+    boolean isOpen();
+
+    boolean close();
+
+    default void setConnectionListener(ConnectionListener listener) {
+    }
+}
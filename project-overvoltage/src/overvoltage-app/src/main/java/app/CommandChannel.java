@@ -0,0 +1,189 @@
+package app;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+//comenzi catre placa: "#<id> <COD> [argument]\n"; raspuns "@<id> OK|ERR [detaliu]"
+//in mod binar raspunsul vine ca cadru ACK (BinaryFrameDecoder.ACK_SYNC), intre cadrele de esantioane
+//comenzile nu asteapta raspunsul celor anterioare; raspunsurile se potrivesc dupa id
+public class CommandChannel {
+
+    public enum Command {
+        PING("PING"),
+        SET_THRESHOLD("THR"),
+        SET_INTERVAL("INT"),
+        BINARY("BIN"),
+        ASCII("ASC");
+
+        private final String code;
+
+        Command(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    public static final class Response {
+        private final int id;
+        private final Command command;
+        private final boolean ok;
+        private final String detail;
+        private final long rttNanos;
+
+        Response(int id, Command command, boolean ok, String detail, long rttNanos) {
+            this.id = id;
+            this.command = command;
+            this.ok = ok;
+            this.detail = detail;
+            this.rttNanos = rttNanos;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public Command getCommand() {
+            return command;
+        }
+
+        public boolean isOk() {
+            return ok;
+        }
+
+        //textul de dupa OK/ERR, gol daca lipseste
+        public String getDetail() {
+            return detail;
+        }
+
+        //de la scrierea comenzii pana la sosirea bucatii cu raspunsul
+        public long getRttNanos() {
+            return rttNanos;
+        }
+    }
+
+    public static final long DEFAULT_TIMEOUT_MILLIS = 1000;
+    public static final int MAX_IN_FLIGHT = 32;
+    //id 0 este rezervat; id-urile se refolosesc circular
+    private static final int MAX_ID = 255;
+
+    private static final class Pending {
+        final int id;
+        final Command command;
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+        //final: firul de citire il vede prin publicarea in map, fara alta sincronizare
+        final long sentNanos;
+
+        Pending(int id, Command command, long sentNanos) {
+            this.id = id;
+            this.command = command;
+            this.sentNanos = sentNanos;
+        }
+    }
+
+    private final ByteSource source;
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+    private int nextId = 1;
+
+    //RTT scris doar de firul de citire
+    private final LatencyHistogram rtt = new LatencyHistogram();
+    private volatile long lastRttNanos = -1;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public CommandChannel(ByteSource source) {
+        this.source = source;
+    }
+
+    //de pe orice fir; viitorul se completeaza pe firul de citire (raspuns) sau la expirare
+    public CompletableFuture<Response> send(Command command, String argument, long timeoutMillis) {
+        Pending entry;
+        synchronized (this) {
+            if (pending.size() >= MAX_IN_FLIGHT) {
+                return CompletableFuture.failedFuture(
+                        new IOException("Prea multe comenzi fara raspuns (" + MAX_IN_FLIGHT + ")"));
+            }
+            int id = nextId;
+            while (pending.containsKey(id)) {
+                id = id % MAX_ID + 1;
+            }
+            nextId = id % MAX_ID + 1;
+            String line = "#" + id + " " + command.getCode() + (argument != null ? " " + argument : "") + "\n";
+            byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+            entry = new Pending(id, command, System.nanoTime());
+            pending.put(id, entry);
+            try {
+                source.write(bytes, bytes.length);
+            } catch (IOException e) {
+                pending.remove(id);
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        sentCount.incrementAndGet();
+        entry.future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((response, error) -> {
+            if (error instanceof TimeoutException && pending.remove(entry.id, entry)) {
+                timeoutCount.incrementAndGet();
+            }
+        });
+        return entry.future;
+    }
+
+    //firul de citire; null daca id-ul nu asteapta raspuns (expirat sau necunoscut)
+    Command complete(int id, boolean ok, String detail, long arrivalNanos) {
+        Pending entry = pending.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        long elapsed = Math.max(0, arrivalNanos - entry.sentNanos);
+        rtt.record(elapsed);
+        lastRttNanos = elapsed;
+        if (!ok) {
+            rejectedCount.incrementAndGet();
+        }
+        entry.future.complete(new Response(id, entry.command, ok, detail, elapsed));
+        return entry.command;
+    }
+
+    //legatura pierduta sau placa oprita: nu mai vine niciun raspuns
+    void failAll(IOException error) {
+        for (Pending entry : pending.values()) {
+            if (pending.remove(entry.id, entry)) {
+                entry.future.completeExceptionally(error);
+            }
+        }
+    }
+
+    public int getInFlight() {
+        return pending.size();
+    }
+
+    //-1 inainte de primul raspuns
+    public long getLastRttNanos() {
+        return lastRttNanos;
+    }
+
+    public LatencyHistogram getRtt() {
+        return rtt;
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
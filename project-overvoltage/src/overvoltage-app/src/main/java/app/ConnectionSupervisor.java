@@ -0,0 +1,275 @@
+package app;
+
+import com.fazecast.jSerialComm.SerialPort;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+//toate operatiile lente pe porturi, pe un singur fir separat de FX si de firele de citire:
+//enumerare periodica (detectie USB conectat/scos), deschidere/inchidere si reconectare cu asteptare exponentiala
+public class ConnectionSupervisor {
+
+    //port gasit la ultima enumerare
+    public static final class PortInfo {
+        private final String name;
+        private final String description;
+
+        PortInfo(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private static final long SCAN_NANOS = 500_000_000L;
+    private static final long INITIAL_BACKOFF_NANOS = 100_000_000L;
+    private static final long MAX_BACKOFF_NANOS = 5_000_000_000L;
+    //o placa monitorizata care a disparut revine de obicei repede (reset, cablu miscat): pauza maxima mai mica
+    private static final long MAX_REOPEN_BACKOFF_NANOS = 250_000_000L;
+
+    private final DeviceManager deviceManager;
+    private final DeviceMonitor.Listener listener;
+    private final LinkedBlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread thread;
+
+    //doar pe firul supervizorului
+    private final Map<String, Retry> lostSources = new HashMap<>();
+    private final Map<String, Retry> watchedPorts = new HashMap<>();
+    private Set<String> knownPorts = new HashSet<>();
+    private List<PortInfo> ports = new ArrayList<>();
+    private boolean scanned;
+
+    //o sursa pierduta (redeschidere) sau un port urmarit care nu este monitorizat (conectare)
+    private static final class Retry {
+        final SerialPortSource source;
+        final int baudRate;
+        final ThresholdConfig thresholdConfig;
+        final long maxDelayNanos;
+        long delayNanos = INITIAL_BACKOFF_NANOS;
+        long nextAttemptNanos;
+        int attempts;
+
+        Retry(SerialPortSource source, int baudRate, ThresholdConfig thresholdConfig, long now) {
+            this.source = source;
+            this.baudRate = baudRate;
+            this.thresholdConfig = thresholdConfig;
+            this.maxDelayNanos = source != null ? MAX_REOPEN_BACKOFF_NANOS : MAX_BACKOFF_NANOS;
+            this.nextAttemptNanos = now;
+        }
+
+        void backoff(long now) {
+            attempts++;
+            nextAttemptNanos = now + delayNanos;
+            delayNanos = Math.min(delayNanos * 2, maxDelayNanos);
+        }
+    }
+
+    ConnectionSupervisor(DeviceManager deviceManager, DeviceMonitor.Listener listener) {
+        this.deviceManager = deviceManager;
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "connection-supervisor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    //conectare o singura data; rezultatul vine prin onConnected / onConnectFailed
+    public void connect(String portName, int baudRate, ThresholdConfig thresholdConfig) {
+        tasks.add(() -> {
+            try {
+                listener.onConnected(deviceManager.connect(portName, baudRate, thresholdConfig));
+            } catch (IOException e) {
+                listener.onLog(portName, LogBuffer.Level.ERROR, "EROARE: " + e.getMessage());
+                listener.onConnectFailed(portName, e);
+            }
+        });
+    }
+
+    //portul este deschis cand apare si redeschis daca monitorizarea se opreste (mod headless)
+    public void watch(String portName, int baudRate, ThresholdConfig thresholdConfig) {
+        tasks.add(() -> watchedPorts.put(portName, new Retry(null, baudRate, thresholdConfig, System.nanoTime())));
+    }
+
+    public void disconnect(String portName) {
+        tasks.add(() -> {
+            watchedPorts.remove(portName);
+            deviceManager.disconnect(portName);
+        });
+    }
+
+    //enumerare imediata, lista este trimisa chiar daca nu s-a schimbat
+    public void rescan() {
+        tasks.add(() -> scan(true));
+    }
+
+    //apelat de firul de citire al sursei care a pierdut legatura
+    void reopenLater(SerialPortSource source) {
+        tasks.add(() -> lostSources.put(source.getName(),
+                new Retry(source, source.getBaudRate(), null, System.nanoTime() + INITIAL_BACKOFF_NANOS)));
+    }
+
+    private void run() {
+        long nextScan = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            if (now - nextScan >= 0) {
+                scan(false);
+                nextScan = now + SCAN_NANOS;
+            }
+            reopenDue(now);
+            connectDue(now);
+
+            long wakeAt = nextAttempt(watchedPorts, nextAttempt(lostSources, nextScan));
+            try {
+                Runnable task = tasks.poll(Math.max(0, wakeAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+                while (task != null) {
+                    runTask(task);
+                    task = tasks.poll();
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            listener.onLog(null, LogBuffer.Level.ERROR, "EROARE in supervizorul conexiunilor: " + e);
+        }
+    }
+
+    private void scan(boolean force) {
+        SerialPort[] found;
+        try {
+            found = SerialPort.getCommPorts();
+        } catch (RuntimeException e) {
+            listener.onLog(null, LogBuffer.Level.ERROR, "EROARE la enumerarea porturilor: " + e.getMessage());
+            return;
+        }
+        List<PortInfo> current = new ArrayList<>(found.length);
+        Set<String> names = new HashSet<>();
+        boolean changed = !scanned || found.length != ports.size();
+        for (int i = 0; i < found.length; i++) {
+            PortInfo info = new PortInfo(found[i].getSystemPortName(), found[i].getDescriptivePortName());
+            current.add(info);
+            names.add(info.getName());
+            if (!changed && (!info.getName().equals(ports.get(i).getName())
+                    || !info.getDescription().equals(ports.get(i).getDescription()))) {
+                changed = true;
+            }
+        }
+
+        if (scanned) {
+            long now = System.nanoTime();
+            for (String name : names) {
+                if (!knownPorts.contains(name)) {
+                    listener.onLog(name, LogBuffer.Level.INFO, "Port conectat: " + name);
+                    //conectare la cald: nu se mai asteapta sfarsitul pauzei
+                    retryNow(lostSources.get(name), now);
+                    retryNow(watchedPorts.get(name), now);
+                }
+            }
+            for (String name : knownPorts) {
+                if (!names.contains(name)) {
+                    listener.onLog(name, LogBuffer.Level.INFO, "Port deconectat: " + name);
+                }
+            }
+        }
+        scanned = true;
+        knownPorts = names;
+        ports = current;
+        if (changed || force) {
+            listener.onPortsChanged(List.copyOf(current));
+        }
+    }
+
+    private static void retryNow(Retry retry, long now) {
+        if (retry != null) {
+            retry.nextAttemptNanos = now;
+            retry.delayNanos = INITIAL_BACKOFF_NANOS;
+        }
+    }
+
+    private static long nextAttempt(Map<String, Retry> retries, long latest) {
+        long next = latest;
+        for (Retry retry : retries.values()) {
+            if (retry.nextAttemptNanos - next < 0) {
+                next = retry.nextAttemptNanos;
+            }
+        }
+        return next;
+    }
+
+    //firul de citire asteapta in SerialPortSource pana cand portul este redeschis sau sursa inchisa
+    private void reopenDue(long now) {
+        Iterator<Retry> iterator = lostSources.values().iterator();
+        while (iterator.hasNext()) {
+            Retry retry = iterator.next();
+            if (retry.nextAttemptNanos - now <= 0) {
+                if (retry.source.reopen()) {
+                    iterator.remove();
+                } else {
+                    retry.backoff(System.nanoTime());
+                }
+            }
+        }
+    }
+
+    private void connectDue(long now) {
+        for (Map.Entry<String, Retry> entry : watchedPorts.entrySet()) {
+            String portName = entry.getKey();
+            Retry retry = entry.getValue();
+            if (retry.nextAttemptNanos - now > 0) {
+                continue;
+            }
+            if (deviceManager.isConnected(portName)) {
+                //inca monitorizat; se verifica din nou la urmatoarea enumerare
+                retry.nextAttemptNanos = now + SCAN_NANOS;
+                continue;
+            }
+            try {
+                listener.onConnected(deviceManager.connect(portName, retry.baudRate, retry.thresholdConfig));
+                retry.delayNanos = INITIAL_BACKOFF_NANOS;
+                retry.attempts = 0;
+            } catch (IOException e) {
+                //primul esec si apoi doar cand pauza a ajuns la maxim, ca logul sa nu fie inundat
+                if (retry.attempts == 0 || retry.delayNanos == MAX_BACKOFF_NANOS) {
+                    listener.onLog(portName, LogBuffer.Level.ERROR, "EROARE: " + e.getMessage()
+                            + ". Reincercare in " + retry.delayNanos / 1_000_000 + " ms");
+                }
+                retry.backoff(System.nanoTime());
+            }
+        }
+    }
+}
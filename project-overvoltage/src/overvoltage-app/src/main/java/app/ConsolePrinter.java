@@ -0,0 +1,102 @@
+package app;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+//consola modului fara interfata: firele de citire doar pun linia intr-o coada marginita
+//formatarea si scrierea in System.out/err se fac pe firul propriu, in ordinea sosirii
+//coada plina: linia se pierde si se numara; numarul apare inaintea urmatoarei linii scrise
+public class ConsolePrinter implements AutoCloseable {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final long CLOSE_TIMEOUT_MILLIS = 2000;
+
+    private static final class Line {
+        final long timeMillis;
+        final String source;
+        final String message;
+        final boolean error;
+
+        Line(long timeMillis, String source, String message, boolean error) {
+            this.timeMillis = timeMillis;
+            this.source = source;
+            this.message = message;
+            this.error = error;
+        }
+    }
+
+    private final ArrayBlockingQueue<Line> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    public ConsolePrinter() {
+        thread = new Thread(this::drain, "console-printer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    //de pe orice fir, fara blocare; dupa close() scrie direct
+    public void print(String source, String message, boolean error) {
+        Line line = new Line(System.currentTimeMillis(), source, message, error);
+        if (closed) {
+            write(line);
+        } else if (!queue.offer(line)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Line line;
+            try {
+                line = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            write(line);
+        }
+    }
+
+    private synchronized void write(Line line) {
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            System.err.println(format(line.timeMillis, null,
+                    lost + " linii de jurnal omise, consola nu a tinut pasul"));
+        }
+        PrintStream out = line.error ? System.err : System.out;
+        out.println(format(line.timeMillis, line.source, line.message));
+    }
+
+    private static String format(long timeMillis, String source, String message) {
+        String time = TIME_FORMAT.format(Instant.ofEpochMilli(timeMillis));
+        return source == null ? time + "  " + message : time + "  [" + source + "] " + message;
+    }
+
+    //liniile ramase in coada se scriu inainte de intoarcere
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        try {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Line> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (Line line : remaining) {
+            write(line);
+        }
+        System.out.flush();
+        System.err.flush();
+    }
+}
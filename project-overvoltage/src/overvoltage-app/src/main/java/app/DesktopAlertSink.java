@@ -0,0 +1,60 @@
+package app;
+
+import java.awt.AWTException;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.SystemTray;
+import java.awt.TrayIcon;
+import java.awt.image.BufferedImage;
+
+//notificare de sistem prin iconita din zona de notificare
+//pe sistemele fara SystemTray (sau fara afisaj) destinatia raporteaza o data si apoi nu mai face nimic
+public class DesktopAlertSink implements AlertDispatcher.Sink, AutoCloseable {
+
+    private TrayIcon trayIcon;
+    private boolean unavailable;
+
+    @Override
+    public String getName() {
+        return "notificare";
+    }
+
+    @Override
+    public void deliver(AlertDispatcher.Notice notice) throws AWTException {
+        if (unavailable) {
+            return;
+        }
+        if (trayIcon == null) {
+            if (!SystemTray.isSupported()) {
+                unavailable = true;
+                throw new AWTException("Zona de notificare nu este disponibila pe acest sistem");
+            }
+            trayIcon = new TrayIcon(icon(), "Aplicatie Supraalimentare");
+            trayIcon.setImageAutoSize(true);
+            SystemTray.getSystemTray().add(trayIcon);
+        }
+        TrayIcon.MessageType type = switch (notice.getSeverity()) {
+            case CRITICAL -> TrayIcon.MessageType.ERROR;
+            case WARNING -> TrayIcon.MessageType.WARNING;
+            case INFO -> TrayIcon.MessageType.INFO;
+        };
+        trayIcon.displayMessage(notice.getTitle(), notice.describe(), type);
+    }
+
+    private static BufferedImage icon() {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.RED);
+        g.fillOval(1, 1, 14, 14);
+        g.dispose();
+        return image;
+    }
+
+    @Override
+    public void close() {
+        if (trayIcon != null) {
+            SystemTray.getSystemTray().remove(trayIcon);
+            trayIcon = null;
+        }
+    }
+}
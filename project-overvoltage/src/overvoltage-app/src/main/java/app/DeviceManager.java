@@ -0,0 +1,389 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//porturile deschise simultan; fiecare placa are firul ei de citire, asa ca un port blocat nu le intarzie pe celelalte
+public class DeviceManager {
+
+    //redarea din interfata foloseste segmentele brute: o saptamana
+    public static final Duration DEFAULT_RAW_RETENTION = Duration.ofDays(7);
+    //64 MiB pe segment: cam 12 ore la 1000 esantioane/s
+    public static final int DEFAULT_SESSION_SEGMENTS = 16;
+
+    private final ConcurrentSkipListMap<String, DeviceMonitor> devices = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final DeviceMonitor.Listener listener;
+    private final ScheduledExecutorService recorderFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "recorder-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Path recordingDirectory = Paths.get(System.getProperty("user.home"), "overvoltage-recordings");
+    private volatile int historyCapacity = DeviceMonitor.DEFAULT_HISTORY_CAPACITY;
+    private final ConnectionSupervisor supervisor;
+    //arhivarea citeste segmente intregi: fir separat, ca fsync-ul inregistrarilor active sa nu astepte dupa ea
+    private final ExecutorService archiver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "session-archive");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentLinkedQueue<Future<?>> pendingArchives = new ConcurrentLinkedQueue<>();
+    //segmentele brute (24 octeti/esantion) ale sesiunilor arhivate se sterg dupa atat; null le pastreaza
+    private volatile Duration rawRetention = DEFAULT_RAW_RETENTION;
+    //o conexiune lunga se arhiveaza pe bucati, ca segmentele ei sa poata fi sterse; 0 = o singura sesiune
+    private volatile int maxSessionSegments = DEFAULT_SESSION_SEGMENTS;
+
+    public DeviceManager(DeviceMonitor.Listener listener) {
+        this.listener = new DeviceMonitor.Listener() {
+            @Override
+            public void onLog(String source, LogBuffer.Level level, String message) {
+                listener.onLog(source, level, message);
+            }
+
+            @Override
+            public boolean isLogEnabled(LogBuffer.Level level) {
+                return listener.isLogEnabled(level);
+            }
+
+            @Override
+            public void onThresholdEvent(DeviceMonitor device, ThresholdEvent event) {
+                listener.onThresholdEvent(device, event);
+            }
+
+            @Override
+            public void onStopped(DeviceMonitor device, Exception error) {
+                devices.remove(device.getPortName(), device);
+                if (device.getRecorder() != null) {
+                    pendingArchives.add(archiver.submit(
+                            () -> archiveSession(device.getPortName(), device.getRecorder())));
+                }
+                listener.onStopped(device, error);
+            }
+
+            @Override
+            public void onPortsChanged(List<ConnectionSupervisor.PortInfo> ports) {
+                listener.onPortsChanged(ports);
+            }
+
+            @Override
+            public void onConnected(DeviceMonitor device) {
+                listener.onConnected(device);
+            }
+
+            @Override
+            public void onConnectFailed(String portName, IOException error) {
+                listener.onConnectFailed(portName, error);
+            }
+        };
+        supervisor = new ConnectionSupervisor(this, this.listener);
+    }
+
+    //enumerare, conectari si reconectari in afara firului FX; pornit de aplicatie
+    public ConnectionSupervisor getSupervisor() {
+        return supervisor;
+    }
+
+    public Path getRecordingDirectory() {
+        return recordingDirectory;
+    }
+
+    //null dezactiveaza inregistrarea pentru conexiunile noi
+    public void setRecordingDirectory(Path recordingDirectory) {
+        this.recordingDirectory = recordingDirectory;
+    }
+
+    //Duration.ZERO sterge segmentele imediat dupa verificarea arhivei
+    public void setRawRetention(Duration rawRetention) {
+        if (rawRetention != null && rawRetention.isNegative()) {
+            throw new IllegalArgumentException("Durata de pastrare negativa: " + rawRetention);
+        }
+        this.rawRetention = rawRetention;
+    }
+
+    public Duration getRawRetention() {
+        return rawRetention;
+    }
+
+    //pentru conexiunile noi
+    public void setMaxSessionSegments(int maxSessionSegments) {
+        if (maxSessionSegments < 0) {
+            throw new IllegalArgumentException("Numar de segmente pe sesiune negativ: " + maxSessionSegments);
+        }
+        this.maxSessionSegments = maxSessionSegments;
+    }
+
+    //0 nu mai pastreaza istoric pentru grafic si nici coada catre firul FX (fara interfata)
+    public void setHistoryCapacity(int historyCapacity) {
+        this.historyCapacity = historyCapacity;
+    }
+
+    public DeviceMonitor get(String portName) {
+        return devices.get(portName);
+    }
+
+    public boolean isConnected(String portName) {
+        return devices.containsKey(portName);
+    }
+
+    public Collection<DeviceMonitor> getDevices() {
+        return devices.values();
+    }
+
+    //conectare la port; deschiderea poate dura, se apeleaza de pe firul ConnectionSupervisor
+    public DeviceMonitor connect(String portName, int baudRate, ThresholdConfig thresholdConfig) throws IOException {
+        if (devices.containsKey(portName)) {
+            throw new IOException("Portul " + portName + " este deja monitorizat");
+        }
+        //esecul il raporteaza apelantul (alerta sau reincercare)
+        SerialPortSource source = new SerialPortSource(portName, baudRate, supervisor);
+        log(portName, "Port deschis cu succes: " + portName + ", rata baud: " + baudRate);
+        int deviceId = nextId.getAndIncrement();
+        return startDevice(new DeviceMonitor(deviceId, source, thresholdConfig, openRecorder(portName, deviceId),
+                historyCapacity, listener));
+    }
+
+    //sursa fara port fizic (redare sau generator); nu se inregistreaza din nou
+    public DeviceMonitor connectSource(ByteSource source, ThresholdConfig thresholdConfig) throws IOException {
+        if (devices.containsKey(source.getName())) {
+            source.close();
+            throw new IOException("Sursa " + source.getName() + " este deja monitorizata");
+        }
+        log(source.getName(), "Pornire sursa: " + source.getName());
+        return startDevice(new DeviceMonitor(nextId.getAndIncrement(), source, thresholdConfig, null, historyCapacity,
+                listener));
+    }
+
+    private DeviceMonitor startDevice(DeviceMonitor device) {
+        devices.put(device.getPortName(), device);
+        device.start();
+        return device;
+    }
+
+    //deconectare port
+    public void disconnect(String portName) {
+        DeviceMonitor device = devices.remove(portName);
+        if (device != null) {
+            device.stop();
+        }
+    }
+
+    public void disconnectAll() {
+        for (String portName : devices.keySet()) {
+            disconnect(portName);
+        }
+    }
+
+    //la inchiderea aplicatiei: porturi inchise, inregistrari scrise si sesiunile arhivate
+    public void shutdown(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        supervisor.stop();
+        List<DeviceMonitor> stopping = new ArrayList<>(devices.values());
+        disconnectAll();
+        for (DeviceMonitor device : stopping) {
+            device.awaitStopped(Math.max(0, (deadline - System.nanoTime()) / 1_000_000L));
+        }
+        Future<?> archive;
+        while ((archive = pendingArchives.poll()) != null) {
+            try {
+                archive.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                logError(null, "EROARE: Arhivarea nu s-a terminat la oprire: " + e.getMessage());
+            }
+        }
+    }
+
+    private SampleRecorder openRecorder(String portName, int deviceId) {
+        Path directory = recordingDirectory;
+        if (directory == null) {
+            return null;
+        }
+        try {
+            SampleRecorder recorder = new SampleRecorder(directory, portName, deviceId, recorderFlusher,
+                    maxSessionSegments, (rolled, segments, archive) -> pendingArchives.add(archiver.submit(
+                            () -> archive(portName, segments, archive, rolled.getDeviceId()))));
+            log(portName, "Inregistrare esantioane in: " + directory);
+            return recorder;
+        } catch (IOException e) {
+            logError(portName, "EROARE: Nu s-a putut porni inregistrarea: " + e.getMessage());
+            return null;
+        }
+    }
+
+    //sesiunea inchisa este compactata in arhiva .ova (segmentele brute raman pentru redare cat permite
+    //rawRetention)
+    //si dupa o eroare de inregistrare: ce s-a scris pana atunci se poate citi
+    private void archiveSession(String portName, SampleRecorder recorder) {
+        if (recorder.getRecordCount() == 0) {
+            return;
+        }
+        archive(portName, recorder.getSegmentPaths(), recorder.getArchivePath(), recorder.getDeviceId());
+    }
+
+    //sesiunile ramase doar ca segmente .ovr (aplicatie oprita brusc, arhivare esuata sau neterminata)
+    //lista se ia pe firul apelantului, inainte de pornirea supervizorului: o sesiune deschisa dupa aceea
+    //nu poate fi luata drept ramasa; doar arhivarea ruleaza pe firul de arhivare
+    public void archiveLeftoverSessions() {
+        Path directory = recordingDirectory;
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        Map<Path, List<Path>> sessions;
+        try {
+            sessions = unarchivedSessions(directory);
+        } catch (IOException e) {
+            logError(null, "EROARE: Inregistrarile vechi nu pot fi citite: " + e.getMessage());
+            return;
+        }
+        for (DeviceMonitor device : devices.values()) {
+            if (device.getRecorder() != null) {
+                sessions.remove(device.getRecorder().getArchivePath());
+            }
+        }
+        if (!sessions.isEmpty()) {
+            log(null, "Arhivare " + sessions.size() + " sesiuni ramase nearhivate");
+        }
+        //si fara sesiuni ramase: segmentele sesiunilor arhivate de rularile anterioare pot fi expirate
+        pendingArchives.add(archiver.submit(() -> archiveLeftovers(directory, sessions)));
+    }
+
+    private void archiveLeftovers(Path directory, Map<Path, List<Path>> sessions) {
+        for (Map.Entry<Path, List<Path>> session : sessions.entrySet()) {
+            //id-ul placii dintr-o rulare anterioara nu mai are sens
+            archive(null, session.getValue(), session.getKey(), 0);
+        }
+        purgeRawSegments(directory);
+    }
+
+    //arhiva asteptata (nume sesiune + .ova) -> segmentele sesiunii, pentru sesiunile fara arhiva
+    //include si sesiunile in curs de inregistrare
+    public static Map<Path, List<Path>> unarchivedSessions(Path directory) throws IOException {
+        Map<Path, List<Path>> sessions = new TreeMap<>();
+        for (Path segment : RecordingReader.listSegments(directory, null)) {
+            Path archive = archiveOf(segment);
+            if (archive != null && !Files.exists(archive)) {
+                sessions.computeIfAbsent(archive, key -> new ArrayList<>()).add(segment);
+            }
+        }
+        return sessions;
+    }
+
+    //<placa>-<sesiune>-<segment>.ovr -> <placa>-<sesiune>.ova; null pentru alte nume
+    private static Path archiveOf(Path segment) {
+        String fileName = segment.getFileName().toString();
+        int separator = fileName.lastIndexOf('-');
+        if (separator <= 0) {
+            return null;
+        }
+        return segment.resolveSibling(fileName.substring(0, separator) + ArchiveWriter.ARCHIVE_EXTENSION);
+    }
+
+    private void archive(String portName, List<Path> segments, Path archive, int deviceId) {
+        try {
+            long started = System.nanoTime();
+            long samples = ArchiveWriter.archive(segments, archive, deviceId);
+            long bytes = Files.size(archive);
+            log(portName, String.format("Arhiva %s: %d esantioane, %.2f octeti/esantion, %.0f ms",
+                    archive.getFileName(), samples, samples > 0 ? (double) bytes / samples : 0.0,
+                    (System.nanoTime() - started) / 1e6));
+            //segmentele se pot sterge doar daca arhiva se citeste inapoi cu toate esantioanele
+            long archived = ArchiveReader.readSummary(archive).getSampleCount();
+            if (archived != samples) {
+                //fara arhiva, sesiunea se reia ca ramasa la urmatoarea pornire
+                Files.delete(archive);
+                throw new IOException("arhiva contine " + archived + " din " + samples + " esantioane");
+            }
+        } catch (IOException | RuntimeException e) {
+            logError(portName, "EROARE: Nu s-a putut crea arhiva " + archive + ": " + e.getMessage());
+            return;
+        }
+        purgeRawSegments(archive.getParent());
+    }
+
+    //segmentele brute ale sesiunilor cu arhiva valida, mai vechi decat rawRetention
+    //un segment inca mapat (redare in curs, Windows) nu se poate sterge; se reincearca la urmatoarea arhivare
+    private void purgeRawSegments(Path directory) {
+        Duration retention = rawRetention;
+        if (retention == null) {
+            return;
+        }
+        List<Path> expired;
+        try {
+            expired = expiredSegments(directory, retention, System.currentTimeMillis());
+        } catch (IOException e) {
+            logError(null, "EROARE: Segmentele brute nu pot fi listate: " + e.getMessage());
+            return;
+        }
+        int deleted = 0;
+        long freed = 0;
+        for (Path segment : expired) {
+            try {
+                long size = Files.size(segment);
+                Files.delete(segment);
+                deleted++;
+                freed += size;
+            } catch (IOException e) {
+                //sters intre timp sau inca deschis
+            }
+        }
+        if (deleted > 0) {
+            log(null, String.format("Segmente brute sterse: %d (%.1f MiB), pastrare %s", deleted,
+                    freed / (1024.0 * 1024.0), retention));
+        }
+    }
+
+    //segmentele ale caror sesiuni au arhiva valida si care nu au mai fost scrise de cel putin retention
+    static List<Path> expiredSegments(Path directory, Duration retention, long nowMillis) throws IOException {
+        List<Path> expired = new ArrayList<>();
+        Map<Path, Boolean> validArchives = new TreeMap<>();
+        long limitMillis = nowMillis - retention.toMillis();
+        for (Path segment : RecordingReader.listSegments(directory, null)) {
+            Path archive = archiveOf(segment);
+            if (archive == null || Files.getLastModifiedTime(segment).toMillis() > limitMillis) {
+                continue;
+            }
+            if (validArchives.computeIfAbsent(archive, DeviceManager::isValidArchive)) {
+                expired.add(segment);
+            }
+        }
+        return expired;
+    }
+
+    private static boolean isValidArchive(Path archive) {
+        if (!Files.exists(archive)) {
+            return false;
+        }
+        try {
+            ArchiveReader.readSummary(archive);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void log(String portName, String message) {
+        listener.onLog(portName, LogBuffer.Level.INFO, message);
+    }
+
+    private void logError(String portName, String message) {
+        listener.onLog(portName, LogBuffer.Level.ERROR, message);
+    }
+}
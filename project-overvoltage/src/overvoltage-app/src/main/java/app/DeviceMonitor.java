@@ -0,0 +1,469 @@
+package app;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//o placa monitorizata: port, fir de citire, parser, prag si istoric proprii
+public class DeviceMonitor {
+
+    public interface Listener {
+        void onLog(String source, LogBuffer.Level level, String message);
+
+        //liniile dezactivate nu se mai construiesc pe firul de citire
+        default boolean isLogEnabled(LogBuffer.Level level) {
+            return true;
+        }
+
+        void onStopped(DeviceMonitor device, Exception error);
+
+        //apelat pe firul de citire
+        default void onThresholdEvent(DeviceMonitor device, ThresholdEvent event) {
+        }
+
+        //urmatoarele sunt apelate pe firul ConnectionSupervisor
+        default void onPortsChanged(List<ConnectionSupervisor.PortInfo> ports) {
+        }
+
+        default void onConnected(DeviceMonitor device) {
+        }
+
+        default void onConnectFailed(String portName, IOException error) {
+        }
+    }
+
+    public static final int DEFAULT_HISTORY_CAPACITY = 1 << 21;
+    private static final int UI_BUFFER_CAPACITY = 1 << 16;
+    //citit o data, la incarcarea clasei (pe firul care conecteaza), nu pe firul de citire la primul esantion
+    //ProcessHandle in loc de RuntimeMXBean: fara incarcarea java.management in fereastra de pornire; -1 daca lipseste
+    private static final long PROCESS_START_MILLIS = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli).orElse(-1L);
+
+    private final int id;
+    private final ByteSource source;
+    private final String portName;
+    private final Listener listener;
+    private final SampleRecorder recorder;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final VoltageFrameParser frameParser = new VoltageFrameParser(new ParserListener());
+    private volatile SerialIngestEngine ingestEngine;
+    private final ThresholdEngine thresholdEngine;
+    private final CommandChannel commands;
+    private volatile boolean receiveRawData = false;
+    private volatile boolean binaryRequested = false;
+    private volatile boolean binaryExitRequested = false;
+    private long chunkArrivalNanos;
+    private boolean recorderFailureLogged = false;
+    private long startNanos;
+    private volatile long sampleCount;
+    private volatile long parseErrorCount;
+
+    //reconectari automate (scrise de firul de citire)
+    private volatile boolean connectionLost;
+    private volatile int reconnectCount;
+    private volatile long lastGapNanos;
+    private volatile long totalGapNanos;
+    private long lostNanos;
+
+    //de la sosirea pe port pana la afisare, scris de firul FX
+    private final LatencyHistogram displayLatency = new LatencyHistogram();
+
+    //transfer catre firul FX; null fara interfata, nu are cine sa goleasca coada
+    private final SampleRingBuffer uiSamples;
+    private final SampleHistory history;
+    private final RollingStats stats = new RollingStats(this::onStatsSecond);
+
+    //historyCapacity 0: fara istoric pentru grafic si fara coada catre firul FX (mod headless)
+    public DeviceMonitor(int id, ByteSource source, ThresholdConfig thresholdConfig, SampleRecorder recorder,
+                         int historyCapacity, Listener listener) {
+        this.id = id;
+        this.history = historyCapacity > 0 ? new SampleHistory(historyCapacity) : null;
+        this.uiSamples = historyCapacity > 0 ? new SampleRingBuffer(UI_BUFFER_CAPACITY) : null;
+        this.source = source;
+        this.portName = source.getName();
+        this.thresholdEngine = new ThresholdEngine(portName, thresholdConfig);
+        thresholdEngine.addListener(event -> listener.onThresholdEvent(this, event));
+        this.recorder = recorder;
+        this.listener = listener;
+        this.commands = new CommandChannel(source);
+        source.setConnectionListener(new ConnectionHandler());
+    }
+
+    public void start() {
+        running.set(true);
+        binaryRequested = false;
+        binaryExitRequested = false;
+        frameParser.setBinaryMode(false);
+        frameParser.reset();
+        thresholdEngine.reset();
+        stats.reset();
+        log("Citire date de pe " + portName + "...");
+        startNanos = System.nanoTime();
+        ingestEngine = new SerialIngestEngine(source, this::processChunk, this::onIngestStopped);
+        ingestEngine.start();
+    }
+
+    //deconectare port
+    public void stop() {
+        running.set(false);
+        if (ingestEngine != null) {
+            ingestEngine.stop();
+        }
+
+        //inchiderea portului deblocheaza citirea, nu mai asteptam firul
+        if (source.isOpen()) {
+            if (source.close()) {
+                log("Port inchis cu succes: " + portName);
+            } else {
+                logError("EROARE la inchiderea portului: " + portName);
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    //asteapta firul de citire sa termine (inregistrarea inchisa, statistici scrise)
+    public boolean awaitStopped(long timeoutMillis) throws InterruptedException {
+        return stopped.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    //raspunsul (sau eroarea) ajunge si in log; esantioanele continua sa curga intre timp
+    public CompletableFuture<CommandChannel.Response> sendCommand(CommandChannel.Command command, String argument) {
+        String name = command.getCode() + (argument != null ? " " + argument : "");
+        return commands.send(command, argument, CommandChannel.DEFAULT_TIMEOUT_MILLIS)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        logError("EROARE comanda " + name + ": " + describeError(error));
+                    } else if (!response.isOk()) {
+                        logError("Comanda " + name + " respinsa de placa: " + response.getDetail());
+                    } else {
+                        log(String.format("Comanda %s confirmata in %.1f ms%s", name, response.getRttNanos() / 1e6,
+                                response.getDetail().isEmpty() ? "" : " (" + response.getDetail() + ")"));
+                    }
+                });
+    }
+
+    public CompletableFuture<CommandChannel.Response> ping() {
+        return sendCommand(CommandChannel.Command.PING, null);
+    }
+
+    //pragul LED-ului rosu de pe placa, independent de ThresholdEngine
+    public CompletableFuture<CommandChannel.Response> sendThreshold(double volts) {
+        return sendCommand(CommandChannel.Command.SET_THRESHOLD, String.format(Locale.ROOT, "%.2f", volts));
+    }
+
+    //intervalul dintre esantioane al modului curent al placii
+    public CompletableFuture<CommandChannel.Response> sendSampleInterval(int millis) {
+        if (millis < 0 || millis > 60_000) {
+            throw new IllegalArgumentException("Interval in afara domeniului 0..60000 ms: " + millis);
+        }
+        return sendCommand(CommandChannel.Command.SET_INTERVAL, String.valueOf(millis));
+    }
+
+    public CommandChannel getCommands() {
+        return commands;
+    }
+
+    public boolean toggleRawMode() {
+        receiveRawData = !receiveRawData;
+        return receiveRawData;
+    }
+
+    //comutare protocol binar / ASCII prin comenzi confirmate de placa
+    public boolean toggleBinaryMode() {
+        boolean enable = !binaryRequested;
+        binaryRequested = enable;
+        if (enable) {
+            //parserul trece pe binar la linia "MOD BINAR" trimisa dupa confirmare
+            sendCommand(CommandChannel.Command.BINARY, null).whenComplete((response, error) -> {
+                if (error != null || !response.isOk()) {
+                    binaryRequested = false;
+                }
+            });
+        } else {
+            //confirmarea vine ca cadru binar si comuta parserul; fara ea revenim oricum la ASCII
+            sendCommand(CommandChannel.Command.ASCII, null).whenComplete((response, error) -> {
+                if (error != null) {
+                    binaryExitRequested = true;
+                } else if (!response.isOk()) {
+                    binaryRequested = true;
+                }
+            });
+        }
+        return enable;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getParseErrorCount() {
+        return parseErrorCount;
+    }
+
+    //legatura pierduta, se asteapta reconectarea
+    public boolean isConnectionLost() {
+        return connectionLost;
+    }
+
+    public int getReconnectCount() {
+        return reconnectCount;
+    }
+
+    //durata ultimei intreruperi, de la detectie pana la redeschiderea portului
+    public long getLastGapNanos() {
+        return lastGapNanos;
+    }
+
+    public long getTotalGapNanos() {
+        return totalGapNanos;
+    }
+
+    //null inainte de start()
+    public SerialIngestEngine getIngestEngine() {
+        return ingestEngine;
+    }
+
+    public BinaryFrameDecoder getBinaryDecoder() {
+        return frameParser.getBinaryDecoder();
+    }
+
+    public LatencyHistogram getDisplayLatency() {
+        return displayLatency;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getPortName() {
+        return portName;
+    }
+
+    public ThresholdEngine getThresholdEngine() {
+        return thresholdEngine;
+    }
+
+    public ThresholdConfig getThresholdConfig() {
+        return thresholdEngine.getConfig();
+    }
+
+    public void setThresholdConfig(ThresholdConfig thresholdConfig) {
+        thresholdEngine.setConfig(thresholdConfig);
+    }
+
+    //null in mod headless
+    public SampleRingBuffer getUiSamples() {
+        return uiSamples;
+    }
+
+    public SampleHistory getHistory() {
+        return history;
+    }
+
+    public RollingStats getStats() {
+        return stats;
+    }
+
+    //null daca placa nu se inregistreaza
+    public SampleRecorder getRecorder() {
+        return recorder;
+    }
+
+    //procesare octeti primiti (firul de citire)
+    private void processChunk(byte[] buffer, int numBytes, long arrivalNanos) {
+        if (binaryExitRequested) {
+            binaryExitRequested = false;
+            frameParser.setBinaryMode(false);
+        }
+        boolean raw = receiveRawData;
+        if (frameParser.isRawMode() != raw) {
+            frameParser.setRawMode(raw);
+        }
+        if (raw && !frameParser.isBinaryMode() && listener.isLogEnabled(LogBuffer.Level.DATA)) {
+            //debug
+            logData("Date brute: " + new String(buffer, 0, numBytes, StandardCharsets.US_ASCII));
+        }
+        chunkArrivalNanos = arrivalNanos;
+        frameParser.feed(buffer, 0, numBytes);
+    }
+
+    private class ParserListener implements VoltageFrameParser.Listener {
+        @Override
+        public void onSample(double voltage) {
+            if (listener.isLogEnabled(LogBuffer.Level.DATA)) {
+                logData("Tensiune citita: " + voltage + "V");
+            }
+            onVoltage(voltage);
+        }
+
+        @Override
+        public void onLine(byte[] line, int length) {
+            if (listener.isLogEnabled(LogBuffer.Level.DATA)) {
+                logData("Date primite: " + new String(line, 0, length, StandardCharsets.US_ASCII).trim());
+            }
+        }
+
+        @Override
+        public void onParseError(byte[] line, int length) {
+            parseErrorCount++;
+            logError("Nu s-a putut converti la numar: " + new String(line, 0, length, StandardCharsets.US_ASCII).trim());
+        }
+
+        @Override
+        public void onBinaryModeChanged(boolean binary) {
+            log(binary ? "Protocol binar activ." : "Protocol ASCII activ.");
+            if (!binary) {
+                logBinaryStats();
+            }
+        }
+
+        @Override
+        public void onCommandResponse(int id, boolean ok, String detail) {
+            CommandChannel.Command command = commands.complete(id, ok, detail, chunkArrivalNanos);
+            if (command == null) {
+                logError("Raspuns fara comanda in asteptare (#" + id + "), probabil dupa expirare");
+            } else if (command == CommandChannel.Command.ASCII && ok) {
+                //octetii urmatori din aceeasi bucata sunt deja ASCII
+                frameParser.setBinaryMode(false);
+            }
+        }
+    }
+
+    private class ConnectionHandler implements ByteSource.ConnectionListener {
+        @Override
+        public void onConnectionLost(IOException error) {
+            lostNanos = System.nanoTime();
+            connectionLost = true;
+            commands.failAll(new IOException("legatura pierduta"));
+            logError("Legatura pierduta: " + error.getMessage() + ". Reconectare automata...");
+        }
+
+        //placa se reseteaza la deschiderea portului: din nou ASCII, fara linia intrerupta
+        @Override
+        public void onConnectionResumed() {
+            long gap = System.nanoTime() - lostNanos;
+            lastGapNanos = gap;
+            totalGapNanos += gap;
+            reconnectCount++;
+            binaryRequested = false;
+            binaryExitRequested = false;
+            frameParser.setBinaryMode(false);
+            frameParser.reset();
+            connectionLost = false;
+            log(String.format("Reconectat dupa %.0f ms (reconectarea nr. %d)", gap / 1e6, reconnectCount));
+        }
+    }
+
+    //detectie prag pe firul de citire, pentru fiecare esantion
+    private void onVoltage(double voltage) {
+        ThresholdEngine.Level level = thresholdEngine.evaluate(voltage, chunkArrivalNanos);
+        if (recorder != null && !recorder.record(chunkArrivalNanos, voltage, SampleRecorder.flagsFor(level))
+                && !recorderFailureLogged) {
+            recorderFailureLogged = true;
+            logError("EROARE: Inregistrarea esantioanelor a fost oprita (" + recorder.getDirectory() + ")");
+        }
+        stats.add(voltage, level == ThresholdEngine.Level.CRITICAL, chunkArrivalNanos);
+        if (history != null) {
+            history.append(voltage);
+        }
+        if (sampleCount == 0) {
+            logFirstSample();
+        }
+        sampleCount++;
+        if (uiSamples != null) {
+            uiSamples.offer(voltage, chunkArrivalNanos);
+        }
+    }
+
+    //timpul pana la prima citire, de la pornirea procesului (include incarcarea claselor si initializarea JavaFX)
+    private void logFirstSample() {
+        double sourceMillis = (chunkArrivalNanos - startNanos) / 1e6;
+        if (PROCESS_START_MILLIS < 0) {
+            log(String.format("Prima citire la %.0f ms de la deschiderea sursei", sourceMillis));
+            return;
+        }
+        log(String.format("Prima citire la %d ms de la pornirea JVM (%.0f ms de la deschiderea sursei)",
+                System.currentTimeMillis() - PROCESS_START_MILLIS, sourceMillis));
+    }
+
+    //rezumatul fiecarei secunde ajunge si in inregistrare
+    private void onStatsSecond(long endNanos, RollingStats.Window second) {
+        if (recorder != null) {
+            recorder.recordStats(endNanos, second);
+        }
+    }
+
+    //oprire fir de citire
+    private void onIngestStopped(Exception error) {
+        boolean unexpected = running.getAndSet(false);
+        if (error != null && unexpected) {
+            logError("EROARE la citirea datelor: " + error.getMessage());
+        }
+
+        if (source.isOpen()) {
+            source.close();
+            log("Port inchis de firul de citire: " + portName);
+        }
+        commands.failAll(new IOException("port inchis"));
+        logIngestStats();
+        if (recorder != null) {
+            recorder.close();
+            log("Esantioane inregistrate: " + recorder.getRecordCount() + " in " + recorder.getDirectory());
+        }
+        //dupa notificare, ca awaitStopped sa includa si arhivarea programata de DeviceManager
+        listener.onStopped(this, unexpected ? error : null);
+        stopped.countDown();
+    }
+
+    private void logIngestStats() {
+        SerialIngestEngine engine = ingestEngine;
+        if (engine != null) {
+            log(String.format("Statistici citire: %d octeti, latenta detectie medie %.1f us, maxima %.1f us",
+                    engine.getByteCount(), engine.getAverageLatencyMicros(), engine.getMaxLatencyMicros()));
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        log(String.format("Esantioane procesate: %d in %.2f s (%.0f esantioane/s)", sampleCount, seconds,
+                seconds > 0 ? sampleCount / seconds : 0.0));
+        logBinaryStats();
+    }
+
+    private static String describeError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "fara raspuns in " + CommandChannel.DEFAULT_TIMEOUT_MILLIS + " ms";
+        }
+        return cause.getMessage();
+    }
+
+    private void logBinaryStats() {
+        BinaryFrameDecoder decoder = frameParser.getBinaryDecoder();
+        if (decoder.getFrameCount() > 0) {
+            log("Cadre binare: " + decoder.getFrameCount() + ", pierdute: " + decoder.getDroppedFrames()
+                    + ", erori checksum: " + decoder.getChecksumErrors());
+        }
+    }
+
+    private void log(String message) {
+        listener.onLog(portName, LogBuffer.Level.INFO, message);
+    }
+
+    private void logData(String message) {
+        listener.onLog(portName, LogBuffer.Level.DATA, message);
+    }
+
+    private void logError(String message) {
+        listener.onLog(portName, LogBuffer.Level.ERROR, message);
+    }
+}
@@ -0,0 +1,156 @@
+package app;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.text.Font;
+
+//placa din panoul de bord: stare, ultima valoare si un mini-grafic
+public class DeviceTile extends VBox {
+
+    private static final double SPARK_WIDTH = 160;
+    private static final double SPARK_HEIGHT = 40;
+    private static final long SPARK_WINDOW = 500;
+    private static final double MAX_VOLTAGE = 5.5;
+    private static final String STYLE = "-fx-border-color: lightgray; -fx-border-width: 1; -fx-background-color: white;";
+    private static final String SELECTED_STYLE = "-fx-border-color: steelblue; -fx-border-width: 2; -fx-background-color: white;";
+
+    private final DeviceMonitor device;
+    private final Circle indicator = new Circle(8);
+    private final Label valueLabel = new Label("-.-- V");
+    private final Canvas sparkline = new Canvas(SPARK_WIDTH, SPARK_HEIGHT);
+    private final double[] sparkY = new double[(int) SPARK_WIDTH * 2];
+    private int sparkCount;
+    private long renderedCount = -1;
+
+    private double lastVoltage;
+    private double frameMaxVoltage;
+    private long frameNanos;
+    private boolean hasValue;
+    private boolean reconnecting;
+    private Color statusColor = Color.GRAY;
+
+    public DeviceTile(DeviceMonitor device) {
+        this.device = device;
+
+        indicator.setFill(Color.GRAY);
+        indicator.setStroke(Color.BLACK);
+        Label nameLabel = new Label(device.getPortName());
+        nameLabel.setFont(Font.font("Arial", 14));
+        HBox header = new HBox(8, indicator, nameLabel);
+        header.setAlignment(Pos.CENTER_LEFT);
+        valueLabel.setFont(Font.font("Arial", 20));
+
+        getChildren().addAll(header, valueLabel, sparkline);
+        setSpacing(4);
+        setPadding(new Insets(6));
+        setStyle(STYLE);
+    }
+
+    public DeviceMonitor getDevice() {
+        return device;
+    }
+
+    public void setSelected(boolean selected) {
+        setStyle(selected ? SELECTED_STYLE : STYLE);
+    }
+
+    public boolean hasValue() {
+        return hasValue;
+    }
+
+    public double getLastVoltage() {
+        return lastVoltage;
+    }
+
+    public Color getStatusColor() {
+        return statusColor;
+    }
+
+    //apelat o data pe cadru de pe firul FX
+    public void update() {
+        if (device.isConnectionLost() != reconnecting) {
+            reconnecting = !reconnecting;
+            if (reconnecting) {
+                statusColor = Color.GRAY;
+                indicator.setFill(statusColor);
+                valueLabel.setText("Reconectare...");
+            }
+        }
+        if (device.getUiSamples().size() > 0) {
+            frameMaxVoltage = Double.NEGATIVE_INFINITY;
+            frameNanos = System.nanoTime();
+            device.getUiSamples().drain(this::collectSample);
+            hasValue = true;
+            //varful din cadru, ca un varf scurt intre doua cadre sa se vada
+            ThresholdConfig config = device.getThresholdConfig();
+            if (frameMaxVoltage > config.getCriticalVoltage()) {
+                statusColor = Color.RED;
+            } else if (frameMaxVoltage > config.getWarningVoltage()) {
+                statusColor = Color.ORANGE;
+            } else {
+                statusColor = Color.GREEN;
+            }
+            valueLabel.setText(String.format("%.2f V", lastVoltage));
+            indicator.setFill(statusColor);
+        }
+
+        SampleHistory history = device.getHistory();
+        long count = history.getCount();
+        if (count != renderedCount) {
+            renderedCount = count;
+            drawSparkline(history, count);
+        }
+    }
+
+    private void collectSample(double voltage, long arrivalNanos) {
+        device.getDisplayLatency().record(frameNanos - arrivalNanos);
+        lastVoltage = voltage;
+        if (voltage > frameMaxVoltage) {
+            frameMaxVoltage = voltage;
+        }
+    }
+
+    private void drawSparkline(SampleHistory history, long count) {
+        GraphicsContext gc = sparkline.getGraphicsContext2D();
+        gc.clearRect(0, 0, SPARK_WIDTH, SPARK_HEIGHT);
+
+        ThresholdConfig config = device.getThresholdConfig();
+        double warningY = toY(config.getWarningVoltage());
+        gc.setStroke(Color.ORANGE);
+        gc.strokeLine(0, warningY, SPARK_WIDTH, warningY);
+        double criticalY = toY(config.getCriticalVoltage());
+        gc.setStroke(Color.RED);
+        gc.strokeLine(0, criticalY, SPARK_WIDTH, criticalY);
+
+        sparkCount = 0;
+        long from = count - SPARK_WINDOW;
+        history.decimate(from, count, (int) SPARK_WIDTH, (index, value) -> {
+            if (sparkCount < sparkY.length) {
+                sparkY[sparkCount++] = toY(value);
+            }
+        });
+        if (sparkCount < 2) {
+            return;
+        }
+        gc.setStroke(Color.STEELBLUE);
+        gc.beginPath();
+        double step = SPARK_WIDTH / (sparkCount - 1);
+        gc.moveTo(0, sparkY[0]);
+        for (int i = 1; i < sparkCount; i++) {
+            gc.lineTo(i * step, sparkY[i]);
+        }
+        gc.stroke();
+    }
+
+    private double toY(double voltage) {
+        double clamped = Math.max(0, Math.min(MAX_VOLTAGE, voltage));
+        return SPARK_HEIGHT - clamped / MAX_VOLTAGE * SPARK_HEIGHT;
+    }
+}
@@ -0,0 +1,289 @@
+package app;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+//export sesiuni inregistrate: dialog de selectie, apoi exportul pe un fir separat
+//progresul se citeste o data pe cadru, ca monitorizarea sa nu astepte dupa export
+public class ExportPanel extends HBox {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final long SECOND_NANOS = 1_000_000_000L;
+    private static final Map<String, Long> DECIMATION = new LinkedHashMap<>();
+
+    static {
+        DECIMATION.put("Toate esantioanele", 0L);
+        DECIMATION.put("Min/max la 1 ms", 1_000_000L);
+        DECIMATION.put("Min/max la 10 ms", 10_000_000L);
+        DECIMATION.put("Min/max la 100 ms", 100_000_000L);
+        DECIMATION.put("Min/max la 1 s", SECOND_NANOS);
+    }
+
+    private final LogBuffer log;
+    private final Supplier<Path> recordingDirectory;
+    private final Button exportButton = new Button("Export...");
+    private final Button cancelButton = new Button("Anulare export");
+    private final ProgressBar progressBar = new ProgressBar(0);
+    private final Label statusLabel = new Label();
+
+    //scrise de firul exportului
+    private volatile SessionExporter exporter;
+    private volatile long exportedRows;
+    private volatile long estimatedRows;
+    private volatile boolean running;
+
+    public ExportPanel(LogBuffer log, Supplier<Path> recordingDirectory) {
+        super(10);
+        this.log = log;
+        this.recordingDirectory = recordingDirectory;
+        setAlignment(Pos.CENTER);
+
+        exportButton.setOnAction(e -> scanArchives());
+        cancelButton.setOnAction(e -> {
+            SessionExporter current = exporter;
+            if (current != null) {
+                current.cancel();
+            }
+        });
+        progressBar.setPrefWidth(160);
+        showIdle();
+        getChildren().addAll(exportButton, progressBar, statusLabel, cancelButton);
+    }
+
+    //apelat o data pe cadru de pe firul FX
+    public void update() {
+        if (!running) {
+            return;
+        }
+        long total = estimatedRows;
+        long done = exportedRows;
+        progressBar.setProgress(total > 0 ? Math.min(1.0, (double) done / total) : ProgressBar.INDETERMINATE_PROGRESS);
+        statusLabel.setText(done + " randuri");
+    }
+
+    private void showIdle() {
+        exportButton.setDisable(false);
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+    }
+
+    //arhivele se citesc pe un fir separat, doar antetul si indexul fiecareia; cele stricate se sar
+    private void scanArchives() {
+        Path directory = recordingDirectory.get();
+        if (directory == null || !Files.isDirectory(directory)) {
+            statusLabel.setText("Inregistrarea este dezactivata");
+            return;
+        }
+        exportButton.setDisable(true);
+        statusLabel.setText("Citire arhive...");
+        Thread thread = new Thread(() -> {
+            TreeSet<String> devices = new TreeSet<>();
+            long startNanos = Long.MAX_VALUE;
+            long endNanos = Long.MIN_VALUE;
+            String failure = null;
+            int unarchived = 0;
+            try {
+                //sesiunile in curs si cele inca in arhivare au doar segmente .ovr
+                unarchived = DeviceManager.unarchivedSessions(directory).size();
+                for (Path archive : ArchiveReader.listArchives(directory, null)) {
+                    ArchiveReader.Summary summary;
+                    try {
+                        summary = ArchiveReader.readSummary(archive);
+                    } catch (IOException e) {
+                        log.add(LogBuffer.Level.ERROR, null, "EROARE: Arhiva ignorata: " + e.getMessage());
+                        continue;
+                    }
+                    String device = SessionExporter.deviceOf(archive);
+                    if (device == null || summary.getBlockCount() == 0) {
+                        continue;
+                    }
+                    devices.add(device);
+                    startNanos = Math.min(startNanos, summary.getStartNanos());
+                    endNanos = Math.max(endNanos, summary.getEndNanos());
+                }
+            } catch (IOException e) {
+                failure = e.getMessage();
+                log.add(LogBuffer.Level.ERROR, null, "EROARE: Arhivele nu pot fi citite: " + failure);
+            }
+            List<String> found = new ArrayList<>(devices);
+            long start = startNanos;
+            long end = endNanos;
+            boolean failed = failure != null;
+            int pending = unarchived;
+            Platform.runLater(() -> {
+                exportButton.setDisable(running);
+                if (failed) {
+                    statusLabel.setText("Arhivele nu pot fi citite");
+                } else if (found.isEmpty()) {
+                    statusLabel.setText(pending > 0 ? "Nu exista sesiuni arhivate; " + describePending(pending)
+                            : "Nu exista sesiuni arhivate");
+                } else {
+                    statusLabel.setText("");
+                    showExportDialog(directory, found, start, end, pending);
+                }
+            });
+        }, "export-scan");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static String describePending(int sessions) {
+        return sessions + " sesiuni inca nearhivate (in curs sau in arhivare) nu pot fi exportate";
+    }
+
+    private void showExportDialog(Path directory, List<String> devices, long startNanos, long endNanos,
+                                  int pendingSessions) {
+        List<CheckBox> deviceBoxes = new ArrayList<>();
+        VBox deviceList = new VBox(4);
+        for (String device : devices) {
+            CheckBox box = new CheckBox(device);
+            box.setSelected(true);
+            deviceBoxes.add(box);
+            deviceList.getChildren().add(box);
+        }
+        TextField fromField = new TextField(formatTime(startNanos));
+        TextField toField = new TextField(formatTime(endNanos));
+        ComboBox<String> decimationBox = new ComboBox<>();
+        decimationBox.getItems().addAll(DECIMATION.keySet());
+        decimationBox.getSelectionModel().selectFirst();
+        ComboBox<SessionExporter.Format> formatBox = new ComboBox<>();
+        formatBox.getItems().addAll(SessionExporter.Format.values());
+        formatBox.getSelectionModel().selectFirst();
+
+        GridPane grid = new GridPane();
+        grid.setHgap(8);
+        grid.setVgap(8);
+        grid.addRow(0, new Label("Placi:"), deviceList);
+        grid.addRow(1, new Label("De la:"), fromField);
+        grid.addRow(2, new Label("Pana la:"), toField);
+        grid.addRow(3, new Label("Decimare:"), decimationBox);
+        grid.addRow(4, new Label("Format:"), formatBox);
+        if (pendingSessions > 0) {
+            grid.add(new Label(describePending(pendingSessions)), 0, 5, 2, 1);
+        }
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.initOwner(getScene().getWindow());
+        dialog.setTitle("Export sesiuni");
+        dialog.getDialogPane().setContent(grid);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+
+        List<String> selected = new ArrayList<>();
+        for (CheckBox box : deviceBoxes) {
+            if (box.isSelected()) {
+                selected.add(box.getText());
+            }
+        }
+        long fromNanos;
+        long toNanos;
+        try {
+            fromNanos = parseTime(fromField.getText());
+            //sfarsitul intervalului include secunda afisata
+            toNanos = parseTime(toField.getText()) + SECOND_NANOS;
+        } catch (DateTimeParseException e) {
+            statusLabel.setText("Data invalida (aaaa-ll-zz hh:mm:ss)");
+            return;
+        }
+        if (selected.isEmpty() || fromNanos >= toNanos) {
+            statusLabel.setText("Selectie goala");
+            return;
+        }
+
+        SessionExporter.Format format = formatBox.getValue();
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Salvare export");
+        chooser.setInitialDirectory(directory.toFile());
+        chooser.setInitialFileName("export" + format.getExtension());
+        File file = chooser.showSaveDialog(getScene().getWindow());
+        if (file != null) {
+            startExport(directory, selected, fromNanos, toNanos, DECIMATION.get(decimationBox.getValue()), format,
+                    file.toPath());
+        }
+    }
+
+    private void startExport(Path directory, List<String> devices, long fromNanos, long toNanos, long bucketNanos,
+                             SessionExporter.Format format, Path target) {
+        SessionExporter current = new SessionExporter(directory);
+        exporter = current;
+        exportedRows = 0;
+        estimatedRows = 0;
+        running = true;
+        exportButton.setDisable(true);
+        progressBar.setProgress(0);
+        progressBar.setVisible(true);
+        cancelButton.setVisible(true);
+        statusLabel.setText("Export...");
+
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            String result;
+            try {
+                long rows = current.export(devices, fromNanos, toNanos, bucketNanos, format, target, (done, total) -> {
+                    exportedRows = done;
+                    estimatedRows = total;
+                });
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                result = "Export terminat: " + rows + " randuri in " + millis + " ms";
+                log.add(LogBuffer.Level.INFO, null, result + " -> " + target);
+            } catch (CancellationException e) {
+                result = "Export anulat";
+                log.add(LogBuffer.Level.INFO, null, result);
+            } catch (IOException | RuntimeException e) {
+                result = "Export esuat";
+                log.add(LogBuffer.Level.ERROR, null, "EROARE: Export esuat: " + e.getMessage());
+            }
+            exporter = null;
+            running = false;
+            String message = result;
+            Platform.runLater(() -> {
+                showIdle();
+                statusLabel.setText(message);
+            });
+        }, "session-export");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private static String formatTime(long epochNanos) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(Math.floorDiv(epochNanos, SECOND_NANOS)),
+                ZoneId.systemDefault()).format(TIME_FORMAT);
+    }
+
+    private static long parseTime(String text) {
+        Instant instant = LocalDateTime.parse(text.trim(), TIME_FORMAT).atZone(ZoneId.systemDefault()).toInstant();
+        return instant.getEpochSecond() * SECOND_NANOS;
+    }
+}
@@ -0,0 +1,55 @@
+package app;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+//jurnal local de alerte, o linie per livrare: timp, severitate, sursa, aparitii, mesaj (separate prin tab)
+public class FileAlertSink implements AlertDispatcher.Sink, AutoCloseable {
+
+    public static final String DEFAULT_FILE_NAME = "alerte.log";
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final Path file;
+    private final FileChannel channel;
+
+    public FileAlertSink(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public String getName() {
+        return "fisier " + file;
+    }
+
+    @Override
+    public void deliver(AlertDispatcher.Notice notice) throws IOException {
+        String line = TIME_FORMAT.format(Instant.ofEpochMilli(notice.getLastMillis())) + '\t' + notice.getSeverity()
+                + '\t' + (notice.getSource() != null ? notice.getSource() : "-") + '\t' + notice.getRepeats()
+                + '\t' + notice.getTitle() + ": " + notice.getMessage().replace('\n', ' ') + '\n';
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,358 @@
+package app;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.LockSupport;
+
+//monitorizare fara interfata, ca serviciu de lunga durata; nu foloseste nicio clasa JavaFX
+//pornire pe classpath, fara jar-urile JavaFX: java -cp <app.jar>:<jSerialComm.jar> app.App --headless ...
+public class HeadlessMonitor {
+
+    private static final long POLL_NANOS = 100_000_000L;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+    private static final String SIMULATION_SOURCE = "SIMULARE";
+
+    //optiune CLI -> cheie in fisierul de configurare
+    private static final Map<String, String> OPTIONS = new HashMap<>();
+    private static final Map<String, String> FLAGS = new HashMap<>();
+
+    static {
+        OPTIONS.put("--config", "config");
+        OPTIONS.put("--port", "ports");
+        OPTIONS.put("--baud", "baud");
+        OPTIONS.put("--threshold", "threshold");
+        OPTIONS.put("--warning", "warning");
+        OPTIONS.put("--hysteresis", "hysteresis");
+        OPTIONS.put("--debounce-ms", "debounce.ms");
+        OPTIONS.put("--max-rate", "rate.max");
+        OPTIONS.put("--record-dir", "record.dir");
+        OPTIONS.put("--raw-retention-hours", "raw.retention.hours");
+        OPTIONS.put("--session-segments", "session.segments");
+        OPTIONS.put("--status-interval", "status.interval");
+        OPTIONS.put("--simulate-rate", "simulate.rate");
+        OPTIONS.put("--metrics-port", "metrics.port");
+        OPTIONS.put("--alert-log", "alert.log");
+        OPTIONS.put("--alert-webhook", "alert.webhook");
+        OPTIONS.put("--run-seconds", "run.seconds");
+        FLAGS.put("--simulate", "simulate");
+        FLAGS.put("--no-record", "record.disabled");
+        FLAGS.put("--log-data", "log.data");
+    }
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Utilizare: app.App --headless [optiuni]",
+            "  --config <fisier>          fisier .properties (cheile de mai jos, optiunile CLI au prioritate)",
+            "  --port <COM3,COM4>         porturi monitorizate (ports)",
+            "  --baud <9600>              rata baud (baud)",
+            "  --threshold <4.0>          prag critic in volti (threshold)",
+            "  --warning <3.8>            prag de avertizare in volti (warning)",
+            "  --hysteresis <0.05>        histerezis la coborare, in volti (hysteresis)",
+            "  --debounce-ms <0>          durata minima a unui nivel nou (debounce.ms)",
+            "  --max-rate <0>             dV/dt maxim in V/s, 0 = oprit (rate.max)",
+            "  --record-dir <director>    director inregistrari (record.dir)",
+            "  --no-record                fara inregistrare (record.disabled=true)",
+            "  --raw-retention-hours <0>  ore de pastrare a segmentelor brute .ovr dupa arhivare, -1 = pentru",
+            "                             totdeauna (raw.retention.hours)",
+            "  --session-segments <16>    segmente de 64 MiB pe sesiune; sesiunea plina se arhiveaza si se",
+            "                             continua intr-una noua, 0 = fara limita (session.segments)",
+            "  --status-interval <60>     secunde intre rapoartele de stare (statistici pe 1 min), 0 = fara",
+            "                             (status.interval)",
+            "  --simulate                 generator sintetic in locul unei placi (simulate=true)",
+            "  --simulate-rate <1000>     esantioane/s pentru generator (simulate.rate)",
+            "  --log-data                 afiseaza si fiecare linie primita (log.data=true)",
+            "  --metrics-port <9464>      port local pentru /metrics (Prometheus) si JMX, 0 = oprit (metrics.port)",
+            "  --alert-log <fisier>       jurnal de alerte, implicit alerte.log langa inregistrari (alert.log)",
+            "  --alert-webhook <url>      POST JSON la fiecare alerta livrata (alert.webhook)",
+            "  --run-seconds <0>          oprire dupa atatea secunde, 0 = pana la Ctrl+C (run.seconds); pentru",
+            "                             rularea de antrenament a arhivei CDS");
+
+    private final List<String> portNames;
+    private final int baudRate;
+    private final ThresholdConfig thresholdConfig;
+    private final boolean simulate;
+    private final int simulationRate;
+    private final boolean logData;
+    private final long statusIntervalNanos;
+    private final long runNanos;
+    private final DeviceManager deviceManager;
+    private final int metricsPort;
+    private MetricsServer metricsServer;
+    //mesajele vin si de pe firele de citire: scrierea in consola are firul ei
+    private final ConsolePrinter console = new ConsolePrinter();
+    private final AlertDispatcher alerts = new AlertDispatcher((source, level, message) ->
+            console.print(source, message, level == LogBuffer.Level.ERROR));
+    private final String alertLog;
+    private final String alertWebhook;
+    private final Map<String, Long> reportedSamples = new HashMap<>();
+    private volatile boolean running = true;
+
+    HeadlessMonitor(Properties config) {
+        portNames = new ArrayList<>();
+        for (String port : config.getProperty("ports", "").split(",")) {
+            if (!port.isBlank()) {
+                portNames.add(port.trim());
+            }
+        }
+        baudRate = Integer.parseInt(config.getProperty("baud", "9600").trim());
+        thresholdConfig = new ThresholdConfig(
+                readDouble(config, "warning", ThresholdConfig.DEFAULT_WARNING),
+                readDouble(config, "threshold", ThresholdConfig.DEFAULT_CRITICAL),
+                readDouble(config, "hysteresis", ThresholdConfig.DEFAULT_HYSTERESIS),
+                Long.parseLong(config.getProperty("debounce.ms", "0").trim()),
+                readDouble(config, "rate.max", 0));
+        simulate = Boolean.parseBoolean(config.getProperty("simulate", "false").trim());
+        simulationRate = Integer.parseInt(config.getProperty("simulate.rate", "1000").trim());
+        logData = Boolean.parseBoolean(config.getProperty("log.data", "false").trim());
+        statusIntervalNanos = Long.parseLong(config.getProperty("status.interval", "60").trim()) * 1_000_000_000L;
+        runNanos = Long.parseLong(config.getProperty("run.seconds", "0").trim()) * 1_000_000_000L;
+        metricsPort = Integer.parseInt(config.getProperty("metrics.port",
+                String.valueOf(MetricsServer.DEFAULT_PORT)).trim());
+        alertLog = config.getProperty("alert.log");
+        alertWebhook = config.getProperty("alert.webhook");
+
+        deviceManager = new DeviceManager(new ConsoleListener());
+        //fara grafic, nu se pastreaza istoricul in memorie
+        deviceManager.setHistoryCapacity(0);
+        if (Boolean.parseBoolean(config.getProperty("record.disabled", "false").trim())) {
+            deviceManager.setRecordingDirectory(null);
+        } else if (config.getProperty("record.dir") != null) {
+            deviceManager.setRecordingDirectory(Paths.get(config.getProperty("record.dir").trim()));
+        }
+        //serviciu nesupravegheat: implicit nu se pastreaza segmentele brute, arhiva ajunge pentru export
+        long retentionHours = Long.parseLong(config.getProperty("raw.retention.hours", "0").trim());
+        deviceManager.setRawRetention(retentionHours < 0 ? null : Duration.ofHours(retentionHours));
+        deviceManager.setMaxSessionSegments(Integer.parseInt(config.getProperty("session.segments",
+                String.valueOf(DeviceManager.DEFAULT_SESSION_SEGMENTS)).trim()));
+
+        if (portNames.isEmpty() && !simulate) {
+            throw new IllegalArgumentException("Nu a fost configurat niciun port (--port sau ports=)");
+        }
+        if (simulationRate <= 0) {
+            throw new IllegalArgumentException("Rata generatorului trebuie sa fie pozitiva: " + simulationRate);
+        }
+    }
+
+    private static double readDouble(Properties config, String key, double defaultValue) {
+        String value = config.getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    public static void main(String[] args) {
+        Properties config;
+        try {
+            config = parseConfig(args);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("EROARE: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        if (config == null) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        HeadlessMonitor monitor;
+        try {
+            monitor = new HeadlessMonitor(config);
+        } catch (IllegalArgumentException e) {
+            System.err.println("EROARE: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(monitor::shutdown, "headless-shutdown"));
+        monitor.run();
+        //dupa --run-seconds; oprirea trece prin acelasi shutdown hook ca la Ctrl+C
+        System.exit(0);
+    }
+
+    //null pentru --help
+    static Properties parseConfig(String[] args) throws IOException {
+        Properties cli = new Properties();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--headless")) {
+                continue;
+            }
+            if (arg.equals("--help") || arg.equals("-h")) {
+                return null;
+            }
+            if (FLAGS.containsKey(arg)) {
+                cli.setProperty(FLAGS.get(arg), "true");
+            } else if (OPTIONS.containsKey(arg)) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Lipseste valoarea pentru " + arg);
+                }
+                cli.setProperty(OPTIONS.get(arg), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Optiune necunoscuta: " + arg);
+            }
+        }
+
+        Properties config = new Properties();
+        String configFile = cli.getProperty("config");
+        if (configFile != null) {
+            Path path = Paths.get(configFile);
+            try (InputStream in = Files.newInputStream(path)) {
+                config.load(in);
+            } catch (IOException e) {
+                throw new IOException("Nu s-a putut citi configurarea " + path + ": " + e.getMessage(), e);
+            }
+        }
+        config.putAll(cli);
+        return config;
+    }
+
+    void run() {
+        log(null, "Monitorizare fara interfata pornita. Praguri: " + thresholdConfig + "; porturi: "
+                + (portNames.isEmpty() ? "-" : String.join(", ", portNames)));
+        //lista sesiunilor ramase se ia aici, inainte de primele conexiuni, ca sesiunile noi sa nu intre in ea
+        deviceManager.archiveLeftoverSessions();
+        if (simulate) {
+            try {
+                deviceManager.connectSource(new SyntheticSource(SIMULATION_SOURCE, simulationRate, 0, 1.0,
+                        ReplaySource.Encoding.ASCII, System.nanoTime()), thresholdConfig);
+            } catch (IOException e) {
+                logError(null, "EROARE: " + e.getMessage());
+            }
+        }
+
+        startAlertSinks();
+
+        //porturile lipsa se deschid cand apar, iar cele pierdute se redeschid automat
+        ConnectionSupervisor supervisor = deviceManager.getSupervisor();
+        for (String portName : portNames) {
+            supervisor.watch(portName, baudRate, thresholdConfig);
+        }
+        supervisor.start();
+
+        //dupa pornirea citirii, ca serverul HTTP sa nu intarzie prima masuratoare
+        if (metricsPort > 0) {
+            try {
+                metricsServer = new MetricsServer(new PipelineMetrics(deviceManager), metricsPort);
+                log(null, "Metrici disponibile la http://127.0.0.1:" + metricsServer.getPort() + "/metrics");
+            } catch (IOException e) {
+                logError(null, "EROARE: Nu s-a putut porni serverul de metrici: " + e.getMessage());
+            }
+        }
+
+        long nextStatus = System.nanoTime() + statusIntervalNanos;
+        long stopAt = System.nanoTime() + runNanos;
+        while (running) {
+            long now = System.nanoTime();
+            if (runNanos > 0 && now - stopAt >= 0) {
+                log(null, "Durata de rulare ceruta s-a incheiat.");
+                return;
+            }
+            if (statusIntervalNanos > 0 && now - nextStatus >= 0) {
+                nextStatus = now + statusIntervalNanos;
+                reportStatus();
+            }
+            LockSupport.parkNanos(POLL_NANOS);
+        }
+    }
+
+    //fara interfata: doar jurnalul de alerte si, optional, webhook-ul
+    private void startAlertSinks() {
+        Path recordingDirectory = deviceManager.getRecordingDirectory();
+        Path logFile = alertLog != null ? Paths.get(alertLog.trim())
+                : recordingDirectory != null ? recordingDirectory.resolve(FileAlertSink.DEFAULT_FILE_NAME) : null;
+        if (logFile != null) {
+            try {
+                alerts.addSink(new FileAlertSink(logFile), AlertDispatcher.Severity.INFO);
+            } catch (IOException e) {
+                logError(null, "EROARE: Jurnalul de alerte nu poate fi deschis: " + e.getMessage());
+            }
+        }
+        if (alertWebhook != null && !alertWebhook.isBlank()) {
+            try {
+                alerts.addSink(new WebhookAlertSink(alertWebhook.trim()), AlertDispatcher.Severity.WARNING);
+            } catch (IllegalArgumentException e) {
+                logError(null, "EROARE: " + e.getMessage());
+            }
+        }
+    }
+
+    private void reportStatus() {
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            long sampleCount = device.getSampleCount();
+            Long previous = reportedSamples.put(device.getPortName(), sampleCount);
+            long received = sampleCount - (previous != null ? previous : 0);
+            RollingStats.Window minute = device.getStats().getMinute();
+            if (device.isConnectionLost()) {
+                logError(device.getPortName(), "Stare: legatura pierduta, reconectare in curs ("
+                        + device.getReconnectCount() + " reconectari pana acum)");
+            } else if (minute.getCount() == 0) {
+                log(device.getPortName(), "Stare: " + received + " esantioane noi, nicio statistica inca");
+            } else {
+                log(device.getPortName(), String.format("Stare: %d esantioane noi; ultimul minut: min %.3f V, "
+                                + "max %.3f V, medie %.3f V, sigma %.3f V, RMS %.3f V, peste prag %.1f s", received,
+                        minute.getMin(), minute.getMax(), minute.getMean(), minute.getStdDev(), minute.getRms(),
+                        minute.getTimeAboveSeconds()));
+            }
+        }
+    }
+
+    //la oprirea procesului: porturi inchise, inregistrari scrise pe disc si arhivate
+    private void shutdown() {
+        running = false;
+        if (metricsServer != null) {
+            metricsServer.close();
+        }
+        alerts.close();
+        try {
+            deviceManager.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log(null, "Monitorizare oprita.");
+        console.close();
+    }
+
+    private class ConsoleListener implements DeviceMonitor.Listener {
+        @Override
+        public void onLog(String source, LogBuffer.Level level, String message) {
+            console.print(source, message, level == LogBuffer.Level.ERROR);
+        }
+
+        @Override
+        public boolean isLogEnabled(LogBuffer.Level level) {
+            return level != LogBuffer.Level.DATA || logData;
+        }
+
+        @Override
+        public void onThresholdEvent(DeviceMonitor device, ThresholdEvent event) {
+            if (event.getType() == ThresholdEvent.Type.RECOVERED) {
+                console.print(event.getSource(), event.describe(), false);
+            } else {
+                console.print(event.getSource(), "ALERTA " + event.getType() + ": " + event.describe(), true);
+            }
+            alerts.raise(event);
+        }
+
+        @Override
+        public void onStopped(DeviceMonitor device, Exception error) {
+            if (error != null) {
+                console.print(device.getPortName(), "Placa deconectata: " + error.getMessage(), true);
+            }
+        }
+    }
+
+    private void log(String source, String message) {
+        console.print(source, message, false);
+    }
+
+    private void logError(String source, String message) {
+        console.print(source, message, true);
+    }
+}
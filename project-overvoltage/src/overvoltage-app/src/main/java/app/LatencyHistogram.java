@@ -0,0 +1,92 @@
+package app;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//histograma log-liniara de durate in nanosecunde (in stilul HdrHistogram): 8 sub-bucket-uri pe fiecare putere a lui 2,
+//eroare relativa sub 12.5%; un singur scriitor, cititori de pe orice fir (HTTP, JMX)
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    //fara CAS: un singur scriitor, lazySet ajunge la cititori fara bariera completa
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int index = indexOf(nanos);
+        counts.lazySet(index, counts.get(index) + 1);
+        sumNanos.lazySet(sumNanos.get() + nanos);
+        if (nanos > maxNanos.get()) {
+            maxNanos.lazySet(nanos);
+        }
+        count.lazySet(count.get() + 1);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSumNanos() {
+        return sumNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    //valoarea sub care se afla fractiunea q din inregistrari (limita superioara a bucket-ului)
+    public long percentileNanos(double q) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(upperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    //numarul de inregistrari din bucket-urile care se termina pana la limit (inclusiv)
+    public long countAtOrBelow(long limitNanos) {
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && upperBound(i) <= limitNanos; i++) {
+            seen += counts.get(i);
+        }
+        return seen;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,99 @@
+package app;
+
+import java.util.List;
+
+//jurnal circular de capacitate fixa; intrarile vechi sunt suprascrise, memoria ramane constanta
+//scris de orice fir, citit de firul FX o data pe cadru
+public class LogBuffer {
+
+    public enum Level {
+        DATA,
+        INFO,
+        ERROR
+    }
+
+    public static final class Entry {
+        private final long timeMillis;
+        private final Level level;
+        private final String source;
+        private final String message;
+
+        Entry(long timeMillis, Level level, String source, String message) {
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.source = source;
+            this.message = message;
+        }
+
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        //null pentru mesajele aplicatiei
+        public String getSource() {
+            return source;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final Entry[] entries;
+    private long written;
+    //implicit fara linii DATA: altfel firul de citire formateaza si ia lacatul jurnalului la fiecare esantion
+    private volatile boolean dataPaused = true;
+
+    public LogBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacitate jurnal invalida: " + capacity);
+        }
+        entries = new Entry[capacity];
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    //liniile DATA in pauza nu se mai construiesc deloc (vezi isEnabled)
+    public boolean isDataPaused() {
+        return dataPaused;
+    }
+
+    public void setDataPaused(boolean dataPaused) {
+        this.dataPaused = dataPaused;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level != Level.DATA || !dataPaused;
+    }
+
+    public void add(Level level, String source, String message) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        Entry entry = new Entry(System.currentTimeMillis(), level, source, message);
+        synchronized (this) {
+            entries[(int) (written % entries.length)] = entry;
+            written++;
+        }
+    }
+
+    //numarul total de intrari scrise; pozitia de la care continua urmatoarea citire
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    //copiaza in target intrarile inca pastrate de la pozitia from; intoarce pozitia urmatoare
+    public synchronized long copySince(long from, List<Entry> target) {
+        long oldest = Math.max(0, written - entries.length);
+        for (long i = Math.max(from, oldest); i < written; i++) {
+            target.add(entries[(int) (i % entries.length)]);
+        }
+        return written;
+    }
+}
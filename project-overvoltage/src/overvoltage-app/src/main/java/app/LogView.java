@@ -0,0 +1,136 @@
+package app;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+//consola de log: ListView virtualizat peste LogBuffer, se deseneaza doar randurile vizibile
+public class LogView extends VBox {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final double ROW_HEIGHT = 18;
+    private static final String SHOW_ALL = "Toate";
+    private static final String SHOW_INFO = "Fara date primite";
+    private static final String SHOW_ERRORS = "Doar erori";
+
+    private final LogBuffer buffer;
+    private final ObservableList<LogBuffer.Entry> items = FXCollections.observableArrayList();
+    private final ListView<LogBuffer.Entry> listView = new ListView<>(items);
+    private final ComboBox<String> filterSelector = new ComboBox<>();
+    private final CheckBox followBox = new CheckBox("Derulare automata");
+    private final List<LogBuffer.Entry> pending = new ArrayList<>();
+    private final List<LogBuffer.Entry> visible = new ArrayList<>();
+    private LogBuffer.Level minimumLevel = LogBuffer.Level.DATA;
+    private long nextEntry;
+
+    public LogView(LogBuffer buffer) {
+        this.buffer = buffer;
+
+        listView.setFixedCellSize(ROW_HEIGHT);
+        listView.setCellFactory(view -> new EntryCell());
+        VBox.setVgrow(listView, Priority.ALWAYS);
+
+        filterSelector.getItems().addAll(SHOW_ALL, SHOW_INFO, SHOW_ERRORS);
+        filterSelector.setValue(SHOW_ALL);
+        filterSelector.setOnAction(e -> applyFilter());
+
+        //fara bifa liniile nu se construiesc deloc pe firele de citire, nu doar nu se afiseaza
+        CheckBox dataBox = new CheckBox("Afiseaza date primite");
+        dataBox.setSelected(!buffer.isDataPaused());
+        dataBox.setOnAction(e -> buffer.setDataPaused(!dataBox.isSelected()));
+
+        followBox.setSelected(true);
+
+        Button clearButton = new Button("Sterge");
+        clearButton.setOnAction(e -> items.clear());
+
+        HBox header = new HBox(10, new Label("Log conexiune:"), filterSelector, dataBox, followBox, clearButton);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        getChildren().addAll(header, listView);
+        setSpacing(5);
+    }
+
+    //intrarile noi din jurnal, o data pe cadru
+    public void refresh() {
+        pending.clear();
+        nextEntry = buffer.copySince(nextEntry, pending);
+        if (pending.isEmpty()) {
+            return;
+        }
+        visible.clear();
+        for (LogBuffer.Entry entry : pending) {
+            if (entry.getLevel().compareTo(minimumLevel) >= 0) {
+                visible.add(entry);
+            }
+        }
+        pending.clear();
+        if (visible.isEmpty()) {
+            return;
+        }
+        items.addAll(visible);
+        visible.clear();
+
+        //lista afisata nu tine mai mult decat jurnalul
+        int excess = items.size() - buffer.capacity();
+        if (excess > 0) {
+            items.remove(0, excess);
+        }
+        if (followBox.isSelected()) {
+            listView.scrollTo(items.size() - 1);
+        }
+    }
+
+    //filtrul se aplica si intrarilor deja pastrate in jurnal
+    private void applyFilter() {
+        String filter = filterSelector.getValue();
+        if (SHOW_ERRORS.equals(filter)) {
+            minimumLevel = LogBuffer.Level.ERROR;
+        } else if (SHOW_INFO.equals(filter)) {
+            minimumLevel = LogBuffer.Level.INFO;
+        } else {
+            minimumLevel = LogBuffer.Level.DATA;
+        }
+        items.clear();
+        nextEntry = 0;
+        refresh();
+    }
+
+    private static final class EntryCell extends ListCell<LogBuffer.Entry> {
+        @Override
+        protected void updateItem(LogBuffer.Entry entry, boolean empty) {
+            super.updateItem(entry, empty);
+            if (empty || entry == null) {
+                setText(null);
+                return;
+            }
+            String time = TIME_FORMAT.format(LocalTime.ofInstant(Instant.ofEpochMilli(entry.getTimeMillis()),
+                    ZoneId.systemDefault()));
+            String source = entry.getSource();
+            setText(source == null ? time + "  " + entry.getMessage()
+                    : time + "  [" + source + "] " + entry.getMessage());
+            switch (entry.getLevel()) {
+                case ERROR -> setTextFill(Color.FIREBRICK);
+                case DATA -> setTextFill(Color.DIMGRAY);
+                default -> setTextFill(Color.BLACK);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+//endpoint local /metrics (format Prometheus) si inregistrare JMX pentru PipelineMetrics
+//asculta doar pe loopback; cererile se servesc pe un singur fir separat
+public class MetricsServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 9464;
+    private static final String OBJECT_NAME = "ace.overvoltage:type=PipelineMetrics";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectName objectName;
+
+    public MetricsServer(PipelineMetrics metrics, int port) throws IOException {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> handle(exchange, metrics));
+        server.setExecutor(executor);
+        server.start();
+        objectName = registerJmx(metrics);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private static void handle(HttpExchange exchange, PipelineMetrics metrics) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = metrics.toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    //null daca JMX nu este disponibil sau numele e deja folosit; endpoint-ul HTTP merge oricum
+    private static ObjectName registerJmx(PipelineMetrics metrics) {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            if (mbeanServer.isRegistered(name)) {
+                return null;
+            }
+            mbeanServer.registerMBean(metrics, name);
+            return name;
+        } catch (JMException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                //deja scos
+            }
+        }
+    }
+}
@@ -1,20 +1,19 @@
 package app;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
-import javafx.scene.chart.LineChart;
-import javafx.scene.chart.NumberAxis;
-import javafx.scene.chart.XYChart;
-import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
-import javafx.scene.control.TextArea;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
@@ -22,55 +21,78 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.text.Font;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import com.fazecast.jSerialComm.SerialPort;
 
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class OvervoltageApp extends Application {
 
-    private static final double THRESHOLD_VOLTAGE = 4.0;
-    private static final int MAX_DATA_POINTS = 100;
-    private SerialPort activePort;
-    private final AtomicBoolean running = new AtomicBoolean(false);
-    private ExecutorService executor;
-    private XYChart.Series<Number, Number> voltageSeries;
+    private static final String SIMULATION_SOURCE = "SIMULARE";
+    private static final String REPLAY_SOURCE = "REDARE";
+    private static final int SIMULATION_RATE_HZ = 1000;
+    private static final int LOG_CAPACITY = 5000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+    private final DeviceManager deviceManager = new DeviceManager(new DeviceListener());
+    private final PipelineMetrics metrics = new PipelineMetrics(deviceManager);
+    private final AlertDispatcher alerts = new AlertDispatcher(this::onAlertLog);
+    private AlertPanel alertPanel;
+    private MetricsServer metricsServer;
+    private ScopeView scopeView;
     private Label voltageLabel;
+    private Label rttLabel;
+    private TextField intervalField;
     private Circle statusIndicator;
+    private StatsPanel statsPanel;
+    private ExportPanel exportPanel;
     private ComboBox<String> portSelector;
     private Button connectButton;
-    private TextArea logArea;
+    private final LogBuffer logBuffer = new LogBuffer(LOG_CAPACITY);
+    private LogView logView;
     private TextField baudRateField;
-    private int xSeriesData = 0;
-    private boolean receiveRawData = false;
+    private TextField thresholdField;
+    private TextField warningField;
+    private TextField hysteresisField;
+    private TextField debounceField;
+    private TextField maxRateField;
+    private TextField replaySpeedField;
+    private CheckBox binaryReplayBox;
+    private Stage stage;
+
+    //panou de bord, doar pe firul FX
+    private final Map<String, DeviceTile> tiles = new LinkedHashMap<>();
+    private FlowPane dashboard;
+    private DeviceTile selectedTile;
+
+    //evenimente de prag de pe firele de citire
+    private final ConcurrentLinkedQueue<ThresholdEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+
+    //porturi in curs de deschidere pe firul supervizorului
+    private final Set<String> pendingConnections = new HashSet<>();
+    private AnimationTimer uiTimer;
+
+    //ultimul RTT afisat, ca eticheta sa se schimbe doar la raspunsuri noi
+    private CommandChannel shownCommands;
+    private long shownRttNanos = -1;
+    private long shownTimeouts = -1;
 
     @Override
     public void start(Stage primaryStage) {
+        stage = primaryStage;
         primaryStage.setTitle("Aplicatie Supraalimentare");
 
-        // grafic
-        NumberAxis xAxis = new NumberAxis();
-        NumberAxis yAxis = new NumberAxis();
-        xAxis.setLabel("Timp");
-        yAxis.setLabel("Tensiune (V)");
-        yAxis.setAutoRanging(false);
-        yAxis.setLowerBound(0);
-        yAxis.setUpperBound(5.5);
-        yAxis.setTickUnit(0.5);
-        LineChart<Number, Number> voltageChart = new LineChart<>(xAxis, yAxis);
-        voltageChart.setTitle("Tensiune în timp real");
-        voltageChart.setAnimated(false);
-        voltageChart.setCreateSymbols(false);
-        voltageSeries = new XYChart.Series<>();
-        voltageSeries.setName("Tensiune");
-        voltageChart.getData().add(voltageSeries);
+        // osciloscop
+        scopeView = new ScopeView();
 
         voltageLabel = new Label("0.00 V");
         voltageLabel.setFont(Font.font("Arial", 36));
@@ -81,226 +103,418 @@ public class OvervoltageApp extends Application {
         statusIndicator.setStroke(Color.BLACK);
 
         portSelector = new ComboBox<>();
-        updatePortList();
 
         baudRateField = new TextField("9600");
         baudRateField.setPrefWidth(80);
 
+        //praguri, Enter aplica setarile placii selectate
+        thresholdField = thresholdInput();
+        warningField = thresholdInput();
+        hysteresisField = thresholdInput();
+        debounceField = thresholdInput();
+        maxRateField = thresholdInput();
+        showThresholdConfig(ThresholdConfig.defaults());
+
+        replaySpeedField = new TextField("1");
+        replaySpeedField.setPrefWidth(50);
+        binaryReplayBox = new CheckBox("Redare binara");
+
         connectButton = new Button("Conectare");
         connectButton.setOnAction(e -> toggleConnection());
 
+        //lista se completeaza la prima enumerare a supervizorului
+        portSelector.setOnAction(e -> onPortSelected());
+
         Button refreshButton = new Button("Refresh porturi");
-        refreshButton.setOnAction(e -> updatePortList());
+        refreshButton.setOnAction(e -> deviceManager.getSupervisor().rescan());
 
-        Button testButton = new Button("Test Comunicare");
-        testButton.setOnAction(e -> sendTestCommand());
+        Button testButton = new Button("Ping");
+        testButton.setOnAction(e -> sendPing());
+
+        //intervalul dintre esantioane al placii, Enter trimite comanda
+        intervalField = new TextField("300");
+        intervalField.setPrefWidth(55);
+        intervalField.setOnAction(e -> sendSampleInterval());
 
         Button toggleModeButton = new Button("Comutare mod date brute");
-        toggleModeButton.setOnAction(e -> {
-            receiveRawData = !receiveRawData;
-            log("Mod de citire setat la: " + (receiveRawData ? "Date brute" : "Format Arduino standard"));
-        });
+        toggleModeButton.setOnAction(e -> toggleRawMode());
+
+        Button binaryModeButton = new Button("Comutare protocol binar");
+        binaryModeButton.setOnAction(e -> toggleBinaryMode());
 
         //log
-        logArea = new TextArea();
-        logArea.setEditable(false);
-        logArea.setPrefHeight(150);
+        logView = new LogView(logBuffer);
+        logView.setPrefHeight(180);
 
         GridPane settingsGrid = new GridPane();
         settingsGrid.setHgap(5);
         settingsGrid.setVgap(5);
-        settingsGrid.addRow(0, new Label("Rata Baud:"), baudRateField);
+        settingsGrid.addRow(0, new Label("Rata Baud:"), baudRateField, new Label("Prag (V):"), thresholdField,
+                new Label("Avertizare (V):"), warningField);
+        settingsGrid.addRow(1, new Label("Histerezis (V):"), hysteresisField, new Label("Debounce (ms):"), debounceField,
+                new Label("dV/dt max (V/s):"), maxRateField);
 
         HBox controlsBox = new HBox(10, portSelector, refreshButton, settingsGrid, connectButton);
         controlsBox.setAlignment(Pos.CENTER);
         controlsBox.setPadding(new Insets(10));
 
         //butoane
-        HBox extraControlsBox = new HBox(10, testButton, toggleModeButton);
+        Button liveButton = new Button("Live");
+        liveButton.setOnAction(e -> scopeView.showLive());
+
+        Button showAllButton = new Button("Tot istoricul");
+        showAllButton.setOnAction(e -> scopeView.showAll());
+
+        HBox extraControlsBox = new HBox(10, testButton, new Label("Interval placa (ms):"), intervalField,
+                toggleModeButton, binaryModeButton, liveButton, showAllButton);
         extraControlsBox.setAlignment(Pos.CENTER);
         extraControlsBox.setPadding(new Insets(5));
 
-        HBox statusBox = new HBox(20, statusIndicator, voltageLabel);
+        //export din arhivele inregistrate, pe un fir separat
+        exportPanel = new ExportPanel(logBuffer, deviceManager::getRecordingDirectory);
+
+        HBox replayBox = new HBox(10, new Label("Viteza redare (x sau max):"), replaySpeedField, binaryReplayBox,
+                exportPanel);
+        replayBox.setAlignment(Pos.CENTER);
+
+        statsPanel = new StatsPanel();
+        rttLabel = new Label("RTT: -");
+
+        HBox statusBox = new HBox(20, statusIndicator, voltageLabel, statsPanel, rttLabel);
         statusBox.setAlignment(Pos.CENTER);
 
         //panou
-        VBox topPanel = new VBox(10, controlsBox, extraControlsBox, statusBox);
+        VBox topPanel = new VBox(10, controlsBox, extraControlsBox, replayBox, statusBox);
         topPanel.setAlignment(Pos.CENTER);
         topPanel.setPadding(new Insets(10));
 
+        //panou de bord
+        dashboard = new FlowPane(10, 10);
+        dashboard.setPadding(new Insets(5));
+        ScrollPane dashboardScroll = new ScrollPane(dashboard);
+        dashboardScroll.setFitToWidth(true);
+        dashboardScroll.setPrefHeight(130);
+
+        VBox centerPanel = new VBox(5, scopeView, dashboardScroll);
+        centerPanel.setPadding(new Insets(0, 10, 0, 10));
+        VBox.setVgrow(scopeView, Priority.ALWAYS);
+
+        //alerte
+        alertPanel = new AlertPanel(alerts);
+
         //log
-        VBox.setVgrow(logArea, Priority.ALWAYS);
-        VBox bottomPanel = new VBox(5, new Label("Log conexiune:"), logArea);
+        VBox bottomPanel = new VBox(logView);
         bottomPanel.setPadding(new Insets(10));
 
         BorderPane root = new BorderPane();
         root.setTop(topPanel);
-        root.setCenter(voltageChart);
+        root.setCenter(centerPanel);
+        root.setRight(alertPanel);
         root.setBottom(bottomPanel);
 
-        Scene scene = new Scene(root, 800, 600);
+        Scene scene = new Scene(root, 1200, 750);
         primaryStage.setScene(scene);
         primaryStage.show();
 
-        executor = Executors.newSingleThreadExecutor();
-
-        //inchide toate resursele
+        uiTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                metrics.onFxPulse(now);
+                long frameStart = System.nanoTime();
+                drainUI();
+                metrics.onFxFrameDone(frameStart);
+            }
+        };
+        uiTimer.start();
+        //lista sesiunilor ramase se ia aici, inainte de primele conexiuni, ca sesiunile noi sa nu intre in ea
+        deviceManager.archiveLeftoverSessions();
+        deviceManager.getSupervisor().start();
+        startMetricsServer();
+        startAlertSinks();
+
+        //fereastra dispare imediat; oprirea placilor si arhivarea continua pe un fir separat
         primaryStage.setOnCloseRequest(e -> {
-            cleanupResources();
+            e.consume();
+            cleanupResources(primaryStage);
         });
 
         log("Aplicatie pornita. Selectati un port si apasati \"Conectare\".");
     }
 
-    private void cleanupResources() {
-        running.set(false);
-        if (activePort != null) {
-            if (activePort.isOpen()) {
-                activePort.closePort();
-                log("Port inchis la inchiderea aplicatiei: " + activePort.getSystemPortName());
+    private void cleanupResources(Stage stage) {
+        uiTimer.stop();
+        //JavaFX ramane pornit pana la Platform.exit(), dupa scrierea si arhivarea inregistrarilor
+        Platform.setImplicitExit(false);
+        stage.hide();
+        Thread thread = new Thread(() -> {
+            if (metricsServer != null) {
+                metricsServer.close();
+            }
+            alerts.close();
+            try {
+                deviceManager.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            activePort = null;
+            Platform.exit();
+        }, "app-shutdown");
+        thread.start();
+    }
+
+    //-Dovervoltage.metrics.port=0 dezactiveaza endpoint-ul
+    private void startMetricsServer() {
+        metrics.registerGauge("fx_pending_threshold_events", "Evenimente de prag neafisate inca",
+                pendingEvents::size);
+        int port = Integer.getInteger("overvoltage.metrics.port", MetricsServer.DEFAULT_PORT);
+        if (port <= 0) {
+            return;
+        }
+        try {
+            metricsServer = new MetricsServer(metrics, port);
+            log("Metrici disponibile la http://127.0.0.1:" + metricsServer.getPort() + "/metrics");
+        } catch (IOException e) {
+            logError("EROARE: Nu s-a putut porni serverul de metrici: " + e.getMessage());
         }
-        executor.shutdownNow();
     }
 
-    //test
-    private void sendTestCommand() {
-        if (activePort != null && activePort.isOpen()) {
+    //sunet doar pentru supraalimentare, notificare de sistem de la avertizare in sus
+    //jurnalul de alerte sta langa inregistrari; -Dovervoltage.alert.webhook=<url> adauga un webhook
+    private void startAlertSinks() {
+        metrics.registerGauge("alerts_unacknowledged", "Alerte neconfirmate in panou",
+                alerts::getUnacknowledgedCount);
+        metrics.registerGauge("alerts_suppressed_total", "Aparitii grupate sau limitate in loc sa fie livrate",
+                alerts::getSuppressedTotal);
+        alerts.addSink(new BeepAlertSink(), AlertDispatcher.Severity.CRITICAL);
+        alerts.addSink(new DesktopAlertSink(), AlertDispatcher.Severity.WARNING);
+        Path recordingDirectory = deviceManager.getRecordingDirectory();
+        if (recordingDirectory != null) {
             try {
-                log("Test...");
-                OutputStream out = activePort.getOutputStream();
-                out.write('T');  // Trimitem litera T ca test
-                out.flush();
-                log("Test trimis! Astept raspuns...");
+                alerts.addSink(new FileAlertSink(recordingDirectory.resolve(FileAlertSink.DEFAULT_FILE_NAME)),
+                        AlertDispatcher.Severity.INFO);
             } catch (IOException e) {
-                log("EROARE TEST: " + e.getMessage());
+                logError("EROARE: Jurnalul de alerte nu poate fi deschis: " + e.getMessage());
             }
+        }
+        String webhook = System.getProperty("overvoltage.alert.webhook");
+        if (webhook != null && !webhook.isBlank()) {
+            try {
+                alerts.addSink(new WebhookAlertSink(webhook.trim()), AlertDispatcher.Severity.WARNING);
+            } catch (IllegalArgumentException e) {
+                logError("EROARE: " + e.getMessage());
+            }
+        }
+    }
+
+    //placa portului selectat
+    private DeviceMonitor selectedDevice() {
+        String portName = selectedPortName();
+        return portName == null ? null : deviceManager.get(portName);
+    }
+
+    private String selectedPortName() {
+        String selectedPort = portSelector.getValue();
+        return selectedPort == null ? null : selectedPort.split(" - ")[0];
+    }
+
+    //test comunicare: raspunsul si timpul dus-intors ajung in log si in eticheta RTT
+    private void sendPing() {
+        DeviceMonitor device = selectedDevice();
+        if (device != null) {
+            device.ping();
         } else {
             log("Nu se poate testa, portul nu este deschis!");
-            showAlert("Eroare", "Conectati-va la un port disponibil.");
+            showNotice("Conectati-va la un port disponibil.");
         }
     }
 
-    //lista porturi
-    private void updatePortList() {
+    private void sendSampleInterval() {
+        DeviceMonitor device = selectedDevice();
+        if (device == null) {
+            log("Nu se poate seta intervalul, portul nu este deschis!");
+            return;
+        }
+        try {
+            device.sendSampleInterval(Integer.parseInt(intervalField.getText().trim()));
+        } catch (IllegalArgumentException e) {
+            logError("Interval incorect: " + e.getMessage());
+        }
+    }
+
+    private void toggleRawMode() {
+        DeviceMonitor device = selectedDevice();
+        if (device == null) {
+            log("Nu se poate comuta modul, portul nu este deschis!");
+            return;
+        }
+        boolean raw = device.toggleRawMode();
+        log("[" + device.getPortName() + "] Mod de citire setat la: " + (raw ? "Date brute" : "Format Arduino standard"));
+        if (raw && logBuffer.isDataPaused()) {
+            log("Datele brute apar in log doar cu \"Afiseaza date primite\" bifat.");
+        }
+    }
+
+    private void toggleBinaryMode() {
+        DeviceMonitor device = selectedDevice();
+        if (device == null) {
+            log("Nu se poate comuta modul, portul nu este deschis!");
+            showNotice("Conectati-va la un port disponibil.");
+            return;
+        }
+        if (device.toggleBinaryMode()) {
+            log("[" + device.getPortName() + "] Cerere mod binar trimisa. Astept confirmarea...");
+        } else {
+            log("[" + device.getPortName() + "] Cerere mod ASCII trimisa.");
+        }
+    }
+
+    private TextField thresholdInput() {
+        TextField field = new TextField();
+        field.setPrefWidth(55);
+        field.setOnAction(e -> applyThreshold());
+        return field;
+    }
+
+    private void showThresholdConfig(ThresholdConfig config) {
+        thresholdField.setText(String.valueOf(config.getCriticalVoltage()));
+        warningField.setText(String.valueOf(config.getWarningVoltage()));
+        hysteresisField.setText(String.valueOf(config.getHysteresis()));
+        debounceField.setText(String.valueOf(config.getDebounceMillis()));
+        maxRateField.setText(String.valueOf(config.getMaxRate()));
+    }
+
+    private ThresholdConfig readThresholdConfig() {
+        try {
+            return new ThresholdConfig(
+                    Double.parseDouble(warningField.getText().trim()),
+                    Double.parseDouble(thresholdField.getText().trim()),
+                    Double.parseDouble(hysteresisField.getText().trim()),
+                    Long.parseLong(debounceField.getText().trim()),
+                    Double.parseDouble(maxRateField.getText().trim()));
+        } catch (IllegalArgumentException e) {
+            ThresholdConfig defaults = ThresholdConfig.defaults();
+            logError("Praguri incorecte (" + e.getMessage() + "). Foloseste " + defaults);
+            showThresholdConfig(defaults);
+            return defaults;
+        }
+    }
+
+    private void applyThreshold() {
+        ThresholdConfig config = readThresholdConfig();
+        DeviceMonitor device = selectedDevice();
+        if (device != null) {
+            device.setThresholdConfig(config);
+            log("[" + device.getPortName() + "] Praguri setate: " + config);
+            //si LED-ul placii urmeaza pragul critic
+            device.sendThreshold(config.getCriticalVoltage());
+        }
+    }
+
+    //lista porturi, trimisa de ConnectionSupervisor la fiecare schimbare
+    private void updatePortList(List<ConnectionSupervisor.PortInfo> ports) {
         String selectedPort = portSelector.getValue();
         portSelector.getItems().clear();
 
-        SerialPort[] ports = SerialPort.getCommPorts();
-        if (ports.length == 0) {
+        if (ports.isEmpty()) {
             log("Nu s-au gasit porturi seriale disponibile!");
         } else {
-            log("Porturi disponibile: " + ports.length);
-            for (SerialPort port : ports) {
-                String portInfo = port.getSystemPortName() + " - " + port.getDescriptivePortName();
+            log("Porturi disponibile: " + ports.size());
+            for (ConnectionSupervisor.PortInfo port : ports) {
+                String portInfo = port.getName() + " - " + port.getDescription();
                 portSelector.getItems().add(portInfo);
                 log("Port gasit: " + portInfo);
             }
+        }
 
-            if (selectedPort != null && !selectedPort.isEmpty() &&
-                    portSelector.getItems().contains(selectedPort)) {
-                portSelector.setValue(selectedPort);
-            } else if (ports.length > 0) {
-                portSelector.getSelectionModel().select(0);
-            }
+        //surse fara placa
+        portSelector.getItems().add(SIMULATION_SOURCE + " - generator sintetic");
+        portSelector.getItems().add(REPLAY_SOURCE + " - inregistrare salvata");
+
+        if (selectedPort != null && !selectedPort.isEmpty() &&
+                portSelector.getItems().contains(selectedPort)) {
+            portSelector.setValue(selectedPort);
+        } else {
+            portSelector.getSelectionModel().select(0);
+        }
+    }
+
+    private void onPortSelected() {
+        String portName = selectedPortName();
+        boolean connecting = portName != null && pendingConnections.contains(portName);
+        connectButton.setDisable(connecting);
+        connectButton.setText(connecting ? "Conectare..."
+                : portName != null && deviceManager.isConnected(portName) ? "Deconectare" : "Conectare");
+        DeviceTile tile = portName == null ? null : tiles.get(portName);
+        if (tile != null && tile != selectedTile) {
+            selectTile(tile);
         }
     }
 
     private void toggleConnection() {
-        if (running.get()) {
-            disconnectPort();
+        String portName = selectedPortName();
+        if (portName == null) {
+            logError("EROARE: Selectati un port serial dispoibil!");
+            showNotice("Selectati un port serial dispoibil!");
+        } else if (deviceManager.isConnected(portName)) {
+            deviceManager.getSupervisor().disconnect(portName);
         } else {
-            String selectedPort = portSelector.getValue();
-            if (selectedPort != null) {
-                String portName = selectedPort.split(" - ")[0];
-                connectToPort(portName);
-            } else {
-                log("EROARE: Selectati un port serial dispoibil!");
-                showAlert("Eroare", "Selectati un port serial dispoibil!");
-            }
+            connectToPort(portName);
         }
     }
 
-    //deconectare port
-    private void disconnectPort() {
-        running.set(false);
-
+    //viteza de redare: 1 = timp real, N = accelerat, max = fara asteptare
+    private double readReplaySpeed() {
+        String text = replaySpeedField.getText().trim();
+        if (text.equalsIgnoreCase("max")) {
+            return ReplaySource.MAX_SPEED;
+        }
         try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
-        if (activePort != null) {
-            if (activePort.isOpen()) {
-                boolean closed = activePort.closePort();
-                if (closed) {
-                    log("Port inchis cu succes: " + activePort.getSystemPortName());
-                } else {
-                    log("EROARE la inchiderea portului: " + activePort.getSystemPortName());
-
-                    log("Inchidere fortata...");
-                    activePort = null;
-                    System.gc();
-                }
-            }
-            activePort = null;
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            log("Viteza de redare incorecta. Foloseste 1x");
+            replaySpeedField.setText("1");
+            return 1.0;
         }
-        connectButton.setText("Conectare");
-        statusIndicator.setFill(Color.LIGHTGRAY);
     }
 
-    //conectare la port
-    private void connectToPort(String portName) {
-        log("Conectare la port: " + portName);
-
-        //verif status
-        SerialPort[] portsBeforeOpen = SerialPort.getCommPorts();
-        boolean portExists = false;
-        for (SerialPort port : portsBeforeOpen) {
-            if (port.getSystemPortName().equals(portName)) {
-                portExists = true;
-                break;
-            }
+    private ByteSource createReplaySource(String name) {
+        double speed = readReplaySpeed();
+        ReplaySource.Encoding encoding = binaryReplayBox.isSelected()
+                ? ReplaySource.Encoding.BINARY : ReplaySource.Encoding.ASCII;
+        if (name.equals(SIMULATION_SOURCE)) {
+            return new SyntheticSource(name, SIMULATION_RATE_HZ, 0, speed, encoding, System.nanoTime());
         }
 
-        if (!portExists) {
-            log("EROARE: Portul " + portName + " nu a fost gasit in lista");
-            showAlert("Eroare", "Portul " + portName + " nu este disponibil");
-            return;
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Alegeti segmentele inregistrate");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Inregistrari", "*" + SampleRecorder.SEGMENT_EXTENSION));
+        Path recordingDirectory = deviceManager.getRecordingDirectory();
+        if (recordingDirectory != null && Files.isDirectory(recordingDirectory)) {
+            chooser.setInitialDirectory(recordingDirectory.toFile());
         }
-
-        SerialPort[] allPorts = SerialPort.getCommPorts();
-        for (SerialPort port : allPorts) {
-            if (port.getSystemPortName().equals(portName)) {
-                if (port.isOpen()) {
-                    log("Portul " + portName + " este deja deschis. Inchidere...");
-                    port.closePort();
-
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-                break;
-            }
+        List<File> files = chooser.showOpenMultipleDialog(stage);
+        if (files == null || files.isEmpty()) {
+            return null;
         }
-
-        //refresh porturi
-        SerialPort[] refreshedPorts = SerialPort.getCommPorts();
-        activePort = null;
-        for (SerialPort port : refreshedPorts) {
-            if (port.getSystemPortName().equals(portName)) {
-                activePort = port;
-                break;
-            }
+        List<Path> segments = new ArrayList<>();
+        for (File file : files) {
+            segments.add(file.toPath());
         }
+        return new RecordingReplaySource(name, segments, speed, encoding);
+    }
 
-        if (activePort == null) {
-            log("EROARE: Nu s-a putut obtine referinta la portul " + portName + " dupa actualizare");
-            showAlert("Eroare", "Nu s-a putut gasi portul selectat: " + portName);
+    //conectare la port
+    private void connectToPort(String portName) {
+        if (portName.equals(SIMULATION_SOURCE) || portName.equals(REPLAY_SOURCE)) {
+            ByteSource source = createReplaySource(portName);
+            if (source != null) {
+                try {
+                    addTile(deviceManager.connectSource(source, readThresholdConfig()));
+                } catch (IOException e) {
+                    logError("EROARE: " + e.getMessage());
+                    showError(portName, e.getMessage());
+                }
+            }
             return;
         }
 
@@ -314,197 +528,182 @@ public class OvervoltageApp extends Application {
             baudRateField.setText("9600");
         }
 
-        log("Configurare port cu rata baud: " + baudRate);
-        activePort.setComPortParameters(baudRate, 8, SerialPort.ONE_STOP_BIT, SerialPort.NO_PARITY);
-        activePort.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 3000, 0);
+        //deschiderea portului se face pe firul supervizorului; rezultatul vine in DeviceListener
+        pendingConnections.add(portName);
+        onPortSelected();
+        deviceManager.getSupervisor().connect(portName, baudRate, readThresholdConfig());
+    }
 
-        log("Deschidere port " + portName + "...");
-        if (activePort.openPort()) {
-            log("Port deschis cu succes: " + portName);
-            connectButton.setText("Deconectare");
-            statusIndicator.setFill(Color.GRAY);
-            running.set(true);
+    private void addTile(DeviceMonitor device) {
+        DeviceTile tile = new DeviceTile(device);
+        tile.setOnMouseClicked(e -> selectTile(tile));
+        tiles.put(device.getPortName(), tile);
+        dashboard.getChildren().add(tile);
+        selectTile(tile);
+        connectButton.setText("Deconectare");
+    }
 
-        //citire date
-            executor.submit(() -> {
-                try {
+    private void selectTile(DeviceTile tile) {
+        if (selectedTile != null) {
+            selectedTile.setSelected(false);
+        }
+        selectedTile = tile;
+        if (tile == null) {
+            scopeView.setDevice(null);
+            voltageLabel.setText("0.00 V");
+            statusIndicator.setFill(Color.LIGHTGRAY);
+            return;
+        }
+        tile.setSelected(true);
+        scopeView.setDevice(tile.getDevice());
+        showThresholdConfig(tile.getDevice().getThresholdConfig());
+        statusIndicator.setFill(tile.hasValue() ? tile.getStatusColor() : Color.GRAY);
+
+        String prefix = tile.getDevice().getPortName() + " - ";
+        for (String item : portSelector.getItems()) {
+            if (item.startsWith(prefix) && !item.equals(portSelector.getValue())) {
+                portSelector.setValue(item);
+                break;
+            }
+        }
+    }
 
-                    Thread.sleep(2000);
-                    log("Citire date de pe portul serial...");
-
-                    InputStream in = activePort.getInputStream();
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(in));
-
-                    String line;
-                    double voltage = 0.0;
-                    boolean readingVoltage = false;
-                    byte[] buffer = new byte[1024];
-
-                    while (running.get()) {
-                        try {
-                            if (receiveRawData) {
-                                //debug
-                                if (in.available() > 0) {
-                                    int numBytes = in.read(buffer);
-                                    if (numBytes > 0) {
-                                        String data = new String(buffer, 0, numBytes);
-                                        log("Date brute: " + data);
-
-
-                                        try {
-
-                                            String[] tokens = data.split("[^0-9.]");
-                                            for (String token : tokens) {
-                                                if (token.matches("\\d*\\.?\\d+")) {
-                                                    voltage = Double.parseDouble(token);
-                                                    if (voltage >= 0 && voltage <= 5.5) {
-                                                        log("Posibila tensiune gasita: " + voltage + "V");
-                                                        updateUI(voltage);
-                                                        break;
-                                                    }
-                                                }
-                                            }
-                                        } catch (Exception e) {
-                                            log("Nu s-au putut extrage date din sirul brut: " + e.getMessage());
-                                        }
-                                    }
-                                } else {
-                                    Thread.sleep(100);
-                                }
-                            } else {
-
-                                if (reader.ready() || activePort.bytesAvailable() > 0) {
-                                    line = reader.readLine();
-                                    if (line != null) {
-                                        line = line.trim();
-                                        log("Date primite: " + line);
-
-                                        if (readingVoltage) {
-                                            try {
-                                                voltage = Double.parseDouble(line);
-                                                readingVoltage = false;
-                                                log("Tensiune citita: " + voltage + "V");
-                                                updateUI(voltage);
-                                            } catch (NumberFormatException e) {
-                                                log("Nu s-a putut converti la numar: " + line);
-                                            }
-                                        } else if (line.contains("Tensiunea de pe pin:")) {
-                                            readingVoltage = true;
-                                        } else {
-
-                                            try {
-                                                if (line.matches("\\d*\\.?\\d+")) {
-                                                    voltage = Double.parseDouble(line);
-                                                    if (voltage >= 0 && voltage <= 5.5) {
-                                                        log("Valoare numerica detectata direct: " + voltage + "V");
-                                                        updateUI(voltage);
-                                                    }
-                                                }
-                                            } catch (NumberFormatException e) {
-
-                                            }
-                                        }
-                                    }
-                                } else {
-
-                                    Thread.sleep(100);
-                                }
-                            }
-                        } catch (IOException e) {
-                            if (running.get()) {
-                                log("EROARE la citirea datelor: " + e.getMessage());
-                                Platform.runLater(() -> {
-                                    showAlert("Eroare", "Eroare la citirea datelor seriale: " + e.getMessage());
-                                });
-                                break;
-                            }
-                        } catch (InterruptedException e) {
-                            log("Fir de execuție întrerupt");
-                            break;
-                        }
-                    }
-                } catch (Exception e) {
-                    log("EROARE generala: " + e.getClass().getName() + " - " + e.getMessage());
-                    if (running.get()) {
-                        Platform.runLater(() -> {
-                            showAlert("Eroare", "Eroare la citirea datelor seriale: " + e.getMessage());
-                        });
-                    }
-                } finally {
-                    running.set(false);
-                    if (activePort != null && activePort.isOpen()) {
-                        activePort.closePort();
-                        log("Port inchis în finally block: " + activePort.getSystemPortName());
-                    }
-                    Platform.runLater(() -> {
-                        connectButton.setText("Conectare");
-                        statusIndicator.setFill(Color.LIGHTGRAY);
-                    });
+    //placa oprita (din firul de citire)
+    private void onDeviceStopped(DeviceMonitor device, Exception error) {
+        Platform.runLater(() -> {
+            if (error != null) {
+                showError(device.getPortName(), "Eroare la citirea datelor seriale: " + error.getMessage());
+            }
+            DeviceTile tile = tiles.get(device.getPortName());
+            if (tile != null && tile.getDevice() == device) {
+                tiles.remove(device.getPortName());
+                dashboard.getChildren().remove(tile);
+                if (tile == selectedTile) {
+                    selectTile(tiles.isEmpty() ? null : tiles.values().iterator().next());
                 }
-            });
-        } else {
-            int errorCode = activePort.getLastErrorCode();
-            String errorLocation = String.valueOf(activePort.getLastErrorLocation());
-            log("EROARE: Nu s-a putut deschide portul " + portName +
-                    " (Cod eroare: " + errorCode + ", Location: " + errorLocation + ")");
+            }
+            onPortSelected();
+        });
+    }
 
+    private class DeviceListener implements DeviceMonitor.Listener {
+        @Override
+        public void onLog(String source, LogBuffer.Level level, String message) {
+            logBuffer.add(level, source, message);
+        }
 
-            String errorMessage = "Nu s-a putut deschide portul " + portName;
-            if (errorCode == 5) {
-                errorMessage += ". Portul este deja folosit de alt program.";
-            } else if (errorCode == 13) {
-                errorMessage += ". Nu aveti permisiune(incercati run as administrator).";
-            }
+        @Override
+        public boolean isLogEnabled(LogBuffer.Level level) {
+            return logBuffer.isEnabled(level);
+        }
+
+        @Override
+        public void onThresholdEvent(DeviceMonitor device, ThresholdEvent event) {
+            pendingEvents.add(event);
+            //direct de pe firul de citire, ca alerta sa nu astepte dupa cadrul FX
+            alerts.raise(event);
+        }
+
+        @Override
+        public void onStopped(DeviceMonitor device, Exception error) {
+            onDeviceStopped(device, error);
+        }
 
-            showAlert("Eroare", errorMessage);
+        @Override
+        public void onPortsChanged(List<ConnectionSupervisor.PortInfo> ports) {
+            Platform.runLater(() -> updatePortList(ports));
+        }
 
-            activePort = null;
-            System.gc();
+        @Override
+        public void onConnected(DeviceMonitor device) {
+            Platform.runLater(() -> {
+                pendingConnections.remove(device.getPortName());
+                if (device.isRunning() && !tiles.containsKey(device.getPortName())) {
+                    addTile(device);
+                }
+                onPortSelected();
+            });
+        }
+
+        @Override
+        public void onConnectFailed(String portName, IOException error) {
+            Platform.runLater(() -> {
+                pendingConnections.remove(portName);
+                onPortSelected();
+                showError(portName, error.getMessage());
+            });
         }
     }
 
-    //actualizare interfata
-    private void updateUI(double voltage) {
-        Platform.runLater(() -> {
-            voltageSeries.getData().add(new XYChart.Data<>(xSeriesData++, voltage));
+    //actualizare interfata, o data pe cadru
+    private void drainUI() {
+        for (DeviceTile tile : tiles.values()) {
+            tile.update();
+        }
+        drainThresholdEvents();
 
-            if (voltageSeries.getData().size() > MAX_DATA_POINTS) {
-                voltageSeries.getData().remove(0);
-            }
+        if (selectedTile != null && selectedTile.hasValue()) {
+            voltageLabel.setText(String.format("%.2f V", selectedTile.getLastVoltage()));
+            statusIndicator.setFill(selectedTile.getStatusColor());
+        }
+        statsPanel.update(selectedTile != null ? selectedTile.getDevice().getStats() : null);
+        updateRtt(selectedTile != null ? selectedTile.getDevice().getCommands() : null);
+        scopeView.refresh();
+        exportPanel.update();
+        alertPanel.update();
+        logView.refresh();
+    }
+
+    private void updateRtt(CommandChannel commands) {
+        long last = commands != null ? commands.getLastRttNanos() : -1;
+        long timeouts = commands != null ? commands.getTimeoutCount() : -1;
+        if (commands == shownCommands && last == shownRttNanos && timeouts == shownTimeouts) {
+            return;
+        }
+        shownCommands = commands;
+        shownRttNanos = last;
+        shownTimeouts = timeouts;
+        if (last < 0) {
+            rttLabel.setText(commands != null && timeouts > 0 ? "RTT: - (" + timeouts + " expirate)" : "RTT: -");
+            return;
+        }
+        rttLabel.setText(String.format("RTT: %.1f ms (p99 %.1f ms, %d expirate)", last / 1e6,
+                commands.getRtt().percentileNanos(0.99) / 1e6, timeouts));
+    }
 
-            voltageLabel.setText(String.format("%.2f V", voltage));
+    //toate evenimentele ajung in log; alertele pleaca separat, prin dispecer
+    private void drainThresholdEvents() {
+        ThresholdEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            LogBuffer.Level level = event.getType() == ThresholdEvent.Type.RECOVERED
+                    ? LogBuffer.Level.INFO : LogBuffer.Level.ERROR;
+            logBuffer.add(level, event.getSource(), event.describe());
+        }
+    }
 
-            if (voltage > THRESHOLD_VOLTAGE) {
-                statusIndicator.setFill(Color.RED);
+    //erorile ajung in panoul de alerte, nu in ferestre modale
+    private void showError(String source, String message) {
+        alerts.raise(source, "eroare", AlertDispatcher.Severity.WARNING, "Eroare", message);
+    }
 
-                if (voltageSeries.getData().size() <= 1 || (voltageSeries.getData().size() > 1 && (double)voltageSeries.getData().get(voltageSeries.getData().size() - 2).getYValue() <= THRESHOLD_VOLTAGE)) {
-                    showAlert("ALERTA", "Supraalimentare! Tensiunea a depasit pragul de " + THRESHOLD_VOLTAGE + " V.");
-                }
-            } else {
-                statusIndicator.setFill(Color.GREEN);
-            }
-        });
+    private void showNotice(String message) {
+        alerts.raise(null, "interfata", AlertDispatcher.Severity.INFO, "Atentie", message);
     }
 
-    //afisare alerta
-    private void showAlert(String title, String message) {
-        Alert alert = new Alert(Alert.AlertType.WARNING);
-        alert.setTitle(title);
-        alert.setHeaderText(null);
-        alert.setContentText(message);
-        alert.show();
+    private void onAlertLog(String source, LogBuffer.Level level, String message) {
+        logBuffer.add(level, source, message);
     }
 
     //log
     private void log(String message) {
-        Platform.runLater(() -> {
-            logArea.appendText(message + "\n");
+        logBuffer.add(LogBuffer.Level.INFO, null, message);
+    }
 
-            logArea.setScrollTop(Double.MAX_VALUE);
-        });
+    private void logError(String message) {
+        logBuffer.add(LogBuffer.Level.ERROR, null, message);
     }
 
     public static void main(String[] args) {
         launch(args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,329 @@
+package app;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+//instrumentarea lantului port -> parser -> coada FX -> ecran, citita la cerere (HTTP, JMX)
+//firele de citire si FX doar incrementeaza contoare; formatarea se face pe firul care citeste
+public class PipelineMetrics implements PipelineMetricsMXBean {
+
+    private static final String PREFIX = "overvoltage_";
+    private static final double[] LATENCY_BUCKETS_SECONDS = {
+            0.00001, 0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0};
+
+    private final DeviceManager deviceManager;
+    private final LatencyHistogram fxPulseInterval = new LatencyHistogram();
+    private final LatencyHistogram fxFrameTime = new LatencyHistogram();
+    private final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+    private long lastPulseNanos;
+
+    private static final class Gauge {
+        final String help;
+        final DoubleSupplier value;
+
+        Gauge(String help, DoubleSupplier value) {
+            this.help = help;
+            this.value = value;
+        }
+    }
+
+    public PipelineMetrics(DeviceManager deviceManager) {
+        this.deviceManager = deviceManager;
+    }
+
+    public DeviceManager getDeviceManager() {
+        return deviceManager;
+    }
+
+    //valori citite doar la export, de ex. adancimea unei cozi
+    public void registerGauge(String name, String help, DoubleSupplier value) {
+        gauges.put(PREFIX + name, new Gauge(help, value));
+    }
+
+    //la inceputul fiecarui puls FX (AnimationTimer); intarzierea pulsului se vede in intervalul dintre pulsuri
+    public void onFxPulse(long pulseNanos) {
+        if (lastPulseNanos != 0) {
+            fxPulseInterval.record(pulseNanos - lastPulseNanos);
+        }
+        lastPulseNanos = pulseNanos;
+    }
+
+    //durata golirii cozilor si actualizarii interfetei intr-un cadru
+    public void onFxFrameDone(long startNanos) {
+        fxFrameTime.record(System.nanoTime() - startNanos);
+    }
+
+    public LatencyHistogram getFxPulseInterval() {
+        return fxPulseInterval;
+    }
+
+    public LatencyHistogram getFxFrameTime() {
+        return fxFrameTime;
+    }
+
+    @Override
+    public int getDeviceCount() {
+        return deviceManager.getDevices().size();
+    }
+
+    @Override
+    public long getSamplesTotal() {
+        long total = 0;
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            total += device.getSampleCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getBytesTotal() {
+        long total = 0;
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            SerialIngestEngine engine = device.getIngestEngine();
+            total += engine != null ? engine.getByteCount() : 0;
+        }
+        return total;
+    }
+
+    @Override
+    public long getParseErrorsTotal() {
+        long total = 0;
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            total += device.getParseErrorCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getBinaryDroppedFramesTotal() {
+        long total = 0;
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            total += device.getBinaryDecoder().getDroppedFrames();
+        }
+        return total;
+    }
+
+    @Override
+    public long getUiQueueDepth() {
+        long total = 0;
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            SampleRingBuffer uiSamples = device.getUiSamples();
+            total += uiSamples != null ? uiSamples.size() : 0;
+        }
+        return total;
+    }
+
+    @Override
+    public long getUiQueueDroppedTotal() {
+        long total = 0;
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            SampleRingBuffer uiSamples = device.getUiSamples();
+            total += uiSamples != null ? uiSamples.getDroppedCount() : 0;
+        }
+        return total;
+    }
+
+    //cea mai lenta placa
+    @Override
+    public double getIngestLatencyP99Micros() {
+        long worst = 0;
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            SerialIngestEngine engine = device.getIngestEngine();
+            if (engine != null) {
+                worst = Math.max(worst, engine.getLatencyHistogram().percentileNanos(0.99));
+            }
+        }
+        return worst / 1e3;
+    }
+
+    @Override
+    public double getDisplayLatencyP99Millis() {
+        long worst = 0;
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            worst = Math.max(worst, device.getDisplayLatency().percentileNanos(0.99));
+        }
+        return worst / 1e6;
+    }
+
+    @Override
+    public double getCommandRttP99Millis() {
+        long worst = 0;
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            worst = Math.max(worst, device.getCommands().getRtt().percentileNanos(0.99));
+        }
+        return worst / 1e6;
+    }
+
+    @Override
+    public long getCommandTimeoutsTotal() {
+        long total = 0;
+        for (DeviceMonitor device : deviceManager.getDevices()) {
+            total += device.getCommands().getTimeoutCount();
+        }
+        return total;
+    }
+
+    @Override
+    public double getFxPulseIntervalP99Millis() {
+        return fxPulseInterval.percentileNanos(0.99) / 1e6;
+    }
+
+    @Override
+    public double getFxFrameTimeP99Millis() {
+        return fxFrameTime.percentileNanos(0.99) / 1e6;
+    }
+
+    //format text Prometheus 0.0.4
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        Iterable<DeviceMonitor> devices = deviceManager.getDevices();
+
+        header(out, "samples_total", "Esantioane procesate", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "samples_total", device, device.getSampleCount());
+        }
+        header(out, "bytes_total", "Octeti cititi de pe port", "counter");
+        for (DeviceMonitor device : devices) {
+            SerialIngestEngine engine = device.getIngestEngine();
+            sample(out, "bytes_total", device, engine != null ? engine.getByteCount() : 0);
+        }
+        header(out, "chunks_total", "Citiri de pe port cu date", "counter");
+        for (DeviceMonitor device : devices) {
+            SerialIngestEngine engine = device.getIngestEngine();
+            sample(out, "chunks_total", device, engine != null ? engine.getChunkCount() : 0);
+        }
+        header(out, "parse_errors_total", "Linii care nu au putut fi convertite", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "parse_errors_total", device, device.getParseErrorCount());
+        }
+        header(out, "binary_frames_total", "Cadre binare valide", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "binary_frames_total", device, device.getBinaryDecoder().getFrameCount());
+        }
+        header(out, "binary_dropped_frames_total", "Cadre binare pierdute (salturi de secventa)", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "binary_dropped_frames_total", device, device.getBinaryDecoder().getDroppedFrames());
+        }
+        header(out, "binary_checksum_errors_total", "Cadre binare cu checksum gresit", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "binary_checksum_errors_total", device, device.getBinaryDecoder().getChecksumErrors());
+        }
+        header(out, "binary_skipped_bytes_total", "Octeti sariti la resincronizare", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "binary_skipped_bytes_total", device, device.getBinaryDecoder().getSkippedBytes());
+        }
+        //placile fara interfata nu au coada FX, seriile lipsesc pentru ele
+        header(out, "ui_queue_depth", "Esantioane in asteptare catre firul FX", "gauge");
+        for (DeviceMonitor device : devices) {
+            if (device.getUiSamples() != null) {
+                sample(out, "ui_queue_depth", device, device.getUiSamples().size());
+            }
+        }
+        header(out, "ui_queue_dropped_total", "Esantioane pierdute pentru ca firul FX a ramas in urma", "counter");
+        for (DeviceMonitor device : devices) {
+            if (device.getUiSamples() != null) {
+                sample(out, "ui_queue_dropped_total", device, device.getUiSamples().getDroppedCount());
+            }
+        }
+        header(out, "connection_lost", "Legatura pierduta, se asteapta reconectarea (1) sau activa (0)", "gauge");
+        for (DeviceMonitor device : devices) {
+            sample(out, "connection_lost", device, device.isConnectionLost() ? 1 : 0);
+        }
+        header(out, "reconnects_total", "Reconectari automate", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "reconnects_total", device, device.getReconnectCount());
+        }
+        header(out, "reconnect_gap_seconds_total", "Timp total fara date din cauza deconectarilor", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "reconnect_gap_seconds_total", device, device.getTotalGapNanos() / 1e9);
+        }
+        header(out, "last_reconnect_gap_seconds", "Durata ultimei intreruperi", "gauge");
+        for (DeviceMonitor device : devices) {
+            sample(out, "last_reconnect_gap_seconds", device, device.getLastGapNanos() / 1e9);
+        }
+        header(out, "commands_total", "Comenzi trimise placii", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "commands_total", device, device.getCommands().getSentCount());
+        }
+        header(out, "command_timeouts_total", "Comenzi fara raspuns in timpul limita", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "command_timeouts_total", device, device.getCommands().getTimeoutCount());
+        }
+        header(out, "command_rejected_total", "Comenzi respinse de placa", "counter");
+        for (DeviceMonitor device : devices) {
+            sample(out, "command_rejected_total", device, device.getCommands().getRejectedCount());
+        }
+        header(out, "commands_in_flight", "Comenzi trimise care asteapta raspuns", "gauge");
+        for (DeviceMonitor device : devices) {
+            sample(out, "commands_in_flight", device, device.getCommands().getInFlight());
+        }
+        header(out, "threshold_level", "Nivel detectie (0 normal, 1 avertizare, 2 critic)", "gauge");
+        for (DeviceMonitor device : devices) {
+            sample(out, "threshold_level", device, device.getThresholdEngine().getLevel().ordinal());
+        }
+
+        header(out, "ingest_latency_seconds", "De la citirea de pe port pana la sfarsitul detectiei", "histogram");
+        for (DeviceMonitor device : devices) {
+            SerialIngestEngine engine = device.getIngestEngine();
+            if (engine != null) {
+                histogram(out, "ingest_latency_seconds", label(device), engine.getLatencyHistogram());
+            }
+        }
+        header(out, "display_latency_seconds", "De la citirea de pe port pana la cadrul FX care afiseaza esantionul",
+                "histogram");
+        for (DeviceMonitor device : devices) {
+            histogram(out, "display_latency_seconds", label(device), device.getDisplayLatency());
+        }
+        header(out, "command_rtt_seconds", "De la scrierea comenzii pana la sosirea raspunsului", "histogram");
+        for (DeviceMonitor device : devices) {
+            histogram(out, "command_rtt_seconds", label(device), device.getCommands().getRtt());
+        }
+        header(out, "fx_pulse_interval_seconds", "Interval intre pulsuri FX (nominal 16.7 ms)", "histogram");
+        histogram(out, "fx_pulse_interval_seconds", "", fxPulseInterval);
+        header(out, "fx_frame_seconds", "Durata actualizarii interfetei intr-un cadru", "histogram");
+        histogram(out, "fx_frame_seconds", "", fxFrameTime);
+
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            String name = entry.getKey();
+            out.append("# HELP ").append(name).append(' ').append(entry.getValue().help).append('\n');
+            out.append("# TYPE ").append(name).append(" gauge\n");
+            out.append(name).append(' ').append(entry.getValue().value.getAsDouble()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, DeviceMonitor device, long value) {
+        out.append(PREFIX).append(name).append('{').append(label(device)).append("} ").append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, DeviceMonitor device, double value) {
+        out.append(PREFIX).append(name).append('{').append(label(device)).append("} ").append(value).append('\n');
+    }
+
+    private static void histogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        String separator = labels.isEmpty() ? "" : ",";
+        for (double bound : LATENCY_BUCKETS_SECONDS) {
+            out.append(PREFIX).append(name).append("_bucket{").append(labels).append(separator)
+                    .append("le=\"").append(bound).append("\"} ")
+                    .append(histogram.countAtOrBelow((long) (bound * 1e9))).append('\n');
+        }
+        long count = histogram.getCount();
+        out.append(PREFIX).append(name).append("_bucket{").append(labels).append(separator)
+                .append("le=\"+Inf\"} ").append(count).append('\n');
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(PREFIX).append(name).append("_sum").append(braces).append(' ')
+                .append(histogram.getSumNanos() / 1e9).append('\n');
+        out.append(PREFIX).append(name).append("_count").append(braces).append(' ').append(count).append('\n');
+    }
+
+    private static String label(DeviceMonitor device) {
+        String name = device.getPortName().replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        return "device=\"" + name + "\"";
+    }
+}
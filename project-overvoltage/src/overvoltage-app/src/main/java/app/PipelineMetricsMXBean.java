@@ -0,0 +1,31 @@
+package app;
+
+//vedere JMX peste PipelineMetrics (jconsole / VisualVM), totaluri peste toate placile
+public interface PipelineMetricsMXBean {
+
+    int getDeviceCount();
+
+    long getSamplesTotal();
+
+    long getBytesTotal();
+
+    long getParseErrorsTotal();
+
+    long getBinaryDroppedFramesTotal();
+
+    long getUiQueueDepth();
+
+    long getUiQueueDroppedTotal();
+
+    double getIngestLatencyP99Micros();
+
+    double getDisplayLatencyP99Millis();
+
+    double getCommandRttP99Millis();
+
+    long getCommandTimeoutsTotal();
+
+    double getFxPulseIntervalP99Millis();
+
+    double getFxFrameTimeP99Millis();
+}
@@ -0,0 +1,96 @@
+package app;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+//citire secventiala a segmentelor scrise de SampleRecorder
+public class RecordingReader implements AutoCloseable {
+
+    private final List<Path> segments;
+    private int segmentIndex;
+    private MappedByteBuffer buffer;
+    private int position;
+
+    //inregistrarea curenta, valabila dupa next()
+    private long timestampNanos;
+    private double voltage;
+    private int deviceId;
+    private int flags;
+
+    public RecordingReader(List<Path> segments) {
+        this.segments = new ArrayList<>(segments);
+        this.segments.sort(null);
+    }
+
+    //toate segmentele unei placi (dupa prefixul numelui) sau tot directorul daca prefixul e null
+    public static List<Path> listSegments(Path directory, String devicePrefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String fileName = path.getFileName().toString();
+                return fileName.endsWith(SampleRecorder.SEGMENT_EXTENSION)
+                        && (devicePrefix == null || fileName.startsWith(devicePrefix + "-"));
+            }).sorted().toList();
+        }
+    }
+
+    public boolean next() throws IOException {
+        while (true) {
+            if (buffer != null && position + SampleRecorder.RECORD_SIZE <= buffer.capacity()) {
+                long timestamp = buffer.getLong(position);
+                if (timestamp != 0) {
+                    timestampNanos = timestamp;
+                    voltage = buffer.getDouble(position + 8);
+                    deviceId = buffer.getInt(position + 16);
+                    flags = buffer.getInt(position + 20);
+                    position += SampleRecorder.RECORD_SIZE;
+                    return true;
+                }
+            }
+            if (segmentIndex >= segments.size()) {
+                buffer = null;
+                return false;
+            }
+            openSegment(segments.get(segmentIndex++));
+        }
+    }
+
+    private void openSegment(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < SampleRecorder.HEADER_SIZE || buffer.getLong(0) != SampleRecorder.MAGIC
+                || buffer.getInt(8) != SampleRecorder.RECORD_SIZE) {
+            throw new IOException("Fisier de inregistrare invalid: " + path);
+        }
+        position = SampleRecorder.HEADER_SIZE;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public double getVoltage() {
+        return voltage;
+    }
+
+    public int getDeviceId() {
+        return deviceId;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+        segmentIndex = segments.size();
+    }
+}
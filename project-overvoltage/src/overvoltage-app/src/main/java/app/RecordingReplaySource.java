@@ -0,0 +1,26 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+//reda segmentele inregistrate prin aceeasi cale ca datele de pe port
+public class RecordingReplaySource extends ReplaySource {
+
+    private final RecordingReader reader;
+
+    public RecordingReplaySource(String name, List<Path> segments, double speed, Encoding encoding) {
+        super(name, speed, encoding);
+        this.reader = new RecordingReader(segments);
+    }
+
+    @Override
+    protected boolean nextSample() throws IOException {
+        if (!reader.next()) {
+            return false;
+        }
+        sampleNanos = reader.getTimestampNanos();
+        sampleVoltage = reader.getVoltage();
+        return true;
+    }
+}
@@ -0,0 +1,265 @@
+package app;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+//sursa care reda esantioane ca octeti de protocol, in timp real, accelerat sau cat de repede se poate
+public abstract class ReplaySource implements ByteSource {
+
+    public enum Encoding {
+        ASCII,
+        BINARY
+    }
+
+    //viteza <= 0 inseamna fara asteptare intre esantioane
+    public static final double MAX_SPEED = 0;
+
+    private static final byte[] HEADER = "Tensiunea de pe pin:\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BINARY_ACK = "MOD BINAR\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_FRAME_LENGTH = HEADER.length + 16;
+    private static final double ADC_MAX = 1023.0;
+    private static final double ADC_REFERENCE_VOLTAGE = 5.0;
+    private static final long MAX_PARK_NANOS = 50_000_000L;
+    private static final long MAX_HUNDREDTHS = 99_999_999L;
+    //coduri de stare ca in schita Arduino
+    private static final int STATUS_OK = 0;
+    private static final int STATUS_UNKNOWN = 1;
+    private static final int STATUS_ARGUMENT = 2;
+    private static final int STATUS_FIXED_MODE = 3;
+
+    private final String name;
+    private final double speed;
+    private final Encoding encoding;
+    private volatile boolean open = true;
+
+    //esantionul curent, completat de subclasa in nextSample()
+    protected long sampleNanos;
+    protected double sampleVoltage;
+
+    private boolean pending;
+    private boolean started;
+    private boolean ackSent;
+    private long firstSampleNanos;
+    private long startNanoTime;
+    private int sequence;
+
+    //raspunsuri la comenzi, intercalate intre esantioane ca pe placa
+    private final Queue<byte[]> responses = new ConcurrentLinkedQueue<>();
+    private final long openNanoTime = System.nanoTime();
+    private volatile Thread reader;
+
+    protected ReplaySource(String name, double speed, Encoding encoding) {
+        this.name = name;
+        this.speed = speed;
+        this.encoding = encoding;
+    }
+
+    //urmatorul esantion in sampleNanos / sampleVoltage; false la sfarsit
+    protected abstract boolean nextSample() throws IOException;
+
+    protected void onClose() {
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int read(byte[] buffer, int length) throws IOException {
+        reader = Thread.currentThread();
+        int written = 0;
+        if (encoding == Encoding.BINARY && !ackSent) {
+            System.arraycopy(BINARY_ACK, 0, buffer, 0, BINARY_ACK.length);
+            written = BINARY_ACK.length;
+            ackSent = true;
+        }
+        written = drainResponses(buffer, written, length);
+
+        while (open && length - written >= MAX_FRAME_LENGTH) {
+            if (!pending) {
+                if (!nextSample()) {
+                    close();
+                    break;
+                }
+                pending = true;
+                if (!started) {
+                    started = true;
+                    firstSampleNanos = sampleNanos;
+                    startNanoTime = System.nanoTime();
+                }
+            }
+
+            if (speed > 0) {
+                long due = startNanoTime + (long) ((sampleNanos - firstSampleNanos) / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    written = drainResponses(buffer, written, length);
+                    if (written > 0) {
+                        return written;
+                    }
+                    //asteptare in transe scurte, ca inchiderea sa fie observata repede; write() trezeste firul
+                    LockSupport.parkNanos(Math.min(wait, MAX_PARK_NANOS));
+                    continue;
+                }
+            }
+
+            written += encode(buffer, written);
+            pending = false;
+            written = drainResponses(buffer, written, length);
+        }
+        return written > 0 ? written : -1;
+    }
+
+    private int drainResponses(byte[] buffer, int offset, int length) {
+        byte[] response;
+        while ((response = responses.peek()) != null && length - offset >= response.length) {
+            responses.poll();
+            System.arraycopy(response, 0, buffer, offset, response.length);
+            offset += response.length;
+        }
+        return offset;
+    }
+
+    private int encode(byte[] buffer, int offset) {
+        if (encoding == Encoding.BINARY) {
+            int adc = (int) Math.round(sampleVoltage / ADC_REFERENCE_VOLTAGE * ADC_MAX);
+            adc = Math.max(0, Math.min((int) ADC_MAX, adc));
+            int seq = sequence++ & 0xFF;
+            int low = adc & 0xFF;
+            int high = adc >>> 8;
+            buffer[offset] = (byte) BinaryFrameDecoder.FRAME_SYNC;
+            buffer[offset + 1] = (byte) seq;
+            buffer[offset + 2] = (byte) low;
+            buffer[offset + 3] = (byte) high;
+            buffer[offset + 4] = (byte) (BinaryFrameDecoder.FRAME_SYNC ^ seq ^ low ^ high);
+            return BinaryFrameDecoder.FRAME_LENGTH;
+        }
+
+        //ca Serial.println(float) pe Arduino: doua zecimale
+        System.arraycopy(HEADER, 0, buffer, offset, HEADER.length);
+        int position = offset + HEADER.length;
+        long hundredths = Math.max(0, Math.min(MAX_HUNDREDTHS, Math.round(sampleVoltage * 100)));
+        long whole = hundredths / 100;
+        int fraction = (int) (hundredths % 100);
+        position = writeDigits(buffer, position, whole);
+        buffer[position++] = '.';
+        buffer[position++] = (byte) ('0' + fraction / 10);
+        buffer[position++] = (byte) ('0' + fraction % 10);
+        buffer[position++] = '\r';
+        buffer[position++] = '\n';
+        return position - offset;
+    }
+
+    private static int writeDigits(byte[] buffer, int position, long value) {
+        if (value >= 10) {
+            position = writeDigits(buffer, position, value / 10);
+        }
+        buffer[position] = (byte) ('0' + value % 10);
+        return position + 1;
+    }
+
+    //comenzile "#<id> ..." primesc raspuns ca de la placa; protocolul redarii nu se poate schimba
+    @Override
+    public void write(byte[] data, int length) {
+        String text = new String(data, 0, length, StandardCharsets.US_ASCII);
+        for (String line : text.split("\n")) {
+            line = line.trim();
+            if (line.startsWith("#")) {
+                answer(line.substring(1));
+            }
+        }
+        Thread thread = reader;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void answer(String command) {
+        String[] parts = command.split(" ");
+        int id;
+        try {
+            id = Integer.parseInt(parts[0]);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (id < 1 || id > 255 || parts.length < 2) {
+            return;
+        }
+        String argument = parts.length > 2 ? parts[2] : null;
+        switch (parts[1]) {
+            case "PING":
+                respond(id, STATUS_OK, (System.nanoTime() - openNanoTime) / 1_000_000);
+                break;
+            case "THR":
+            case "INT":
+                respond(id, argument != null && isNumber(argument) ? STATUS_OK : STATUS_ARGUMENT, -1);
+                break;
+            case "BIN":
+                respond(id, encoding == Encoding.BINARY ? STATUS_OK : STATUS_FIXED_MODE, -1);
+                break;
+            case "ASC":
+                respond(id, encoding == Encoding.ASCII ? STATUS_OK : STATUS_FIXED_MODE, -1);
+                break;
+            default:
+                respond(id, STATUS_UNKNOWN, -1);
+                break;
+        }
+    }
+
+    private void respond(int id, int status, long value) {
+        if (encoding == Encoding.BINARY) {
+            //16 biti, ca pe placa: PING trimite millis() modulo 65535 (0xFFFF inseamna fara valoare)
+            int ackValue = value >= 0 ? (int) (value % BinaryFrameDecoder.ACK_NO_VALUE)
+                    : BinaryFrameDecoder.ACK_NO_VALUE;
+            int low = ackValue & 0xFF;
+            int high = ackValue >> 8;
+            int checksum = BinaryFrameDecoder.ACK_SYNC ^ id ^ status ^ low ^ high;
+            responses.add(new byte[] {(byte) BinaryFrameDecoder.ACK_SYNC, (byte) id, (byte) status, (byte) low,
+                    (byte) high, (byte) checksum});
+            return;
+        }
+        String reply = "@" + id;
+        switch (status) {
+            case STATUS_OK:
+                reply += " OK" + (value >= 0 ? " " + value : "");
+                break;
+            case STATUS_ARGUMENT:
+                reply += " ERR argument invalid";
+                break;
+            case STATUS_FIXED_MODE:
+                reply += " ERR mod fix la redare";
+                break;
+            default:
+                reply += " ERR comanda necunoscuta";
+                break;
+        }
+        responses.add((reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static boolean isNumber(String text) {
+        try {
+            Double.parseDouble(text);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized boolean close() {
+        if (open) {
+            open = false;
+            onClose();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,393 @@
+package app;
+
+//statistici glisante pe 1 s, 1 min si 1 h, actualizate incremental pe firul de citire
+//esantioanele intra intr-un bucket de 100 ms; bucket-urile inchise alimenteaza fereastra de 1 s,
+//iar fiecare secunda inchisa alimenteaza ferestrele de 1 min si 1 h (fara rescanari)
+public class RollingStats {
+
+    public interface SecondListener {
+        //apelat pe firul de citire la inchiderea fiecarei secunde
+        void onSecond(long endNanos, Window second);
+    }
+
+    //rezultat imutabil, publicat la fiecare 100 ms pentru cititori de pe alte fire
+    public static final class Window {
+        public static final Window EMPTY = new Window(0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, 0, 0);
+
+        private final long count;
+        private final double min;
+        private final double max;
+        private final double mean;
+        private final double stdDev;
+        private final double rms;
+        private final double timeAboveSeconds;
+        private final double coveredSeconds;
+
+        Window(long count, double min, double max, double mean, double stdDev, double rms, double timeAboveSeconds,
+               double coveredSeconds) {
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.stdDev = stdDev;
+            this.rms = rms;
+            this.timeAboveSeconds = timeAboveSeconds;
+            this.coveredSeconds = coveredSeconds;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getStdDev() {
+            return stdDev;
+        }
+
+        public double getRms() {
+            return rms;
+        }
+
+        //timp estimat peste pragul critic (fractiunea esantioanelor din fiecare bucket)
+        public double getTimeAboveSeconds() {
+            return timeAboveSeconds;
+        }
+
+        //cat din fereastra are deja date
+        public double getCoveredSeconds() {
+            return coveredSeconds;
+        }
+    }
+
+    private static final long TICK_NANOS = 100_000_000L;
+    private static final int TICKS_PER_SECOND = 10;
+    private static final int MINUTE_SECONDS = 60;
+    private static final int HOUR_SECONDS = 3600;
+
+    private final SecondListener secondListener;
+    private final Moments tick = new Moments();
+    private final Moments second = new Moments();
+    private final SlidingWindow secondWindow = new SlidingWindow(TICKS_PER_SECOND, TICK_NANOS / 1e9);
+    private final SlidingWindow minuteWindow = new SlidingWindow(MINUTE_SECONDS, 1.0);
+    private final SlidingWindow hourWindow = new SlidingWindow(HOUR_SECONDS, 1.0);
+    private boolean started;
+    private long currentTick;
+
+    private volatile Window lastSecond = Window.EMPTY;
+    private volatile Window lastMinute = Window.EMPTY;
+    private volatile Window lastHour = Window.EMPTY;
+
+    public RollingStats(SecondListener secondListener) {
+        this.secondListener = secondListener;
+    }
+
+    //inainte de pornirea firului de citire
+    public void reset() {
+        started = false;
+        tick.reset();
+        second.reset();
+        secondWindow.clear();
+        minuteWindow.clear();
+        hourWindow.clear();
+        lastSecond = Window.EMPTY;
+        lastMinute = Window.EMPTY;
+        lastHour = Window.EMPTY;
+    }
+
+    public Window getSecond() {
+        return lastSecond;
+    }
+
+    public Window getMinute() {
+        return lastMinute;
+    }
+
+    public Window getHour() {
+        return lastHour;
+    }
+
+    public void add(double voltage, boolean aboveThreshold, long arrivalNanos) {
+        long sampleTick = Math.floorDiv(arrivalNanos, TICK_NANOS);
+        if (!started) {
+            started = true;
+            currentTick = sampleTick;
+        } else if (sampleTick != currentTick) {
+            advanceTo(sampleTick);
+        }
+        tick.add(voltage, aboveThreshold);
+    }
+
+    //inchide bucket-urile pana la tick-ul nou; golurile intra ca bucket-uri goale
+    private void advanceTo(long sampleTick) {
+        if (sampleTick - currentTick > (long) HOUR_SECONDS * TICKS_PER_SECOND) {
+            //pauza mai lunga decat cea mai mare fereastra: totul a expirat
+            tick.reset();
+            second.reset();
+            secondWindow.clear();
+            minuteWindow.clear();
+            hourWindow.clear();
+            currentTick = sampleTick;
+            publish();
+            return;
+        }
+        while (currentTick < sampleTick) {
+            secondWindow.push(tick);
+            second.merge(tick);
+            tick.reset();
+            currentTick++;
+            if (Math.floorMod(currentTick, TICKS_PER_SECOND) == 0) {
+                minuteWindow.push(second);
+                hourWindow.push(second);
+                if (secondListener != null && second.count > 0) {
+                    secondListener.onSecond(currentTick * TICK_NANOS, secondWindow.snapshot());
+                }
+                second.reset();
+            }
+        }
+        publish();
+    }
+
+    private void publish() {
+        lastSecond = secondWindow.snapshot();
+        lastMinute = minuteWindow.snapshot();
+        lastHour = hourWindow.snapshot();
+    }
+
+    //momente Welford pentru un bucket, combinabile (Chan)
+    private static final class Moments {
+        long count;
+        double mean;
+        double m2;
+        double sumSquares;
+        double min;
+        double max;
+        long aboveCount;
+
+        void add(double value, boolean above) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+            sumSquares += value * value;
+            if (count == 1 || value < min) {
+                min = value;
+            }
+            if (count == 1 || value > max) {
+                max = value;
+            }
+            if (above) {
+                aboveCount++;
+            }
+        }
+
+        void merge(Moments other) {
+            if (other.count == 0) {
+                return;
+            }
+            if (count == 0) {
+                count = other.count;
+                mean = other.mean;
+                m2 = other.m2;
+                sumSquares = other.sumSquares;
+                min = other.min;
+                max = other.max;
+                aboveCount = other.aboveCount;
+                return;
+            }
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * count * other.count / total;
+            sumSquares += other.sumSquares;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            aboveCount += other.aboveCount;
+            count = total;
+        }
+
+        void reset() {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+            sumSquares = 0;
+            min = 0;
+            max = 0;
+            aboveCount = 0;
+        }
+    }
+
+    //fereastra glisanta peste ultimele N bucket-uri: totaluri adaugate/scazute, min/max prin cozi monotone
+    private static final class SlidingWindow {
+        private final int capacity;
+        private final double bucketSeconds;
+        private final long[] counts;
+        private final double[] means;
+        private final double[] m2s;
+        private final double[] sumSquares;
+        private final double[] mins;
+        private final double[] maxs;
+        private final double[] aboveSeconds;
+
+        //cozi monotone de numere de bucket (crescatoare pentru min, descrescatoare pentru max)
+        private final long[] minQueue;
+        private final long[] maxQueue;
+        private int minHead;
+        private int minSize;
+        private int maxHead;
+        private int maxSize;
+
+        private long pushed;
+        private long totalCount;
+        private double totalMean;
+        private double totalM2;
+        private double totalSumSquares;
+        private double totalAboveSeconds;
+
+        SlidingWindow(int capacity, double bucketSeconds) {
+            this.capacity = capacity;
+            this.bucketSeconds = bucketSeconds;
+            counts = new long[capacity];
+            means = new double[capacity];
+            m2s = new double[capacity];
+            sumSquares = new double[capacity];
+            mins = new double[capacity];
+            maxs = new double[capacity];
+            aboveSeconds = new double[capacity];
+            minQueue = new long[capacity];
+            maxQueue = new long[capacity];
+        }
+
+        void clear() {
+            pushed = 0;
+            minHead = minSize = 0;
+            maxHead = maxSize = 0;
+            totalCount = 0;
+            totalMean = 0;
+            totalM2 = 0;
+            totalSumSquares = 0;
+            totalAboveSeconds = 0;
+        }
+
+        void push(Moments bucket) {
+            long sequence = pushed++;
+            int slot = (int) (sequence % capacity);
+            //bucket-ul care iese din fereastra ocupa acelasi slot
+            expire(sequence);
+            if (sequence >= capacity) {
+                remove(slot);
+            }
+
+            counts[slot] = bucket.count;
+            means[slot] = bucket.mean;
+            m2s[slot] = bucket.m2;
+            sumSquares[slot] = bucket.sumSquares;
+            mins[slot] = bucket.min;
+            maxs[slot] = bucket.max;
+            aboveSeconds[slot] = bucket.count == 0 ? 0 : bucketSeconds * bucket.aboveCount / bucket.count;
+            add(slot);
+
+            if (bucket.count > 0) {
+                while (minSize > 0 && mins[slotOf(minQueue[(minHead + minSize - 1) % capacity])] >= bucket.min) {
+                    minSize--;
+                }
+                minQueue[(minHead + minSize++) % capacity] = sequence;
+                while (maxSize > 0 && maxs[slotOf(maxQueue[(maxHead + maxSize - 1) % capacity])] <= bucket.max) {
+                    maxSize--;
+                }
+                maxQueue[(maxHead + maxSize++) % capacity] = sequence;
+            }
+
+            //la fiecare tur complet totalurile se recalculeaza, ca erorile de rotunjire sa nu se adune
+            if (slot == capacity - 1) {
+                recompute();
+            }
+        }
+
+        private int slotOf(long sequence) {
+            return (int) (sequence % capacity);
+        }
+
+        private void expire(long newest) {
+            long oldest = newest - capacity + 1;
+            while (minSize > 0 && minQueue[minHead] < oldest) {
+                minHead = (minHead + 1) % capacity;
+                minSize--;
+            }
+            while (maxSize > 0 && maxQueue[maxHead] < oldest) {
+                maxHead = (maxHead + 1) % capacity;
+                maxSize--;
+            }
+        }
+
+        private void add(int slot) {
+            long count = counts[slot];
+            if (count == 0) {
+                return;
+            }
+            long total = totalCount + count;
+            double delta = means[slot] - totalMean;
+            totalMean += delta * count / total;
+            totalM2 += m2s[slot] + delta * delta * totalCount * count / total;
+            totalSumSquares += sumSquares[slot];
+            totalAboveSeconds += aboveSeconds[slot];
+            totalCount = total;
+        }
+
+        private void remove(int slot) {
+            long count = counts[slot];
+            if (count == 0) {
+                return;
+            }
+            long remaining = totalCount - count;
+            if (remaining == 0) {
+                totalCount = 0;
+                totalMean = 0;
+                totalM2 = 0;
+                totalSumSquares = 0;
+                totalAboveSeconds = 0;
+                return;
+            }
+            double mean = (totalMean * totalCount - means[slot] * count) / remaining;
+            double delta = means[slot] - mean;
+            totalM2 = Math.max(0, totalM2 - m2s[slot] - delta * delta * count * remaining / totalCount);
+            totalMean = mean;
+            totalSumSquares = Math.max(0, totalSumSquares - sumSquares[slot]);
+            totalAboveSeconds = Math.max(0, totalAboveSeconds - aboveSeconds[slot]);
+            totalCount = remaining;
+        }
+
+        private void recompute() {
+            totalCount = 0;
+            totalMean = 0;
+            totalM2 = 0;
+            totalSumSquares = 0;
+            totalAboveSeconds = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                add(slot);
+            }
+        }
+
+        Window snapshot() {
+            if (totalCount == 0) {
+                return Window.EMPTY;
+            }
+            double min = mins[slotOf(minQueue[minHead])];
+            double max = maxs[slotOf(maxQueue[maxHead])];
+            double stdDev = Math.sqrt(totalM2 / totalCount);
+            double rms = Math.sqrt(totalSumSquares / totalCount);
+            double covered = Math.min(pushed, capacity) * bucketSeconds;
+            return new Window(totalCount, min, max, totalMean, stdDev, rms, totalAboveSeconds, covered);
+        }
+    }
+}
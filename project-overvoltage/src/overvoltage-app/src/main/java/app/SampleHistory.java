@@ -0,0 +1,182 @@
+package app;
+
+//istoric circular de esantioane pe tablouri primitive, cu rezumat min/max pe blocuri
+//un singur scriitor (firul de citire) si un singur cititor (firul FX)
+public class SampleHistory {
+
+    public interface PointSink {
+        void accept(long index, double value);
+    }
+
+    private static final int BLOCK_SHIFT = 8;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private final float[] values;
+    private final int mask;
+    private final float[] blockMin;
+    private final float[] blockMax;
+    private final short[] blockMinOffset;
+    private final short[] blockMaxOffset;
+    private final int blockMask;
+    private volatile long count;
+
+    //rezultatul ultimei scanari (folosit doar de cititor)
+    private long scanMinIndex;
+    private long scanMaxIndex;
+    private float scanMin;
+    private float scanMax;
+
+    public SampleHistory(int capacityPowerOfTwo) {
+        if (Integer.bitCount(capacityPowerOfTwo) != 1 || capacityPowerOfTwo < BLOCK_SIZE) {
+            throw new IllegalArgumentException("Capacitate istoric invalida: " + capacityPowerOfTwo);
+        }
+        values = new float[capacityPowerOfTwo];
+        mask = capacityPowerOfTwo - 1;
+        int blocks = capacityPowerOfTwo >>> BLOCK_SHIFT;
+        blockMin = new float[blocks];
+        blockMax = new float[blocks];
+        blockMinOffset = new short[blocks];
+        blockMaxOffset = new short[blocks];
+        blockMask = blocks - 1;
+    }
+
+    public void append(double voltage) {
+        long index = count;
+        float value = (float) voltage;
+        values[(int) index & mask] = value;
+
+        int block = (int) (index >>> BLOCK_SHIFT) & blockMask;
+        int offset = (int) index & (BLOCK_SIZE - 1);
+        if (offset == 0 || value < blockMin[block]) {
+            blockMin[block] = value;
+            blockMinOffset[block] = (short) offset;
+        }
+        if (offset == 0 || value > blockMax[block]) {
+            blockMax[block] = value;
+            blockMaxOffset[block] = (short) offset;
+        }
+        count = index + 1;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getOldestIndex() {
+        return Math.max(0, count - values.length);
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    //esantionul cu indicele dat; trebuie sa fie intre getOldestIndex() si getCount()
+    public double get(long index) {
+        return values[(int) index & mask];
+    }
+
+    //primul indice din [from, to) la care valoarea trece peste level dinspre <= level, sau -1
+    //blocurile complete cu maximul sub nivel sunt sarite dupa rezumat
+    public long findRisingCrossing(long from, long to, double level) {
+        from = Math.max(from, getOldestIndex() + 1);
+        to = Math.min(to, count);
+        if (from >= to) {
+            return -1;
+        }
+        boolean below = values[(int) (from - 1) & mask] <= level;
+        long i = from;
+        while (i < to) {
+            if ((i & (BLOCK_SIZE - 1)) == 0 && i + BLOCK_SIZE <= to
+                    && blockMax[(int) (i >>> BLOCK_SHIFT) & blockMask] <= level) {
+                below = true;
+                i += BLOCK_SIZE;
+                continue;
+            }
+            float value = values[(int) i & mask];
+            if (value > level) {
+                if (below) {
+                    return i;
+                }
+            } else {
+                below = true;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    //min si max pe fiecare interval, in ordinea aparitiei, ca niciun varf sa nu fie ascuns
+    public int decimate(long from, long to, int buckets, PointSink sink) {
+        long end = count;
+        from = Math.max(from, Math.max(0, end - values.length));
+        to = Math.min(to, end);
+        if (from >= to || buckets <= 0) {
+            return 0;
+        }
+
+        long span = to - from;
+        if (span <= 2L * buckets) {
+            for (long i = from; i < to; i++) {
+                sink.accept(i, values[(int) i & mask]);
+            }
+            return (int) span;
+        }
+
+        int emitted = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            long start = from + span * bucket / buckets;
+            long stop = from + span * (bucket + 1) / buckets;
+            if (start >= stop) {
+                continue;
+            }
+            scan(start, stop);
+            if (scanMinIndex == scanMaxIndex) {
+                sink.accept(scanMinIndex, scanMin);
+                emitted++;
+            } else if (scanMinIndex < scanMaxIndex) {
+                sink.accept(scanMinIndex, scanMin);
+                sink.accept(scanMaxIndex, scanMax);
+                emitted += 2;
+            } else {
+                sink.accept(scanMaxIndex, scanMax);
+                sink.accept(scanMinIndex, scanMin);
+                emitted += 2;
+            }
+        }
+        return emitted;
+    }
+
+    //blocurile complete sunt citite din rezumat, restul esantion cu esantion
+    private void scan(long start, long stop) {
+        scanMin = Float.POSITIVE_INFINITY;
+        scanMax = Float.NEGATIVE_INFINITY;
+        scanMinIndex = start;
+        scanMaxIndex = start;
+        long i = start;
+        while (i < stop) {
+            if ((i & (BLOCK_SIZE - 1)) == 0 && i + BLOCK_SIZE <= stop) {
+                int block = (int) (i >>> BLOCK_SHIFT) & blockMask;
+                if (blockMin[block] < scanMin) {
+                    scanMin = blockMin[block];
+                    scanMinIndex = i + blockMinOffset[block];
+                }
+                if (blockMax[block] > scanMax) {
+                    scanMax = blockMax[block];
+                    scanMaxIndex = i + blockMaxOffset[block];
+                }
+                i += BLOCK_SIZE;
+            } else {
+                float value = values[(int) i & mask];
+                if (value < scanMin) {
+                    scanMin = value;
+                    scanMinIndex = i;
+                }
+                if (value > scanMax) {
+                    scanMax = value;
+                    scanMaxIndex = i;
+                }
+                i++;
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package app;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+//inregistrare append-only in segmente mapate in memorie, un scriitor per placa
+//inregistrare (24 octeti): timestamp epoch nanos, tensiune, id placa, flag-uri; timestamp 0 = sfarsitul datelor
+//rezumatul pe secunde intr-un fisier separat (.ovs, 64 octeti): sfarsitul secundei in epoch nanos, numar esantioane,
+//min, max, medie, deviatie standard, RMS, secunde peste prag
+//cu o limita de segmente, o conexiune lunga se imparte in sesiuni succesive, arhivate pe rand
+public class SampleRecorder implements AutoCloseable {
+
+    //sesiune incheiata cat timp inregistrarea continua; apelat pe firul de citire
+    public interface SessionListener {
+        void onSessionRolled(SampleRecorder recorder, List<Path> segments, Path archive);
+    }
+
+    public static final long MAGIC = 0x4F56524543303031L; // "OVREC001"
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 24;
+    public static final int FLAG_ABOVE_THRESHOLD = 1;
+    public static final int FLAG_WARNING = 2;
+    public static final String SEGMENT_EXTENSION = ".ovr";
+    public static final long STATS_MAGIC = 0x4F56535441543031L; // "OVSTAT01"
+    public static final int STATS_RECORD_SIZE = 64;
+    public static final String STATS_EXTENSION = ".ovs";
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    //sesiuni pornite in aceeasi milisecunda (reconectare rapida) primesc milisecundele urmatoare
+    private static final int MAX_NAME_ATTEMPTS = 1000;
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private static final class Segment {
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        volatile int position = HEADER_SIZE;
+        int forcedPosition = HEADER_SIZE;
+
+        Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Path directory;
+    private final String filePrefix;
+    //schimbat de firul de citire la inceputul unei sesiuni noi
+    private volatile long sessionMillis;
+    private int segmentIndex;
+    private final List<Path> segmentPaths = new CopyOnWriteArrayList<>();
+    private final int segmentSize;
+    private final int maxSessionSegments;
+    private final SessionListener sessionListener;
+    private final int deviceId;
+    private final long baseEpochNanos;
+    private final long baseNanoTime;
+    private final ConcurrentLinkedQueue<Segment> retiredSegments = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<PendingStats> pendingStats = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer statsBuffer = ByteBuffer.allocate(STATS_RECORD_SIZE);
+    private final FileChannel statsChannel;
+    private final ScheduledFuture<?> flushTask;
+    private volatile Segment current;
+    private volatile boolean failed;
+    private volatile long recordCount;
+
+    public SampleRecorder(Path directory, String deviceName, int deviceId, ScheduledExecutorService flusher)
+            throws IOException {
+        this(directory, deviceName, deviceId, flusher, 0, null);
+    }
+
+    //maxSessionSegments 0: o singura sesiune, oricat de lunga
+    public SampleRecorder(Path directory, String deviceName, int deviceId, ScheduledExecutorService flusher,
+                          int maxSessionSegments, SessionListener sessionListener) throws IOException {
+        this(directory, deviceName, deviceId, flusher, SEGMENT_SIZE, maxSessionSegments, sessionListener);
+    }
+
+    //segmente mai mici doar in teste
+    SampleRecorder(Path directory, String deviceName, int deviceId, ScheduledExecutorService flusher, int segmentSize,
+                   int maxSessionSegments, SessionListener sessionListener) throws IOException {
+        if (maxSessionSegments < 0) {
+            throw new IllegalArgumentException("Numar de segmente pe sesiune negativ: " + maxSessionSegments);
+        }
+        this.directory = directory;
+        this.filePrefix = deviceName.replaceAll("[^A-Za-z0-9_.-]", "_");
+        this.deviceId = deviceId;
+        this.segmentSize = segmentSize;
+        this.maxSessionSegments = maxSessionSegments;
+        this.sessionListener = sessionListener;
+        Instant now = Instant.now();
+        this.baseEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.baseNanoTime = System.nanoTime();
+
+        Files.createDirectories(directory);
+        current = openSession(System.currentTimeMillis());
+        statsChannel = openStatsFile();
+        flushTask = flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    //nivelul de detectie al esantionului, ca flag-uri de inregistrare
+    public static int flagsFor(ThresholdEngine.Level level) {
+        return switch (level) {
+            case CRITICAL -> FLAG_ABOVE_THRESHOLD;
+            case WARNING -> FLAG_WARNING;
+            case NORMAL -> 0;
+        };
+    }
+
+    //apelat doar de firul de citire al placii; fara alocari in afara schimbarii de segment
+    public boolean record(long arrivalNanos, double voltage, int flags) {
+        if (failed) {
+            return false;
+        }
+        Segment segment = current;
+        int position = segment.position;
+        if (position + RECORD_SIZE > segmentSize) {
+            try {
+                segment = roll(segment);
+            } catch (IOException e) {
+                failed = true;
+                return false;
+            }
+            position = segment.position;
+        }
+
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putDouble(position + 8, voltage);
+        buffer.putInt(position + 16, deviceId);
+        buffer.putInt(position + 20, flags);
+        //timestamp-ul se scrie ultimul: o inregistrare cu timestamp este completa
+        buffer.putLong(position, baseEpochNanos + (arrivalNanos - baseNanoTime));
+        segment.position = position + RECORD_SIZE;
+        recordCount++;
+        return true;
+    }
+
+    //o inregistrare pe secunda; scrierea pe disc se face pe firul de flush
+    public void recordStats(long endNanoTime, RollingStats.Window second) {
+        if (!failed) {
+            pendingStats.add(new PendingStats(baseEpochNanos + (endNanoTime - baseNanoTime), second));
+        }
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    //segmentele sesiunii curente, in ordine
+    public List<Path> getSegmentPaths() {
+        return List.copyOf(segmentPaths);
+    }
+
+    //arhiva comprimata in care se compacteaza sesiunea curenta dupa inchidere
+    public Path getArchivePath() {
+        return sessionFile(ArchiveWriter.ARCHIVE_EXTENSION);
+    }
+
+    public int getDeviceId() {
+        return deviceId;
+    }
+
+    private Segment roll(Segment full) throws IOException {
+        Segment next;
+        if (maxSessionSegments > 0 && segmentPaths.size() >= maxSessionSegments) {
+            //segmentul plin are deja toate inregistrarile sesiunii; fsync-ul lui ramane pe firul de flush
+            List<Path> finished = List.copyOf(segmentPaths);
+            Path archive = getArchivePath();
+            long finishedMillis = sessionMillis;
+            int finishedIndex = segmentIndex;
+            segmentPaths.clear();
+            segmentIndex = 0;
+            try {
+                next = openSession(Math.max(System.currentTimeMillis(), finishedMillis + 1));
+            } catch (IOException e) {
+                //sesiunea ramane cea veche, arhivata la inchidere
+                sessionMillis = finishedMillis;
+                segmentIndex = finishedIndex;
+                segmentPaths.addAll(finished);
+                throw e;
+            }
+            if (sessionListener != null) {
+                sessionListener.onSessionRolled(this, finished, archive);
+            }
+        } else {
+            next = openSegment();
+        }
+        retiredSegments.add(full);
+        current = next;
+        return next;
+    }
+
+    //numele sesiunii trebuie sa fie liber pentru segmente, rezumat si arhiva; CREATE_NEW il rezerva
+    //rezumatul pe secunde ramane in fisierul primei sesiuni
+    private Segment openSession(long startMillis) throws IOException {
+        sessionMillis = startMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (!Files.exists(sessionFile(STATS_EXTENSION))
+                        && !Files.exists(sessionFile(ArchiveWriter.ARCHIVE_EXTENSION))) {
+                    return openSegment();
+                }
+            } catch (FileAlreadyExistsException e) {
+                //sesiune cu acelasi nume
+            }
+            if (attempt == MAX_NAME_ATTEMPTS) {
+                throw new IOException("Nu exista un nume liber pentru sesiunea " + filePrefix + " in " + directory);
+            }
+            sessionMillis++;
+        }
+    }
+
+    private Path sessionFile(String extension) {
+        return directory.resolve(String.format("%s-%d%s", filePrefix, sessionMillis, extension));
+    }
+
+    private Segment openSegment() throws IOException {
+        Path path = directory.resolve(String.format("%s-%d-%05d%s", filePrefix, sessionMillis, segmentIndex,
+                SEGMENT_EXTENSION));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segmentIndex++;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putLong(0, MAGIC);
+        buffer.putInt(8, RECORD_SIZE);
+        buffer.putInt(12, deviceId);
+        segmentPaths.add(path);
+        return new Segment(path, channel, buffer);
+    }
+
+    private FileChannel openStatsFile() throws IOException {
+        FileChannel channel = FileChannel.open(sessionFile(STATS_EXTENSION), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putLong(0, STATS_MAGIC);
+        header.putInt(8, STATS_RECORD_SIZE);
+        header.putInt(12, deviceId);
+        channel.write(header);
+        return channel;
+    }
+
+    //fsync pe loturi, de pe firul de flush; la o cadere se pierde cel mult ultimul lot
+    private synchronized void flush() {
+        Segment retired;
+        while ((retired = retiredSegments.poll()) != null) {
+            forceSegment(retired);
+            closeChannel(retired);
+        }
+        forceSegment(current);
+        writeStats();
+    }
+
+    private void writeStats() {
+        if (pendingStats.isEmpty() || !statsChannel.isOpen()) {
+            return;
+        }
+        try {
+            PendingStats stats;
+            while ((stats = pendingStats.poll()) != null) {
+                RollingStats.Window second = stats.second;
+                statsBuffer.clear();
+                statsBuffer.putLong(stats.endEpochNanos);
+                statsBuffer.putLong(second.getCount());
+                statsBuffer.putDouble(second.getMin());
+                statsBuffer.putDouble(second.getMax());
+                statsBuffer.putDouble(second.getMean());
+                statsBuffer.putDouble(second.getStdDev());
+                statsBuffer.putDouble(second.getRms());
+                statsBuffer.putDouble(second.getTimeAboveSeconds());
+                statsBuffer.flip();
+                while (statsBuffer.hasRemaining()) {
+                    statsChannel.write(statsBuffer);
+                }
+            }
+            statsChannel.force(false);
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    private void forceSegment(Segment segment) {
+        int position = segment.position;
+        if (position > segment.forcedPosition) {
+            segment.buffer.force(segment.forcedPosition, position - segment.forcedPosition);
+            segment.forcedPosition = position;
+        }
+    }
+
+    private void closeChannel(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    @Override
+    public void close() {
+        flushTask.cancel(false);
+        flush();
+        closeChannel(current);
+        try {
+            statsChannel.close();
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    private static final class PendingStats {
+        final long endEpochNanos;
+        final RollingStats.Window second;
+
+        PendingStats(long endEpochNanos, RollingStats.Window second) {
+            this.endEpochNanos = endEpochNanos;
+            this.second = second;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package app;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//coada fara blocare cu un singur producator (firul de citire) si un singur consumator (firul FX)
+public class SampleRingBuffer {
+
+    public interface SampleConsumer {
+        void accept(double value, long arrivalNanos);
+    }
+
+    private final double[] values;
+    private final long[] arrivalNanos;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long droppedCount;
+
+    public SampleRingBuffer(int capacityPowerOfTwo) {
+        if (Integer.bitCount(capacityPowerOfTwo) != 1) {
+            throw new IllegalArgumentException("Capacitatea trebuie sa fie putere a lui 2: " + capacityPowerOfTwo);
+        }
+        values = new double[capacityPowerOfTwo];
+        arrivalNanos = new long[capacityPowerOfTwo];
+        mask = capacityPowerOfTwo - 1;
+    }
+
+    //apelat doar de producator; daca buffer-ul e plin esantionul nu mai este afisat
+    public boolean offer(double value, long nanos) {
+        long h = head.get();
+        if (h - tail.get() > mask) {
+            droppedCount++;
+            return false;
+        }
+        int index = (int) h & mask;
+        values[index] = value;
+        arrivalNanos[index] = nanos;
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    //apelat doar de consumator
+    public int drain(SampleConsumer consumer) {
+        long t = tail.get();
+        long h = head.get();
+        int count = (int) (h - t);
+        for (long i = t; i < h; i++) {
+            int index = (int) i & mask;
+            consumer.accept(values[index], arrivalNanos[index]);
+        }
+        tail.lazySet(h);
+        return count;
+    }
+
+    public int size() {
+        return (int) (head.get() - tail.get());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+}
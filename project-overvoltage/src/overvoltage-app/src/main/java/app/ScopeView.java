@@ -0,0 +1,458 @@
+package app;
+
+import javafx.geometry.Pos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+
+//osciloscop desenat direct pe Canvas din istoricul circular (SampleHistory), fara noduri per punct
+//mod liber (fereastra glisanta), normal (recaptura la fiecare trecere peste pragul critic) sau unic
+//persistenta: cadrele vechi se estompeaza treptat in loc sa fie sterse
+public class ScopeView extends VBox {
+
+    public enum TriggerMode {
+        FREE("Liber"),
+        NORMAL("Normal"),
+        SINGLE("Unic");
+
+        private final String label;
+
+        TriggerMode(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    //opacitatea fundalului desenat peste cadrul precedent; 1 sterge tot, 0 nu sterge nimic
+    public enum Persistence {
+        OFF("Oprita", 1.0),
+        SHORT("Scurta", 0.35),
+        LONG("Lunga", 0.08),
+        INFINITE("Infinita", 0.0);
+
+        private final String label;
+        private final double fade;
+
+        Persistence(String label, double fade) {
+            this.label = label;
+            this.fade = fade;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final long DEFAULT_WINDOW = 1000;
+    private static final long MIN_WINDOW = 10;
+    private static final double ZOOM_FACTOR = 1.25;
+    private static final double MAX_VOLTAGE = 5.5;
+    private static final double VOLTAGE_STEP = 0.5;
+    private static final int DIVISIONS = 10;
+    private static final double LEFT_MARGIN = 40;
+    private static final double BOTTOM_MARGIN = 18;
+    private static final Color BACKGROUND = Color.rgb(16, 20, 24);
+    private static final Color GRID = Color.rgb(60, 68, 76);
+    private static final Color TEXT = Color.rgb(170, 178, 186);
+    private static final Color TRACE = Color.rgb(80, 220, 120);
+    private static final Color TRIGGER = Color.rgb(90, 160, 255);
+    private static final String[] VOLTAGE_LABELS = voltageLabels();
+
+    private final Canvas canvas = new Canvas();
+    private final ComboBox<TriggerMode> modeBox = new ComboBox<>();
+    private final ComboBox<Integer> preTriggerBox = new ComboBox<>();
+    private final ComboBox<Persistence> persistenceBox = new ComboBox<>();
+    private final Label triggerLabel = new Label();
+
+    private DeviceMonitor device;
+    private SampleHistory history;
+
+    //fereastra vizibila, in indici de esantion
+    private boolean live = true;
+    private long viewEnd;
+    private long viewWidth = DEFAULT_WINDOW;
+    private long renderedCount = -1;
+    //dirty: fundalul se sterge complet la urmatorul cadru
+    private boolean dirty = true;
+
+    //declansare: cautarea continua de la scannedIndex; pendingTrigger asteapta esantioanele de dupa
+    private boolean armed = true;
+    private long scannedIndex;
+    private long pendingTrigger = -1;
+    private long captures;
+
+    //captura curenta, copiata din istoric ca sa nu fie suprascrisa de esantioanele noi
+    private SampleHistory capture = new SampleHistory(1 << 12);
+    private long captureFrom;
+    private long captureLength;
+    private long captureWindow;
+    private long capturePre;
+    private double captureLevel;
+    private boolean captureReady;
+    private boolean newCapture;
+
+    //puncte pentru strokePolyline, refolosite intre cadre
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private int points;
+    private double plotWidth;
+    private double plotHeight;
+    private long drawFrom;
+    private double drawSpan;
+
+    private double dragStartX;
+    private long dragStartEnd;
+
+    public ScopeView() {
+        super(4);
+
+        modeBox.getItems().addAll(TriggerMode.values());
+        modeBox.setValue(TriggerMode.FREE);
+        modeBox.setOnAction(e -> rearm());
+        preTriggerBox.getItems().addAll(10, 25, 50, 75);
+        preTriggerBox.setValue(25);
+        preTriggerBox.setOnAction(e -> rearm());
+        persistenceBox.getItems().addAll(Persistence.values());
+        persistenceBox.setValue(Persistence.OFF);
+        persistenceBox.setOnAction(e -> dirty = true);
+        Button rearmButton = new Button("Rearmare");
+        rearmButton.setOnAction(e -> rearm());
+
+        HBox toolbar = new HBox(8, new Label("Declansare:"), modeBox, new Label("Pre-declansare (%):"),
+                preTriggerBox, rearmButton, new Label("Persistenta:"), persistenceBox, triggerLabel);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+
+        //canvas-ul urmareste dimensiunea panoului; nemanageriat, ca sa nu impuna el dimensiunea preferata
+        Pane plot = new Pane(canvas);
+        plot.setMinSize(0, 0);
+        plot.setPrefSize(600, 400);
+        canvas.setManaged(false);
+        canvas.widthProperty().bind(plot.widthProperty());
+        canvas.heightProperty().bind(plot.heightProperty());
+        canvas.widthProperty().addListener((obs, oldWidth, newWidth) -> dirty = true);
+        canvas.heightProperty().addListener((obs, oldHeight, newHeight) -> dirty = true);
+        VBox.setVgrow(plot, Priority.ALWAYS);
+        getChildren().addAll(toolbar, plot);
+
+        canvas.setOnScroll(this::onScroll);
+        canvas.setOnMousePressed(this::onMousePressed);
+        canvas.setOnMouseDragged(this::onMouseDragged);
+        showTriggerState();
+    }
+
+    //placa afisata; null goleste graficul
+    public void setDevice(DeviceMonitor device) {
+        if (this.device == device) {
+            return;
+        }
+        this.device = device;
+        history = device != null ? device.getHistory() : null;
+        live = true;
+        rearm();
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    public void showLive() {
+        modeBox.setValue(TriggerMode.FREE);
+        live = true;
+        dirty = true;
+    }
+
+    public void showAll() {
+        if (history == null) {
+            return;
+        }
+        modeBox.setValue(TriggerMode.FREE);
+        viewWidth = Math.max(MIN_WINDOW, history.getCount() - history.getOldestIndex());
+        live = true;
+        dirty = true;
+    }
+
+    //reporneste cautarea de la esantioanele noi si sterge captura afisata
+    public void rearm() {
+        armed = true;
+        pendingTrigger = -1;
+        captureReady = false;
+        scannedIndex = history != null ? history.getCount() : 0;
+        dirty = true;
+        showTriggerState();
+    }
+
+    //apelat o data pe cadru de pe firul FX
+    public void refresh() {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        plotWidth = width - LEFT_MARGIN;
+        plotHeight = height - BOTTOM_MARGIN;
+        if (plotWidth < 2 || plotHeight < 2) {
+            return;
+        }
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        if (history == null) {
+            if (dirty) {
+                clear(gc, 1.0);
+                drawGrid(gc, 0, viewWidth, false);
+                dirty = false;
+            }
+            return;
+        }
+
+        long count = history.getCount();
+        if (modeBox.getValue() == TriggerMode.FREE) {
+            if (!dirty && (!live || count == renderedCount)) {
+                return;
+            }
+            if (live) {
+                viewEnd = count;
+            }
+            long viewStart = viewEnd - viewWidth;
+            clear(gc, dirty ? 1.0 : persistenceBox.getValue().fade);
+            drawGrid(gc, viewStart, viewWidth, false);
+            drawThresholds(gc);
+            collect(history, viewStart, viewStart, viewWidth);
+            drawTrace(gc);
+            renderedCount = count;
+            dirty = false;
+            return;
+        }
+
+        updateTrigger(count);
+        if (!dirty && !newCapture) {
+            return;
+        }
+        clear(gc, dirty ? 1.0 : persistenceBox.getValue().fade);
+        drawGrid(gc, -capturePre, captureWindow, true);
+        drawThresholds(gc);
+        if (captureReady) {
+            //captura incepe mai tarziu daca istoricul nu avea destule esantioane inainte de declansare
+            long missing = captureWindow - captureLength;
+            collect(capture, captureFrom, captureFrom - missing, captureWindow);
+            drawTrace(gc);
+            double triggerX = LEFT_MARGIN + plotWidth * capturePre / captureWindow;
+            gc.setStroke(TRIGGER);
+            gc.strokeLine(triggerX, 0, triggerX, plotHeight);
+            double levelY = toY(captureLevel);
+            gc.strokeLine(LEFT_MARGIN, levelY, LEFT_MARGIN + plotWidth, levelY);
+        }
+        newCapture = false;
+        dirty = false;
+    }
+
+    //cauta trecerea peste pragul critic in esantioanele noi; captura se face cand exista si fereastra de dupa
+    private void updateTrigger(long count) {
+        if (!armed) {
+            return;
+        }
+        long pre = viewWidth * preTriggerBox.getValue() / 100;
+        long post = viewWidth - pre;
+        if (pendingTrigger < 0) {
+            double level = device.getThresholdConfig().getCriticalVoltage();
+            long found = history.findRisingCrossing(scannedIndex, count, level);
+            if (found < 0) {
+                scannedIndex = count;
+                return;
+            }
+            pendingTrigger = found;
+            captureLevel = level;
+            showTriggerState();
+        }
+        if (count < pendingTrigger + post) {
+            return;
+        }
+
+        long from = Math.max(history.getOldestIndex(), pendingTrigger - pre);
+        long to = pendingTrigger + post;
+        if (capture.capacity() < viewWidth) {
+            capture = new SampleHistory(Integer.highestOneBit((int) viewWidth - 1) << 1);
+        }
+        captureFrom = capture.getCount();
+        for (long i = from; i < to; i++) {
+            capture.append(history.get(i));
+        }
+        captureLength = to - from;
+        captureWindow = viewWidth;
+        capturePre = pre;
+        captureReady = true;
+        newCapture = true;
+        captures++;
+        //urmatoarea declansare doar dupa fereastra capturata
+        scannedIndex = to;
+        pendingTrigger = -1;
+        armed = modeBox.getValue() == TriggerMode.NORMAL;
+        showTriggerState();
+    }
+
+    private void showTriggerState() {
+        TriggerMode mode = modeBox.getValue();
+        if (mode == TriggerMode.FREE) {
+            triggerLabel.setText("");
+        } else if (pendingTrigger >= 0) {
+            triggerLabel.setText("Declansat, se asteapta post-declansarea");
+        } else if (armed) {
+            triggerLabel.setText("Armat" + (captures > 0 ? " (" + captures + " capturi)" : ""));
+        } else {
+            triggerLabel.setText("Oprit (" + captures + " capturi)");
+        }
+    }
+
+    //fade < 1 lasa cadrele precedente vizibile, estompate
+    private void clear(GraphicsContext gc, double fade) {
+        if (fade <= 0) {
+            return;
+        }
+        gc.setGlobalAlpha(fade);
+        gc.setFill(BACKGROUND);
+        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.setGlobalAlpha(1.0);
+    }
+
+    private void drawGrid(GraphicsContext gc, long start, long width, boolean relative) {
+        gc.setLineWidth(1);
+        gc.setStroke(GRID);
+        gc.setFill(TEXT);
+        for (int step = 0; step < VOLTAGE_LABELS.length; step++) {
+            double y = Math.round(toY(step * VOLTAGE_STEP)) + 0.5;
+            gc.strokeLine(LEFT_MARGIN, y, LEFT_MARGIN + plotWidth, y);
+            gc.fillText(VOLTAGE_LABELS[step], 4, y + 4);
+        }
+        for (int division = 0; division <= DIVISIONS; division++) {
+            double x = Math.round(LEFT_MARGIN + plotWidth * division / DIVISIONS) + 0.5;
+            gc.strokeLine(x, 0, x, plotHeight);
+            if (division < DIVISIONS) {
+                long index = start + width * division / DIVISIONS;
+                gc.fillText((relative && index > 0 ? "+" : "") + index, x + 2, plotHeight + 14);
+            }
+        }
+    }
+
+    private void drawThresholds(GraphicsContext gc) {
+        if (device == null) {
+            return;
+        }
+        ThresholdConfig config = device.getThresholdConfig();
+        double warningY = toY(config.getWarningVoltage());
+        gc.setStroke(Color.ORANGE);
+        gc.strokeLine(LEFT_MARGIN, warningY, LEFT_MARGIN + plotWidth, warningY);
+        double criticalY = toY(config.getCriticalVoltage());
+        gc.setStroke(Color.RED);
+        gc.strokeLine(LEFT_MARGIN, criticalY, LEFT_MARGIN + plotWidth, criticalY);
+    }
+
+    //min/max pe coloana de pixeli din [from, origin + span), x relativ la origin
+    private void collect(SampleHistory source, long from, long origin, long span) {
+        int columns = Math.max(1, (int) plotWidth);
+        int needed = columns * 2 + 2;
+        if (xs.length < needed) {
+            xs = new double[needed];
+            ys = new double[needed];
+        }
+        points = 0;
+        drawFrom = origin;
+        drawSpan = span;
+        source.decimate(from, origin + span, columns, this::addPoint);
+    }
+
+    private void addPoint(long index, double value) {
+        if (points < xs.length) {
+            xs[points] = LEFT_MARGIN + (index - drawFrom) / drawSpan * plotWidth;
+            ys[points] = toY(value);
+            points++;
+        }
+    }
+
+    private void drawTrace(GraphicsContext gc) {
+        if (points < 2) {
+            return;
+        }
+        gc.setStroke(TRACE);
+        gc.setLineWidth(1.2);
+        gc.strokePolyline(xs, ys, points);
+        gc.setLineWidth(1);
+    }
+
+    private double toY(double voltage) {
+        double clamped = Math.max(0, Math.min(MAX_VOLTAGE, voltage));
+        return plotHeight - clamped / MAX_VOLTAGE * plotHeight;
+    }
+
+    //in modurile cu declansare zoom-ul schimba latimea capturilor urmatoare
+    private void onScroll(ScrollEvent event) {
+        if (history == null || event.getDeltaY() == 0) {
+            return;
+        }
+        double factor = event.getDeltaY() > 0 ? 1 / ZOOM_FACTOR : ZOOM_FACTOR;
+        long maxWidth = Math.max(MIN_WINDOW, history.capacity());
+        long newWidth = Math.max(MIN_WINDOW, Math.min(maxWidth, Math.round(viewWidth * factor)));
+
+        if (!live && modeBox.getValue() == TriggerMode.FREE && plotWidth > 0) {
+            //pastram punctul de sub cursor pe loc
+            double position = Math.max(0, Math.min(1, (event.getX() - LEFT_MARGIN) / plotWidth));
+            double anchor = viewEnd - viewWidth + position * viewWidth;
+            viewEnd = Math.round(anchor + (1 - position) * newWidth);
+            viewWidth = newWidth;
+            clampView();
+        } else {
+            viewWidth = newWidth;
+        }
+        dirty = true;
+        event.consume();
+    }
+
+    private void onMousePressed(MouseEvent event) {
+        if (event.getButton() == MouseButton.PRIMARY) {
+            dragStartX = event.getX();
+            dragStartEnd = viewEnd;
+        }
+    }
+
+    private void onMouseDragged(MouseEvent event) {
+        if (history == null || event.getButton() != MouseButton.PRIMARY || plotWidth <= 0
+                || modeBox.getValue() != TriggerMode.FREE) {
+            return;
+        }
+        long shift = Math.round((event.getX() - dragStartX) / plotWidth * viewWidth);
+        viewEnd = dragStartEnd - shift;
+        live = false;
+        clampView();
+        dirty = true;
+    }
+
+    private void clampView() {
+        long count = history.getCount();
+        if (viewEnd >= count) {
+            viewEnd = count;
+            live = true;
+        }
+        long minEnd = history.getOldestIndex() + Math.min(viewWidth, count);
+        if (viewEnd < minEnd) {
+            viewEnd = minEnd;
+        }
+    }
+
+    //etichetele axei de tensiune se formateaza o singura data, nu la fiecare cadru
+    private static String[] voltageLabels() {
+        String[] labels = new String[(int) Math.round(MAX_VOLTAGE / VOLTAGE_STEP) + 1];
+        for (int step = 0; step < labels.length; step++) {
+            labels[step] = String.format("%.1f", step * VOLTAGE_STEP);
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,109 @@
+package app;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SerialIngestEngine {
+
+    public interface ChunkHandler {
+        void onChunk(byte[] buffer, int length, long arrivalNanos);
+    }
+
+    public interface StopHandler {
+        void onStop(Exception error);
+    }
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final ByteSource source;
+    private final ChunkHandler chunkHandler;
+    private final StopHandler stopHandler;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private Thread readerThread;
+
+    //statistici latenta (scrise doar de firul de citire)
+    private volatile long chunkCount;
+    private volatile long byteCount;
+    private volatile long totalLatencyNanos;
+    private volatile long maxLatencyNanos;
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+    public SerialIngestEngine(ByteSource source, ChunkHandler chunkHandler, StopHandler stopHandler) {
+        this.source = source;
+        this.chunkHandler = chunkHandler;
+        this.stopHandler = stopHandler;
+    }
+
+    public void start() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        readerThread = new Thread(this::readLoop, "ingest-" + source.getName());
+        readerThread.setDaemon(true);
+        readerThread.setPriority(Thread.MAX_PRIORITY);
+        readerThread.start();
+    }
+
+    //citirea blocata se deblocheaza cand sursa este inchisa
+    public void stop() {
+        running.set(false);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void readLoop() {
+        Exception error = null;
+        try {
+            while (running.get()) {
+                int numBytes = source.read(buffer, buffer.length);
+                long arrivalNanos = System.nanoTime();
+                if (numBytes < 0) {
+                    break;
+                }
+                if (numBytes == 0) {
+                    continue;
+                }
+
+                chunkHandler.onChunk(buffer, numBytes, arrivalNanos);
+
+                long latency = System.nanoTime() - arrivalNanos;
+                chunkCount++;
+                byteCount += numBytes;
+                totalLatencyNanos += latency;
+                if (latency > maxLatencyNanos) {
+                    maxLatencyNanos = latency;
+                }
+                latencyHistogram.record(latency);
+            }
+        } catch (Exception e) {
+            error = e;
+        } finally {
+            running.set(false);
+            stopHandler.onStop(error);
+        }
+    }
+
+    public long getChunkCount() {
+        return chunkCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public double getAverageLatencyMicros() {
+        long chunks = chunkCount;
+        return chunks == 0 ? 0.0 : totalLatencyNanos / (chunks * 1000.0);
+    }
+
+    public double getMaxLatencyMicros() {
+        return maxLatencyNanos / 1000.0;
+    }
+
+    //de la sosirea bucatii pana la terminarea parsarii si detectiei
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+}
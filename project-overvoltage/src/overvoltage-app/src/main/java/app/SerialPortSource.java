@@ -0,0 +1,183 @@
+package app;
+
+import com.fazecast.jSerialComm.SerialPort;
+
+import java.io.IOException;
+
+//port serial; la pierderea legaturii (cablu scos, placa resetata) firul de citire asteapta
+//ca ConnectionSupervisor sa redeschida portul, in loc sa opreasca monitorizarea
+public class SerialPortSource implements ByteSource {
+
+    private final String name;
+    private final int baudRate;
+    private final ConnectionSupervisor supervisor;
+    private final Object lock = new Object();
+    //null cat timp placa este deconectata
+    private volatile SerialPort port;
+    private volatile boolean closed;
+    private ConnectionListener connectionListener;
+
+    //supervisor null: fara reconectare, eroarea opreste citirea
+    public SerialPortSource(String name, int baudRate, ConnectionSupervisor supervisor) throws IOException {
+        this.name = name;
+        this.baudRate = baudRate;
+        this.supervisor = supervisor;
+        this.port = openPort(name, baudRate);
+    }
+
+    //deschidere fara enumerarea tuturor porturilor
+    static SerialPort openPort(String portName, int baudRate) throws IOException {
+        SerialPort port;
+        try {
+            port = SerialPort.getCommPort(portName);
+        } catch (RuntimeException e) {
+            throw new IOException("Portul " + portName + " nu este disponibil", e);
+        }
+        port.setComPortParameters(baudRate, 8, SerialPort.ONE_STOP_BIT, SerialPort.NO_PARITY);
+        //semi-blocking cu timeout 0: readBytes se intoarce imediat ce a sosit cel putin un octet
+        port.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 0, 0);
+        if (!port.openPort()) {
+            int errorCode = port.getLastErrorCode();
+            String errorMessage = "Nu s-a putut deschide portul " + portName + " (Cod eroare: " + errorCode
+                    + ", Location: " + port.getLastErrorLocation() + ")";
+            if (errorCode == 5) {
+                errorMessage += ". Portul este deja folosit de alt program.";
+            } else if (errorCode == 13) {
+                errorMessage += ". Nu aveti permisiune(incercati run as administrator).";
+            } else if (errorCode == 2) {
+                errorMessage += ". Portul nu exista (placa deconectata?).";
+            }
+            throw new IOException(errorMessage);
+        }
+        return port;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public int getBaudRate() {
+        return baudRate;
+    }
+
+    @Override
+    public void setConnectionListener(ConnectionListener connectionListener) {
+        this.connectionListener = connectionListener;
+    }
+
+    @Override
+    public int read(byte[] buffer, int length) throws IOException {
+        while (true) {
+            SerialPort current = port;
+            if (current == null) {
+                if (!awaitReopen()) {
+                    return -1;
+                }
+                continue;
+            }
+            int numBytes = current.readBytes(buffer, length);
+            if (numBytes >= 0 || closed) {
+                return numBytes;
+            }
+            IOException error = new IOException("Portul " + name + " nu mai raspunde (cod eroare: "
+                    + current.getLastErrorCode() + ")");
+            if (supervisor == null) {
+                throw error;
+            }
+            connectionLost(current, error);
+        }
+    }
+
+    private void connectionLost(SerialPort lost, IOException error) {
+        lost.closePort();
+        synchronized (lock) {
+            if (closed || port != lost) {
+                return;
+            }
+            port = null;
+        }
+        if (connectionListener != null) {
+            connectionListener.onConnectionLost(error);
+        }
+        supervisor.reopenLater(this);
+    }
+
+    //false daca sursa a fost inchisa in timpul asteptarii
+    private boolean awaitReopen() {
+        synchronized (lock) {
+            while (port == null && !closed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (closed) {
+                return false;
+            }
+        }
+        if (connectionListener != null) {
+            connectionListener.onConnectionResumed();
+        }
+        return true;
+    }
+
+    //apelat de ConnectionSupervisor; true daca nu mai trebuie reincercat (redeschis sau inchis intre timp)
+    boolean reopen() {
+        if (closed) {
+            return true;
+        }
+        SerialPort reopened;
+        try {
+            reopened = openPort(name, baudRate);
+        } catch (IOException e) {
+            return false;
+        }
+        synchronized (lock) {
+            if (closed) {
+                reopened.closePort();
+                return true;
+            }
+            port = reopened;
+            lock.notifyAll();
+        }
+        return true;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void write(byte[] data, int length) throws IOException {
+        SerialPort current = port;
+        if (closed) {
+            throw new IOException("Portul " + name + " nu este deschis");
+        }
+        if (current == null) {
+            throw new IOException("Portul " + name + " este deconectat, se asteapta reconectarea");
+        }
+        if (current.writeBytes(data, length) != length) {
+            throw new IOException("Scriere incompleta pe portul " + name);
+        }
+    }
+
+    //deschis si in timpul reconectarii, pana la close()
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public boolean close() {
+        SerialPort current;
+        synchronized (lock) {
+            closed = true;
+            current = port;
+            lock.notifyAll();
+        }
+        return current == null || current.closePort();
+    }
+}
@@ -0,0 +1,464 @@
+package app;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+//export din arhivele .ova: interval de timp, placi alese si decimare, in CSV sau fisier pe coloane
+//scriere prin FileChannel dintr-un buffer direct de 4 MB, numere formatate manual, memorie constanta
+//coloane: antet COLUMNAR_MAGIC + versiune | grupuri de randuri (timestamp-uri, tensiuni, flag-uri) |
+//subsol (nume placi, metadate pe grup) | lungime subsol (4) | COLUMNAR_MAGIC
+public class SessionExporter {
+
+    public enum Format {
+        CSV(".csv"),
+        COLUMNAR(".ovc");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public interface ProgressListener {
+        //apelat pe firul exportului
+        void onProgress(long exportedRows, long estimatedRows);
+    }
+
+    public static final long COLUMNAR_MAGIC = 0x4F56434F4C303031L; // "OVCOL001"
+    public static final int COLUMNAR_VERSION = 1;
+    public static final int ROW_GROUP_ROWS = 1 << 16;
+
+    private static final int BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_ROW_BYTES = 256;
+    private static final int PROGRESS_ROWS = 1 << 16;
+    //intervalele de decimare se cer arhivei in ferestre, ca tablourile pe interval sa ramana mici
+    private static final int DECIMATE_WINDOW_BUCKETS = 1 << 16;
+    private static final byte[] CSV_HEADER =
+            "device,timestamp_ns,voltage_v,flags\n".getBytes(StandardCharsets.US_ASCII);
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final long[] LONG_POWERS_OF_TEN = longPowersOfTen();
+    private static final byte[] DIGIT_PAIRS = digitPairs();
+    private static final byte[] LONG_MIN_DIGITS = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private final Path recordingDirectory;
+    private volatile boolean cancelled;
+
+    public SessionExporter(Path recordingDirectory) {
+        this.recordingDirectory = recordingDirectory;
+    }
+
+    //prefixul placii din numele arhivei (fara -<sesiune>.ova); null daca numele nu are forma asta
+    public static String deviceOf(Path archive) {
+        String fileName = archive.getFileName().toString();
+        int separator = fileName.lastIndexOf('-');
+        return separator > 0 ? fileName.substring(0, separator) : null;
+    }
+
+    //arhivele placii care pot fi citite; cele invalide sau neterminate sunt raportate de dialog si ignorate aici
+    private List<Path> readableArchives(String device) throws IOException {
+        List<Path> readable = new ArrayList<>();
+        for (Path archive : ArchiveReader.listArchives(recordingDirectory, device)) {
+            try {
+                ArchiveReader.readSummary(archive);
+                readable.add(archive);
+            } catch (IOException e) {
+                //ignorata
+            }
+        }
+        return readable;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    //bucketNanos 0: toate esantioanele; altfel min si max pe fiecare interval
+    //fisierul apare sub numele final doar daca exportul s-a terminat; CancellationException la anulare
+    public long export(List<String> devices, long fromNanos, long toNanos, long bucketNanos, Format format, Path target,
+                       ProgressListener progress) throws IOException {
+        if (fromNanos >= toNanos) {
+            throw new IllegalArgumentException("Interval de export gol");
+        }
+        if (bucketNanos < 0) {
+            throw new IllegalArgumentException("Interval de decimare negativ: " + bucketNanos);
+        }
+        cancelled = false;
+        List<ArchiveReader> readers = new ArrayList<>();
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            long estimated = 0;
+            for (String device : devices) {
+                ArchiveReader reader = new ArchiveReader(readableArchives(device));
+                readers.add(reader);
+                long count = reader.estimateCount(fromNanos, toNanos);
+                if (bucketNanos > 0) {
+                    count = Math.min(count, 2 * ((toNanos - fromNanos) / bucketNanos + 1));
+                }
+                estimated += count;
+            }
+
+            long rows;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                RowWriter writer = format == Format.CSV ? new CsvWriter(channel) : new ColumnarWriter(channel);
+                writer.begin();
+                long total = estimated;
+                for (int i = 0; i < devices.size(); i++) {
+                    writer.startDevice(devices.get(i));
+                    exportDevice(readers.get(i), fromNanos, toNanos, bucketNanos, writer, progress, total);
+                }
+                writer.finish();
+                rows = writer.rows;
+                channel.force(false);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (progress != null) {
+                progress.onProgress(rows, rows);
+            }
+            return rows;
+        } finally {
+            for (ArchiveReader reader : readers) {
+                reader.close();
+            }
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void exportDevice(ArchiveReader reader, long fromNanos, long toNanos, long bucketNanos, RowWriter writer,
+                              ProgressListener progress, long estimated) {
+        ArchiveReader.SampleSink sink = (timestampNanos, voltage, flags) -> {
+            writer.row(timestampNanos, voltage, flags);
+            if ((writer.rows & (PROGRESS_ROWS - 1)) == 0) {
+                if (cancelled) {
+                    throw new CancellationException("Export anulat");
+                }
+                if (progress != null) {
+                    progress.onProgress(writer.rows, Math.max(estimated, writer.rows));
+                }
+            }
+        };
+        if (bucketNanos == 0) {
+            reader.scan(fromNanos, toNanos, sink);
+            return;
+        }
+        //ferestre aliniate la intervalul de decimare, doar pe portiunea acoperita de arhive
+        //intervalele pornesc din fromNanos, ca placile cu inceput diferit sa aiba aceleasi limite
+        if (reader.getBlockCount() == 0) {
+            return;
+        }
+        long covered = Math.max(fromNanos, reader.getStartNanos());
+        long from = fromNanos + Math.floorDiv(covered - fromNanos, bucketNanos) * bucketNanos;
+        long to = Math.min(toNanos, reader.getEndNanos() + 1);
+        long windowNanos = bucketNanos * DECIMATE_WINDOW_BUCKETS;
+        for (long start = from; start < to; start += windowNanos) {
+            long end = to - start <= windowNanos ? to : start + windowNanos;
+            if (reader.estimateCount(start, end) == 0) {
+                continue;
+            }
+            int buckets = (int) ((end - start + bucketNanos - 1) / bucketNanos);
+            reader.decimate(start, start + buckets * bucketNanos, buckets, (timestampNanos, voltage, flags) -> {
+                if (timestampNanos < to) {
+                    sink.accept(timestampNanos, voltage, flags);
+                }
+            });
+        }
+    }
+
+    //destinatia randurilor; erorile de scriere ies ca UncheckedIOException din interiorul scanarii
+    private abstract static class RowWriter {
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long rows;
+
+        RowWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        abstract void begin();
+
+        abstract void startDevice(String device);
+
+        abstract void row(long timestampNanos, double voltage, int flags);
+
+        abstract void finish();
+
+        void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+
+        void drain() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+    //fiecare rand se formateaza intr-un tablou mic si se copiaza dintr-o data in bufferul direct
+    private static final class CsvWriter extends RowWriter {
+        private final byte[] line = new byte[MAX_ROW_BYTES];
+        private int prefixLength;
+
+        CsvWriter(FileChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        void begin() {
+            buffer.put(CSV_HEADER);
+        }
+
+        //numele placii si virgula raman la inceputul randului
+        @Override
+        void startDevice(String device) {
+            byte[] name = (device.indexOf(',') >= 0 || device.indexOf('"') >= 0
+                    ? '"' + device.replace("\"", "\"\"") + '"' : device).getBytes(StandardCharsets.UTF_8);
+            if (name.length > MAX_ROW_BYTES - 64) {
+                throw new IllegalArgumentException("Nume de placa prea lung: " + device);
+            }
+            System.arraycopy(name, 0, line, 0, name.length);
+            line[name.length] = ',';
+            prefixLength = name.length + 1;
+        }
+
+        @Override
+        void row(long timestampNanos, double voltage, int flags) {
+            int position = formatLong(line, prefixLength, timestampNanos);
+            line[position++] = ',';
+            position = formatFixed(line, position, voltage, 4);
+            line[position++] = ',';
+            position = formatLong(line, position, flags);
+            line[position++] = '\n';
+            ensure(position);
+            buffer.put(line, 0, position);
+            rows++;
+        }
+
+        @Override
+        void finish() {
+            drain();
+        }
+    }
+
+    //coloanele unui grup se tin in tablouri primitive si se scriu una dupa alta
+    private static final class ColumnarWriter extends RowWriter {
+        private static final int HEADER_SIZE = 16;
+        private static final int GROUP_META_SIZE = 48;
+
+        private final long[] timestamps = new long[ROW_GROUP_ROWS];
+        private final double[] voltages = new double[ROW_GROUP_ROWS];
+        private final byte[] flags = new byte[ROW_GROUP_ROWS];
+        private final List<String> devices = new ArrayList<>();
+        private ByteBuffer groups = ByteBuffer.allocate(GROUP_META_SIZE * 64);
+        private int groupCount;
+        private int groupRows;
+        private long offset = HEADER_SIZE;
+
+        ColumnarWriter(FileChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        void begin() {
+            buffer.putLong(COLUMNAR_MAGIC);
+            buffer.putInt(COLUMNAR_VERSION);
+            buffer.putInt(ROW_GROUP_ROWS);
+        }
+
+        @Override
+        void startDevice(String device) {
+            flushGroup();
+            devices.add(device);
+        }
+
+        @Override
+        void row(long timestampNanos, double voltage, int flag) {
+            timestamps[groupRows] = timestampNanos;
+            voltages[groupRows] = voltage;
+            flags[groupRows] = (byte) flag;
+            groupRows++;
+            rows++;
+            if (groupRows == ROW_GROUP_ROWS) {
+                flushGroup();
+            }
+        }
+
+        private void flushGroup() {
+            if (groupRows == 0) {
+                return;
+            }
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < groupRows; i++) {
+                ensure(8);
+                buffer.putLong(timestamps[i]);
+            }
+            for (int i = 0; i < groupRows; i++) {
+                ensure(8);
+                buffer.putDouble(voltages[i]);
+                min = Math.min(min, voltages[i]);
+                max = Math.max(max, voltages[i]);
+            }
+            for (int i = 0; i < groupRows; i += BUFFER_SIZE) {
+                int length = Math.min(BUFFER_SIZE, groupRows - i);
+                ensure(length);
+                buffer.put(flags, i, length);
+            }
+
+            if (groups.remaining() < GROUP_META_SIZE) {
+                ByteBuffer larger = ByteBuffer.allocate(groups.capacity() * 2);
+                groups.flip();
+                larger.put(groups);
+                groups = larger;
+            }
+            groups.putInt(devices.size() - 1);
+            groups.putInt(groupRows);
+            groups.putLong(offset);
+            groups.putLong(timestamps[0]);
+            groups.putLong(timestamps[groupRows - 1]);
+            groups.putDouble(min);
+            groups.putDouble(max);
+            offset += groupRows * 17L;
+            groupCount++;
+            groupRows = 0;
+        }
+
+        //subsol: numar placi, nume (lungime + UTF-8), numar grupuri, metadate grupuri
+        @Override
+        void finish() {
+            flushGroup();
+            int footerLength = 8 + groupCount * GROUP_META_SIZE;
+            List<byte[]> names = new ArrayList<>();
+            for (String device : devices) {
+                byte[] name = device.getBytes(StandardCharsets.UTF_8);
+                names.add(name);
+                footerLength += 2 + name.length;
+            }
+            ensure(4);
+            buffer.putInt(devices.size());
+            for (byte[] name : names) {
+                ensure(2 + name.length);
+                buffer.putShort((short) name.length);
+                buffer.put(name);
+            }
+            ensure(4);
+            buffer.putInt(groupCount);
+            groups.flip();
+            while (groups.hasRemaining()) {
+                ensure(GROUP_META_SIZE);
+                int limit = groups.limit();
+                groups.limit(Math.min(limit, groups.position() + buffer.remaining()));
+                buffer.put(groups);
+                groups.limit(limit);
+            }
+            ensure(12);
+            buffer.putInt(footerLength);
+            buffer.putLong(COLUMNAR_MAGIC);
+            drain();
+        }
+    }
+
+    //zecimal fara alocari, scris de la coada in perechi de cifre; intoarce pozitia de dupa numar
+    static int formatLong(byte[] out, int position, long value) {
+        if (value == Long.MIN_VALUE) {
+            for (byte digit : LONG_MIN_DIGITS) {
+                out[position++] = digit;
+            }
+            return position;
+        }
+        if (value < 0) {
+            out[position++] = '-';
+            value = -value;
+        }
+        int end = position + digitCount(value);
+        int at = end;
+        while (value >= 100) {
+            int pair = (int) (value % 100) * 2;
+            value /= 100;
+            out[--at] = DIGIT_PAIRS[pair + 1];
+            out[--at] = DIGIT_PAIRS[pair];
+        }
+        if (value >= 10) {
+            out[--at] = DIGIT_PAIRS[(int) value * 2 + 1];
+            out[--at] = DIGIT_PAIRS[(int) value * 2];
+        } else {
+            out[--at] = (byte) ('0' + value);
+        }
+        return end;
+    }
+
+    //numar cu exact `decimals` zecimale, rotunjit; valorile prea mari sau NaN trec prin Double.toString
+    static int formatFixed(byte[] out, int position, double value, int decimals) {
+        long scale = POWERS_OF_TEN[decimals];
+        if (Double.isNaN(value) || Math.abs(value) >= Long.MAX_VALUE / (double) scale) {
+            byte[] text = Double.toString(value).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(text, 0, out, position, text.length);
+            return position + text.length;
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            out[position++] = '-';
+        }
+        position = formatLong(out, position, scaled / scale);
+        if (decimals > 0) {
+            out[position++] = '.';
+            long fraction = scaled % scale;
+            for (int i = position + decimals - 1; i >= position; i--) {
+                out[i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            position += decimals;
+        }
+        return position;
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (digits < 19 && value >= LONG_POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static long[] longPowersOfTen() {
+        long[] powers = new long[19];
+        powers[0] = 1;
+        for (int i = 1; i < powers.length; i++) {
+            powers[i] = powers[i - 1] * 10;
+        }
+        return powers;
+    }
+
+    private static byte[] digitPairs() {
+        byte[] pairs = new byte[200];
+        for (int i = 0; i < 100; i++) {
+            pairs[i * 2] = (byte) ('0' + i / 10);
+            pairs[i * 2 + 1] = (byte) ('0' + i % 10);
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,67 @@
+package app;
+
+import javafx.geometry.HPos;
+import javafx.scene.control.Label;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+
+//statisticile glisante ale placii selectate: 1 s, 1 min, 1 h
+public class StatsPanel extends GridPane {
+
+    private static final String[] COLUMNS = {"", "min", "max", "medie", "sigma", "RMS", "peste prag"};
+    private static final String[] ROWS = {"1 s", "1 min", "1 h"};
+
+    private final Label[][] cells = new Label[ROWS.length][COLUMNS.length - 1];
+    private final RollingStats.Window[] shown = new RollingStats.Window[ROWS.length];
+
+    public StatsPanel() {
+        setHgap(12);
+        setVgap(2);
+        for (int column = 0; column < COLUMNS.length; column++) {
+            add(new Label(COLUMNS[column]), column, 0);
+            ColumnConstraints constraints = new ColumnConstraints();
+            constraints.setHalignment(column == 0 ? HPos.LEFT : HPos.RIGHT);
+            getColumnConstraints().add(constraints);
+        }
+        for (int row = 0; row < ROWS.length; row++) {
+            add(new Label(ROWS[row]), 0, row + 1);
+            for (int column = 0; column < cells[row].length; column++) {
+                cells[row][column] = new Label("-");
+                add(cells[row][column], column + 1, row + 1);
+            }
+        }
+    }
+
+    //apelat o data pe cadru; etichetele se schimba doar cand se publica o fereastra noua (10 Hz)
+    public void update(RollingStats stats) {
+        if (stats == null) {
+            for (int row = 0; row < ROWS.length; row++) {
+                show(row, RollingStats.Window.EMPTY);
+            }
+            return;
+        }
+        show(0, stats.getSecond());
+        show(1, stats.getMinute());
+        show(2, stats.getHour());
+    }
+
+    private void show(int row, RollingStats.Window window) {
+        if (shown[row] == window) {
+            return;
+        }
+        shown[row] = window;
+        Label[] labels = cells[row];
+        if (window.getCount() == 0) {
+            for (Label label : labels) {
+                label.setText("-");
+            }
+            return;
+        }
+        labels[0].setText(String.format("%.3f V", window.getMin()));
+        labels[1].setText(String.format("%.3f V", window.getMax()));
+        labels[2].setText(String.format("%.3f V", window.getMean()));
+        labels[3].setText(String.format("%.3f V", window.getStdDev()));
+        labels[4].setText(String.format("%.3f V", window.getRms()));
+        labels[5].setText(String.format("%.1f s", window.getTimeAboveSeconds()));
+    }
+}
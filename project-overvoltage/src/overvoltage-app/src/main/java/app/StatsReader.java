@@ -0,0 +1,114 @@
+package app;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+//citirea rezumatelor pe secunde (.ovs) scrise de SampleRecorder, pentru tendinte fara esantioanele brute
+public class StatsReader implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(SampleRecorder.STATS_RECORD_SIZE);
+    private final int deviceId;
+
+    //inregistrarea curenta, valabila dupa next()
+    private long endEpochNanos;
+    private long count;
+    private double min;
+    private double max;
+    private double mean;
+    private double stdDev;
+    private double rms;
+    private double timeAboveSeconds;
+
+    public StatsReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(SampleRecorder.HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header) < 0) {
+                break;
+            }
+        }
+        if (header.hasRemaining() || header.getLong(0) != SampleRecorder.STATS_MAGIC
+                || header.getInt(8) != SampleRecorder.STATS_RECORD_SIZE) {
+            channel.close();
+            throw new IOException("Fisier de statistici invalid: " + path);
+        }
+        deviceId = header.getInt(12);
+    }
+
+    public static List<Path> listStatsFiles(Path directory, String devicePrefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String fileName = path.getFileName().toString();
+                return fileName.endsWith(SampleRecorder.STATS_EXTENSION)
+                        && (devicePrefix == null || fileName.startsWith(devicePrefix + "-"));
+            }).sorted().toList();
+        }
+    }
+
+    //o inregistrare incompleta la sfarsit (scriere intrerupta) este ignorata
+    public boolean next() throws IOException {
+        record.clear();
+        while (record.hasRemaining()) {
+            if (channel.read(record) < 0) {
+                return false;
+            }
+        }
+        endEpochNanos = record.getLong(0);
+        count = record.getLong(8);
+        min = record.getDouble(16);
+        max = record.getDouble(24);
+        mean = record.getDouble(32);
+        stdDev = record.getDouble(40);
+        rms = record.getDouble(48);
+        timeAboveSeconds = record.getDouble(56);
+        return true;
+    }
+
+    public int getDeviceId() {
+        return deviceId;
+    }
+
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStdDev() {
+        return stdDev;
+    }
+
+    public double getRms() {
+        return rms;
+    }
+
+    public double getTimeAboveSeconds() {
+        return timeAboveSeconds;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
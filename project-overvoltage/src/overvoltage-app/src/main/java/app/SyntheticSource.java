@@ -0,0 +1,58 @@
+package app;
+
+import java.util.SplittableRandom;
+
+//generator de test: rampa lenta, zgomot gaussian si varfuri periodice peste prag
+public class SyntheticSource extends ReplaySource {
+
+    private static final double RAMP_LOW = 2.5;
+    private static final double RAMP_HIGH = 3.8;
+    private static final double RAMP_PERIOD_SECONDS = 20.0;
+    private static final double NOISE_SIGMA = 0.05;
+    private static final double SPIKE_PERIOD_SECONDS = 5.0;
+    private static final int SPIKE_SAMPLES = 5;
+    private static final double SPIKE_VOLTAGE = 4.6;
+    private static final double MAX_VOLTAGE = 5.5;
+
+    private final long periodNanos;
+    private final long sampleLimit;
+    private final long spikeEvery;
+    private final SplittableRandom random;
+    private long index;
+
+    //sampleLimit <= 0 genereaza la nesfarsit
+    public SyntheticSource(String name, int sampleRateHz, long sampleLimit, double speed, Encoding encoding,
+                           long seed) {
+        super(name, speed, encoding);
+        this.periodNanos = 1_000_000_000L / sampleRateHz;
+        this.sampleLimit = sampleLimit;
+        this.spikeEvery = Math.max(SPIKE_SAMPLES * 2L, Math.round(SPIKE_PERIOD_SECONDS * sampleRateHz));
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    protected boolean nextSample() {
+        if (sampleLimit > 0 && index >= sampleLimit) {
+            return false;
+        }
+        long i = index++;
+        sampleNanos = i * periodNanos;
+
+        double seconds = sampleNanos / 1e9;
+        double phase = (seconds % RAMP_PERIOD_SECONDS) / RAMP_PERIOD_SECONDS;
+        double triangle = phase < 0.5 ? phase * 2 : 2 - phase * 2;
+        double voltage = RAMP_LOW + (RAMP_HIGH - RAMP_LOW) * triangle + gaussian() * NOISE_SIGMA;
+        if (i % spikeEvery >= spikeEvery - SPIKE_SAMPLES) {
+            voltage = SPIKE_VOLTAGE + random.nextDouble() * 0.4;
+        }
+        sampleVoltage = Math.max(0, Math.min(MAX_VOLTAGE, voltage));
+        return true;
+    }
+
+    //Box-Muller, fara alocari
+    private double gaussian() {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+}
@@ -0,0 +1,65 @@
+package app;
+
+//praguri de detectie, imutabile; schimbarea la rulare inlocuieste tot obiectul
+public final class ThresholdConfig {
+
+    public static final double DEFAULT_CRITICAL = 4.0;
+    public static final double DEFAULT_WARNING = 3.8;
+    public static final double DEFAULT_HYSTERESIS = 0.05;
+
+    private final double warningVoltage;
+    private final double criticalVoltage;
+    private final double hysteresis;
+    private final long debounceNanos;
+    private final double maxRate;
+
+    //maxRate in V/s, 0 dezactiveaza regula dV/dt; debounce 0 = fara intarziere
+    public ThresholdConfig(double warningVoltage, double criticalVoltage, double hysteresis, long debounceMillis,
+                           double maxRate) {
+        if (!(warningVoltage <= criticalVoltage)) {
+            throw new IllegalArgumentException("Pragul de avertizare trebuie sa fie cel mult pragul critic");
+        }
+        if (!(hysteresis >= 0) || debounceMillis < 0 || !(maxRate >= 0)) {
+            throw new IllegalArgumentException("Histerezis, debounce si dV/dt nu pot fi negative");
+        }
+        this.warningVoltage = warningVoltage;
+        this.criticalVoltage = criticalVoltage;
+        this.hysteresis = hysteresis;
+        this.debounceNanos = debounceMillis * 1_000_000L;
+        this.maxRate = maxRate;
+    }
+
+    public static ThresholdConfig defaults() {
+        return new ThresholdConfig(DEFAULT_WARNING, DEFAULT_CRITICAL, DEFAULT_HYSTERESIS, 0, 0);
+    }
+
+    public double getWarningVoltage() {
+        return warningVoltage;
+    }
+
+    public double getCriticalVoltage() {
+        return criticalVoltage;
+    }
+
+    public double getHysteresis() {
+        return hysteresis;
+    }
+
+    public long getDebounceMillis() {
+        return debounceNanos / 1_000_000L;
+    }
+
+    public long getDebounceNanos() {
+        return debounceNanos;
+    }
+
+    public double getMaxRate() {
+        return maxRate;
+    }
+
+    @Override
+    public String toString() {
+        return "avertizare " + warningVoltage + " V, critic " + criticalVoltage + " V, histerezis " + hysteresis
+                + " V, debounce " + getDebounceMillis() + " ms, dV/dt " + (maxRate > 0 ? maxRate + " V/s" : "oprit");
+    }
+}
@@ -0,0 +1,158 @@
+package app;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//detectie pe firul de citire, pentru fiecare esantion: niveluri cu histerezis, debounce si dV/dt
+//cost constant per esantion; evenimentele se aloca doar la schimbari
+public class ThresholdEngine {
+
+    public enum Level {
+        NORMAL,
+        WARNING,
+        CRITICAL
+    }
+
+    public interface Listener {
+        //apelat pe firul de citire: fara operatii blocante
+        void onThresholdEvent(ThresholdEvent event);
+    }
+
+    //timpii vin pe bucati de date, asa ca panta se masoara pe cel putin 10 ms
+    private static final long RATE_WINDOW_NANOS = 10_000_000L;
+
+    private final String source;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile ThresholdConfig config;
+    private volatile Level level = Level.NORMAL;
+    private volatile double lastRate;
+
+    //stare folosita doar de firul de citire
+    private Level candidate = Level.NORMAL;
+    private long candidateSinceNanos;
+    private boolean rateAnchored;
+    private double anchorVoltage;
+    private long anchorNanos;
+    private boolean rateExceeded;
+
+    public ThresholdEngine(String source, ThresholdConfig config) {
+        this.source = source;
+        this.config = config;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public ThresholdConfig getConfig() {
+        return config;
+    }
+
+    //se aplica de la urmatorul esantion, de pe orice fir
+    public void setConfig(ThresholdConfig config) {
+        this.config = config;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public double getLastRate() {
+        return lastRate;
+    }
+
+    //inainte de pornirea firului de citire
+    public void reset() {
+        level = Level.NORMAL;
+        candidate = Level.NORMAL;
+        rateAnchored = false;
+        rateExceeded = false;
+        lastRate = 0;
+    }
+
+    public Level evaluate(double voltage, long arrivalNanos) {
+        ThresholdConfig current = config;
+        Level previous = level;
+        Level target = classify(current, previous, voltage);
+
+        if (target == previous) {
+            candidate = previous;
+        } else {
+            if (target != candidate) {
+                candidate = target;
+                candidateSinceNanos = arrivalNanos;
+            }
+            //nivelul nou trebuie sa se mentina cel putin durata de debounce
+            if (arrivalNanos - candidateSinceNanos >= current.getDebounceNanos()) {
+                level = target;
+                publish(typeOf(target), previous, target, voltage, 0, arrivalNanos);
+                previous = target;
+            }
+        }
+
+        if (current.getMaxRate() > 0) {
+            evaluateRate(current, previous, voltage, arrivalNanos);
+        }
+        return previous;
+    }
+
+    //coborarea dintr-un nivel cere scaderea sub prag minus histerezis
+    private static Level classify(ThresholdConfig config, Level current, double voltage) {
+        double critical = config.getCriticalVoltage();
+        double warning = config.getWarningVoltage();
+        double hysteresis = config.getHysteresis();
+        if (voltage > critical || (current == Level.CRITICAL && voltage > critical - hysteresis)) {
+            return Level.CRITICAL;
+        }
+        if (voltage > warning || (current != Level.NORMAL && voltage > warning - hysteresis)) {
+            return Level.WARNING;
+        }
+        return Level.NORMAL;
+    }
+
+    private void evaluateRate(ThresholdConfig config, Level current, double voltage, long arrivalNanos) {
+        if (!rateAnchored) {
+            rateAnchored = true;
+            anchorVoltage = voltage;
+            anchorNanos = arrivalNanos;
+            return;
+        }
+        long elapsed = arrivalNanos - anchorNanos;
+        if (elapsed < RATE_WINDOW_NANOS) {
+            return;
+        }
+        double rate = (voltage - anchorVoltage) * 1e9 / elapsed;
+        anchorVoltage = voltage;
+        anchorNanos = arrivalNanos;
+        lastRate = rate;
+
+        //un eveniment pe depasire, rearmat cand panta revine sub limita
+        boolean exceeded = Math.abs(rate) > config.getMaxRate();
+        if (exceeded && !rateExceeded) {
+            publish(ThresholdEvent.Type.RATE_OF_CHANGE, current, current, voltage, rate, arrivalNanos);
+        }
+        rateExceeded = exceeded;
+    }
+
+    private static ThresholdEvent.Type typeOf(Level level) {
+        return switch (level) {
+            case CRITICAL -> ThresholdEvent.Type.CRITICAL;
+            case WARNING -> ThresholdEvent.Type.WARNING;
+            case NORMAL -> ThresholdEvent.Type.RECOVERED;
+        };
+    }
+
+    private void publish(ThresholdEvent.Type type, Level previous, Level next, double voltage, double rate,
+                         long arrivalNanos) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        ThresholdEvent event = new ThresholdEvent(source, type, previous, next, voltage, rate, arrivalNanos);
+        for (Listener listener : listeners) {
+            listener.onThresholdEvent(event);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package app;
+
+//eveniment emis de ThresholdEngine la schimbarea nivelului sau la o variatie prea rapida
+public final class ThresholdEvent {
+
+    public enum Type {
+        WARNING,
+        CRITICAL,
+        RECOVERED,
+        RATE_OF_CHANGE
+    }
+
+    private final String source;
+    private final Type type;
+    private final ThresholdEngine.Level previousLevel;
+    private final ThresholdEngine.Level level;
+    private final double voltage;
+    private final double rate;
+    private final long arrivalNanos;
+    private final long timeMillis;
+
+    ThresholdEvent(String source, Type type, ThresholdEngine.Level previousLevel, ThresholdEngine.Level level,
+                   double voltage, double rate, long arrivalNanos) {
+        this.source = source;
+        this.type = type;
+        this.previousLevel = previousLevel;
+        this.level = level;
+        this.voltage = voltage;
+        this.rate = rate;
+        this.arrivalNanos = arrivalNanos;
+        this.timeMillis = System.currentTimeMillis();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public ThresholdEngine.Level getPreviousLevel() {
+        return previousLevel;
+    }
+
+    public ThresholdEngine.Level getLevel() {
+        return level;
+    }
+
+    public double getVoltage() {
+        return voltage;
+    }
+
+    //V/s, doar pentru RATE_OF_CHANGE
+    public double getRate() {
+        return rate;
+    }
+
+    //System.nanoTime() la sosirea bucatii de date
+    public long getArrivalNanos() {
+        return arrivalNanos;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public String describe() {
+        return switch (type) {
+            case CRITICAL -> String.format("Supraalimentare! Tensiunea %.2f V a depasit pragul critic.", voltage);
+            case WARNING -> previousLevel == ThresholdEngine.Level.CRITICAL
+                    ? String.format("Tensiunea a coborat sub pragul critic (%.2f V), ramane peste avertizare.", voltage)
+                    : String.format("Avertizare: tensiunea %.2f V a depasit pragul de avertizare.", voltage);
+            case RECOVERED -> String.format("Tensiune revenita la normal (%.2f V).", voltage);
+            case RATE_OF_CHANGE -> String.format("Variatie rapida a tensiunii: %.1f V/s (%.2f V).", rate, voltage);
+        };
+    }
+}
@@ -0,0 +1,301 @@
+package app;
+
+import java.nio.charset.StandardCharsets;
+
+public class VoltageFrameParser {
+
+    public interface Listener {
+        void onSample(double voltage);
+
+        default void onLine(byte[] line, int length) {
+        }
+
+        default void onParseError(byte[] line, int length) {
+        }
+
+        default void onBinaryModeChanged(boolean binary) {
+        }
+
+        //raspuns la o comanda CommandChannel ("@<id> OK|ERR [detaliu]" sau cadru ACK binar)
+        default void onCommandResponse(int id, boolean ok, String detail) {
+        }
+    }
+
+    private static final byte[] HEADER = "Tensiunea de pe pin:".getBytes(StandardCharsets.US_ASCII);
+    //confirmarea trimisa de Arduino inainte de primul cadru binar
+    private static final byte[] BINARY_ACK = "MOD BINAR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte RESPONSE_PREFIX = '@';
+    private static final double MIN_VOLTAGE = 0.0;
+    private static final double MAX_VOLTAGE = 5.5;
+    private static final int MAX_LINE_LENGTH = 256;
+    //peste 15 cifre mantisa nu mai este exacta in double
+    private static final int MAX_DIGITS = 15;
+    private static final double[] POW10 = new double[MAX_DIGITS + 1];
+
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10.0;
+        }
+    }
+
+    //stari numar pe linie
+    private static final int NUM_LEADING = 0;
+    private static final int NUM_DIGITS = 1;
+    private static final int NUM_TRAILING = 2;
+    private static final int NUM_INVALID = 3;
+
+    private final Listener listener;
+    private final byte[] lineBuffer = new byte[MAX_LINE_LENGTH];
+    private final BinaryFrameDecoder binaryDecoder;
+    private boolean rawMode;
+    private boolean binaryMode;
+
+    //linia curenta
+    private int lineLength;
+    private int headerMatched;
+    private boolean headerFound;
+    private int numberState;
+    private boolean readingVoltage;
+
+    //numarul curent (linie sau token brut)
+    private long mantissa;
+    private int digits;
+    private int fractionDigits;
+    private boolean seenDot;
+    private boolean endsWithDot;
+    private boolean tokenInvalid;
+
+    public VoltageFrameParser(Listener listener) {
+        this.listener = listener;
+        this.binaryDecoder = new BinaryFrameDecoder(listener);
+    }
+
+    public BinaryFrameDecoder getBinaryDecoder() {
+        return binaryDecoder;
+    }
+
+    public boolean isBinaryMode() {
+        return binaryMode;
+    }
+
+    public void setBinaryMode(boolean binaryMode) {
+        if (this.binaryMode != binaryMode) {
+            this.binaryMode = binaryMode;
+            reset();
+            listener.onBinaryModeChanged(binaryMode);
+        }
+    }
+
+    public boolean isRawMode() {
+        return rawMode;
+    }
+
+    public void setRawMode(boolean rawMode) {
+        this.rawMode = rawMode;
+        reset();
+    }
+
+    public void reset() {
+        binaryDecoder.reset();
+        readingVoltage = false;
+        resetLine();
+        resetNumber();
+    }
+
+    public void feed(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (binaryMode) {
+                binaryDecoder.accept(buffer[i]);
+            } else if (rawMode) {
+                acceptRaw(buffer[i]);
+            } else {
+                acceptLine(buffer[i]);
+            }
+        }
+    }
+
+    //mod brut: orice token [0-9.] in intervalul valid este o tensiune
+    private void acceptRaw(byte b) {
+        if ((b >= '0' && b <= '9') || b == '.') {
+            acceptNumberByte(b);
+            return;
+        }
+        if (digits > 0 && !tokenInvalid && !endsWithDot) {
+            double value = currentValue();
+            if (value >= MIN_VOLTAGE && value <= MAX_VOLTAGE) {
+                listener.onSample(value);
+            }
+        }
+        resetNumber();
+    }
+
+    //mod Arduino: "Tensiunea de pe pin:" urmat de valoare sau linii numerice simple
+    private void acceptLine(byte b) {
+        if (b == '\n') {
+            endLine();
+            return;
+        }
+        if (lineLength < MAX_LINE_LENGTH) {
+            lineBuffer[lineLength] = b;
+        }
+        lineLength++;
+
+        if (!headerFound) {
+            if (b == HEADER[headerMatched]) {
+                if (++headerMatched == HEADER.length) {
+                    headerFound = true;
+                }
+            } else {
+                headerMatched = b == HEADER[0] ? 1 : 0;
+            }
+        }
+
+        if (numberState == NUM_INVALID) {
+            return;
+        }
+        if (b <= ' ') {
+            if (numberState == NUM_DIGITS) {
+                numberState = NUM_TRAILING;
+            }
+        } else if (numberState == NUM_TRAILING) {
+            numberState = NUM_INVALID;
+        } else if ((b >= '0' && b <= '9') || b == '.') {
+            numberState = NUM_DIGITS;
+            acceptNumberByte(b);
+            if (tokenInvalid) {
+                numberState = NUM_INVALID;
+            }
+        } else {
+            numberState = NUM_INVALID;
+        }
+    }
+
+    private void endLine() {
+        int length = Math.min(lineLength, MAX_LINE_LENGTH);
+        listener.onLine(lineBuffer, length);
+
+        if (lineEquals(BINARY_ACK, length)) {
+            resetLine();
+            resetNumber();
+            setBinaryMode(true);
+            return;
+        }
+        if (length > 0 && lineBuffer[0] == RESPONSE_PREFIX) {
+            //raspunsurile nu intrerup o valoare asteptata dupa antet
+            parseResponse(length);
+            resetLine();
+            resetNumber();
+            return;
+        }
+
+        boolean numeric = numberState != NUM_INVALID && digits > 0;
+        if (readingVoltage) {
+            if (numeric) {
+                readingVoltage = false;
+                listener.onSample(currentValue());
+            } else if (numberState != NUM_LEADING) {
+                listener.onParseError(lineBuffer, length);
+            }
+        } else if (headerFound) {
+            readingVoltage = true;
+        } else if (numeric && !endsWithDot) {
+            double value = currentValue();
+            if (value >= MIN_VOLTAGE && value <= MAX_VOLTAGE) {
+                listener.onSample(value);
+            }
+        }
+        resetLine();
+        resetNumber();
+    }
+
+    //"@<id> OK [detaliu]" / "@<id> ERR [motiv]"; liniile malformate sunt ignorate ca orice text
+    private void parseResponse(int length) {
+        int pos = 1;
+        int id = 0;
+        int idDigits = 0;
+        while (pos < length && lineBuffer[pos] >= '0' && lineBuffer[pos] <= '9' && idDigits < 3) {
+            id = id * 10 + (lineBuffer[pos] - '0');
+            idDigits++;
+            pos++;
+        }
+        if (idDigits == 0 || pos >= length || lineBuffer[pos] != ' ') {
+            return;
+        }
+        String rest = new String(lineBuffer, pos + 1, length - pos - 1, StandardCharsets.US_ASCII).trim();
+        boolean ok;
+        String detail;
+        if (rest.startsWith("OK")) {
+            ok = true;
+            detail = rest.substring(2).trim();
+        } else if (rest.startsWith("ERR")) {
+            ok = false;
+            detail = rest.substring(3).trim();
+        } else {
+            return;
+        }
+        listener.onCommandResponse(id, ok, detail);
+    }
+
+    private boolean lineEquals(byte[] text, int length) {
+        int start = 0;
+        while (start < length && lineBuffer[start] <= ' ') {
+            start++;
+        }
+        int end = length;
+        while (end > start && lineBuffer[end - 1] <= ' ') {
+            end--;
+        }
+        if (end - start != text.length) {
+            return false;
+        }
+        for (int i = 0; i < text.length; i++) {
+            if (lineBuffer[start + i] != text[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void acceptNumberByte(byte b) {
+        if (b == '.') {
+            if (seenDot) {
+                tokenInvalid = true;
+            }
+            seenDot = true;
+            endsWithDot = true;
+            return;
+        }
+        endsWithDot = false;
+        if (digits < MAX_DIGITS) {
+            mantissa = mantissa * 10 + (b - '0');
+            digits++;
+            if (seenDot) {
+                fractionDigits++;
+            }
+        } else if (!seenDot) {
+            tokenInvalid = true;
+        }
+    }
+
+    private double currentValue() {
+        return mantissa / POW10[fractionDigits];
+    }
+
+    private void resetLine() {
+        lineLength = 0;
+        headerMatched = 0;
+        headerFound = false;
+        numberState = NUM_LEADING;
+    }
+
+    private void resetNumber() {
+        mantissa = 0;
+        digits = 0;
+        fractionDigits = 0;
+        seenDot = false;
+        endsWithDot = false;
+        tokenInvalid = false;
+    }
+}
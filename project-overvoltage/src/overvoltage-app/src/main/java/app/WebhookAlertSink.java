@@ -0,0 +1,75 @@
+package app;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+//POST JSON catre un URL configurat (de ex. un serviciu local care trimite mai departe)
+public class WebhookAlertSink implements AlertDispatcher.Sink {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+
+    private final URI uri;
+    //creat la prima livrare, pe firul destinatiei, ca pornirea sa nu astepte dupa el
+    private HttpClient client;
+
+    public WebhookAlertSink(String url) {
+        uri = URI.create(url);
+        if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme())) {
+            throw new IllegalArgumentException("URL webhook invalid: " + url);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "webhook " + uri;
+    }
+
+    @Override
+    public void deliver(AlertDispatcher.Notice notice) throws IOException, InterruptedException {
+        String body = "{\"severity\":\"" + notice.getSeverity()
+                + "\",\"source\":" + (notice.getSource() != null ? quote(notice.getSource()) : "null")
+                + ",\"title\":" + quote(notice.getTitle())
+                + ",\"message\":" + quote(notice.getMessage())
+                + ",\"repeats\":" + notice.getRepeats()
+                + ",\"count\":" + notice.getCount()
+                + ",\"timeMillis\":" + notice.getLastMillis() + "}";
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        if (client == null) {
+            client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+        }
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 300) {
+            throw new IOException("Raspuns HTTP " + response.statusCode());
+        }
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
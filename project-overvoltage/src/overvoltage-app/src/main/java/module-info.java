@@ -1,7 +1,10 @@
 module ace.overvoltageapp {
     requires javafx.controls;
-    requires javafx.fxml;
     requires com.fazecast.jSerialComm;
+    requires jdk.httpserver;
+    requires java.management;
+    requires java.desktop;
+    requires java.net.http;
 
     exports app;
-}
\ No newline at end of file
+}
@@ -0,0 +1,177 @@
+package app;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertDispatcherTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    //ceasul dispecerului, avansat doar de test (pornit de la 0, ca originea lui System.nanoTime sa nu conteze)
+    private volatile long now;
+    private final AlertDispatcher dispatcher = new AlertDispatcher((source, level, message) -> {
+    }, () -> now);
+    private final RecordingSink sink = new RecordingSink("test");
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private static final class RecordingSink implements AlertDispatcher.Sink {
+        final String name;
+        final LinkedBlockingQueue<AlertDispatcher.Notice> delivered = new LinkedBlockingQueue<>();
+
+        RecordingSink(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void deliver(AlertDispatcher.Notice notice) {
+            delivered.add(notice);
+        }
+
+        //livrarile ajung pe firul destinatiei
+        List<AlertDispatcher.Notice> await(int count) throws InterruptedException {
+            List<AlertDispatcher.Notice> notices = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                AlertDispatcher.Notice notice = delivered.poll(5, TimeUnit.SECONDS);
+                assertNotNull(notice, "livrarea " + (i + 1) + " din " + count + " lipseste");
+                notices.add(notice);
+            }
+            return notices;
+        }
+
+        //nimic in plus fata de ce s-a asteptat deja
+        void assertQuiet() throws InterruptedException {
+            assertNull(delivered.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @AfterEach
+    void close() {
+        release.countDown();
+        dispatcher.close();
+    }
+
+    private void raise(String category, AlertDispatcher.Severity severity, String message) {
+        dispatcher.raise("COM1", category, severity, "Titlu", message);
+    }
+
+    @Test
+    void identicalEventsAreDeduplicated() throws Exception {
+        dispatcher.addSink(sink, AlertDispatcher.Severity.INFO);
+        for (int i = 1; i <= 5; i++) {
+            raise("prag", AlertDispatcher.Severity.WARNING, "aparitia " + i);
+        }
+        assertEquals(1, sink.await(1).get(0).getRepeats());
+        sink.assertQuiet();
+        assertEquals(4, dispatcher.getSuppressedTotal());
+
+        //in fereastra de grupare nu pleaca nimic, dupa ea pleaca restul agregat
+        now += AlertDispatcher.DEDUP_NANOS - 1;
+        dispatcher.flushPending();
+        sink.assertQuiet();
+        now += 1;
+        dispatcher.flushPending();
+        AlertDispatcher.Notice aggregated = sink.await(1).get(0);
+        assertEquals(4, aggregated.getRepeats());
+        assertEquals(5, aggregated.getCount());
+        assertEquals("aparitia 5", aggregated.getMessage());
+    }
+
+    @Test
+    void escalationBypassesGrouping() throws Exception {
+        dispatcher.addSink(sink, AlertDispatcher.Severity.INFO);
+        raise("prag", AlertDispatcher.Severity.WARNING, "avertizare");
+        raise("prag", AlertDispatcher.Severity.CRITICAL, "critic");
+        List<AlertDispatcher.Notice> notices = sink.await(2);
+        assertEquals(AlertDispatcher.Severity.CRITICAL, notices.get(1).getSeverity());
+    }
+
+    @Test
+    void burstIsCutAfterLimitAndRefilled() throws Exception {
+        dispatcher.addSink(sink, AlertDispatcher.Severity.INFO);
+        for (int i = 0; i < 15; i++) {
+            raise("categoria" + i, AlertDispatcher.Severity.WARNING, "rafala");
+        }
+        sink.await(AlertDispatcher.RATE_BURST);
+        sink.assertQuiet();
+        assertEquals(15 - AlertDispatcher.RATE_BURST, dispatcher.getSuppressedTotal());
+
+        //un jeton pe secunda
+        now += 3 * AlertDispatcher.RATE_REFILL_NANOS;
+        dispatcher.flushPending();
+        sink.await(3);
+        sink.assertQuiet();
+
+        now += 10 * SECOND;
+        dispatcher.flushPending();
+        sink.await(2);
+        sink.assertQuiet();
+    }
+
+    @Test
+    void aggregatedCountsReachPanelModel() {
+        long version = dispatcher.getVersion();
+        for (int i = 0; i < 3; i++) {
+            raise("prag", AlertDispatcher.Severity.WARNING, "aparitia " + i);
+        }
+        raise("dvdt", AlertDispatcher.Severity.WARNING, "variatie");
+        assertTrue(dispatcher.getVersion() > version);
+
+        List<AlertDispatcher.Notice> notices = dispatcher.getNotices();
+        assertEquals(2, notices.size());
+        //cea mai recenta prima
+        assertEquals("variatie", notices.get(0).getMessage());
+        assertEquals(3, notices.get(1).getCount());
+        assertEquals(2, dispatcher.getUnacknowledgedCount());
+
+        dispatcher.acknowledgeAll();
+        assertEquals(0, dispatcher.getUnacknowledgedCount());
+        raise("prag", AlertDispatcher.Severity.WARNING, "din nou");
+        assertEquals(1, dispatcher.getUnacknowledgedCount());
+        assertEquals(4, dispatcher.getNotices().get(0).getCount());
+    }
+
+    @Test
+    void blockingSinkNeverStallsRaise() throws Exception {
+        dispatcher.addSink(new AlertDispatcher.Sink() {
+            @Override
+            public String getName() {
+                return "blocat";
+            }
+
+            @Override
+            public void deliver(AlertDispatcher.Notice notice) throws InterruptedException {
+                release.await();
+            }
+        }, AlertDispatcher.Severity.INFO);
+        dispatcher.addSink(sink, AlertDispatcher.Severity.INFO);
+
+        //cate un jeton pentru fiecare, deci fiecare alerta pleaca spre ambele destinatii
+        //coada destinatiei blocate se umple de cateva ori; cea sanatoasa primeste tot
+        int count = 4 * 64;
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < count; i++) {
+                now += AlertDispatcher.RATE_REFILL_NANOS;
+                raise("categoria" + i, AlertDispatcher.Severity.WARNING, "alerta " + i);
+                assertEquals("alerta " + i, sink.await(1).get(0).getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,302 @@
+package app;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ArchiveTest {
+
+    //2026-01-01, aproape de o granita de partitie ca primele blocuri sa o traverseze
+    private static final long BASE_NANOS = 1_767_225_599_990_000_000L;
+    private static final long MILLI = 1_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private static final class Samples {
+        final List<Long> times = new ArrayList<>();
+        final List<Double> values = new ArrayList<>();
+        final List<Integer> flags = new ArrayList<>();
+
+        void add(long time, double value, int flag) {
+            times.add(time);
+            values.add(value);
+            flags.add(flag);
+        }
+    }
+
+    private Path write(Samples samples) throws IOException {
+        Path path = directory.resolve("SIM-1" + ArchiveWriter.ARCHIVE_EXTENSION);
+        try (ArchiveWriter writer = new ArchiveWriter(path, 1)) {
+            for (int i = 0; i < samples.times.size(); i++) {
+                writer.append(samples.times.get(i), samples.values.get(i), samples.flags.get(i));
+            }
+        }
+        return path;
+    }
+
+    private static Samples readAll(ArchiveReader reader) {
+        Samples read = new Samples();
+        reader.scan(Long.MIN_VALUE, Long.MAX_VALUE, read::add);
+        return read;
+    }
+
+    private static void assertSameSamples(Samples expected, Samples actual) {
+        assertEquals(expected.times.size(), actual.times.size());
+        for (int i = 0; i < expected.times.size(); i++) {
+            assertEquals(expected.times.get(i), actual.times.get(i), "timp " + i);
+            assertEquals(Double.doubleToRawLongBits(expected.values.get(i)),
+                    Double.doubleToRawLongBits(actual.values.get(i)), "valoare " + i);
+            assertEquals(expected.flags.get(i), actual.flags.get(i), "flag " + i);
+        }
+    }
+
+    @Test
+    void roundTripKeepsRepeatedValuesNanAndLargeGaps() throws IOException {
+        SplittableRandom random = new SplittableRandom(7);
+        Samples samples = new Samples();
+        long time = BASE_NANOS;
+        double[] special = {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -0.0, 0.0,
+                Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = 0; i < 20_000; i++) {
+            double value;
+            int kind = i % 10;
+            if (kind < 4 && i > 0) {
+                //valori repetate: XOR zero
+                value = samples.values.get(i - 1);
+            } else if (kind == 4) {
+                value = special[(i / 10) % special.length];
+            } else if (kind == 5) {
+                //orice tipar de biti, inclusiv NaN cu payload: XOR pe toti cei 64 de biti
+                value = Double.longBitsToDouble(random.nextLong());
+            } else {
+                value = Math.round(random.nextDouble(0, 5) * 100) / 100.0;
+            }
+            samples.add(time, value, i % 97 == 0 ? random.nextInt(256) : 0);
+
+            if (i % 5000 == 4999) {
+                //ore fara date: blocul nou incepe cu timestamp-ul complet
+                time += 3 * 3600 * 1_000_000_000L + random.nextInt(1000);
+            } else if (i % 300 == 299) {
+                //salturi in cadrul partitiei: delta-of-delta pe 24 si 36 de biti
+                time += random.nextInt(2) == 0 ? 15 * MILLI : 4_000 * MILLI;
+            } else {
+                time += MILLI + random.nextInt(-3, 4);
+            }
+        }
+        Path path = write(samples);
+
+        try (ArchiveReader reader = new ArchiveReader(List.of(path))) {
+            assertEquals(samples.times.size(), reader.getSampleCount());
+            assertSameSamples(samples, readAll(reader));
+            assertEquals(samples.times.get(0), reader.getStartNanos());
+            assertEquals(samples.times.get(samples.times.size() - 1), reader.getEndNanos());
+        }
+    }
+
+    @Test
+    void blocksSplitAtSampleLimitAndPartitionBoundary() throws IOException {
+        //in aceeasi partitie: exact 1024, apoi 1025 de esantioane
+        long start = Math.floorDiv(BASE_NANOS, ArchiveWriter.PARTITION_NANOS) * ArchiveWriter.PARTITION_NANOS;
+        assertEquals(1, blockCount(start, ArchiveWriter.BLOCK_SAMPLES, 1000));
+        assertEquals(2, blockCount(start, ArchiveWriter.BLOCK_SAMPLES + 1, 1000));
+        assertEquals(2, blockCount(start, 2 * ArchiveWriter.BLOCK_SAMPLES, 1000));
+
+        //10 esantioane, ultimul exact pe granita de 10 s
+        long beforeBoundary = start + ArchiveWriter.PARTITION_NANOS - 9 * MILLI;
+        assertEquals(2, blockCount(beforeBoundary, 10, MILLI));
+        //ultimul chiar inainte de granita
+        assertEquals(1, blockCount(beforeBoundary - 1, 10, MILLI));
+    }
+
+    private int blockCount(long start, int count, long step) throws IOException {
+        Samples samples = new Samples();
+        for (int i = 0; i < count; i++) {
+            samples.add(start + i * step, i * 0.001, 0);
+        }
+        Path path = write(samples);
+        try (ArchiveReader reader = new ArchiveReader(List.of(path))) {
+            assertSameSamples(samples, readAll(reader));
+            return reader.getBlockCount();
+        }
+    }
+
+    @Test
+    void deltaOfDeltaRoundTripIncludingWideEscape() {
+        long[] values = {0, 1, -1, 2047, -2048, 2048, -2049, (1 << 23) - 1, -(1 << 23), 1 << 23,
+                (1L << 35) - 1, -(1L << 35), 1L << 35, -(1L << 35) - 1, 1L << 62, Long.MAX_VALUE, Long.MIN_VALUE};
+        ArchiveWriter.BitOutput out = new ArchiveWriter.BitOutput(16);
+        for (long value : values) {
+            ArchiveWriter.writeDeltaOfDelta(out, value);
+        }
+        ArchiveReader.BitInput in = load(out);
+        for (long value : values) {
+            assertEquals(value, ArchiveReader.readDeltaOfDelta(in));
+        }
+    }
+
+    @Test
+    void bitStreamReadsEveryWidthUpTo64() {
+        SplittableRandom random = new SplittableRandom(11);
+        int[] widths = new int[2000];
+        long[] values = new long[widths.length];
+        ArchiveWriter.BitOutput out = new ArchiveWriter.BitOutput(16);
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = 1 + i % 64;
+            long value = random.nextLong();
+            values[i] = widths[i] == 64 ? value : value & ((1L << widths[i]) - 1);
+            out.write(values[i], widths[i]);
+        }
+        ArchiveReader.BitInput in = load(out);
+        for (int i = 0; i < widths.length; i++) {
+            assertEquals(values[i], in.read(widths[i]), "latime " + widths[i]);
+        }
+    }
+
+    private static ArchiveReader.BitInput load(ArchiveWriter.BitOutput out) {
+        ByteBuffer bytes = out.finish();
+        //exact lungimea scrisa, ca in ArchiveReader: ultima citire nu are voie sa treaca de bloc
+        ArchiveReader.BitInput in = new ArchiveReader.BitInput();
+        in.load(bytes, bytes.position(), bytes.remaining());
+        return in;
+    }
+
+    @Test
+    void excursionsMatchFullScanAcrossSkippedBlocks() throws IOException {
+        Samples samples = new Samples();
+        long time = BASE_NANOS;
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 40_000; i++) {
+            int block = i / ArchiveWriter.BLOCK_SAMPLES;
+            double value;
+            if (block % 4 == 1) {
+                //blocuri intregi sub nivel: sarite fara decodare
+                value = 3.0;
+            } else if (block % 4 == 2 && i % ArchiveWriter.BLOCK_SAMPLES >= ArchiveWriter.BLOCK_SAMPLES - 5) {
+                //depasire deschisa la sfarsitul blocului, inchisa de urmatorul bloc sarit sau decodat
+                value = 4.5;
+            } else {
+                value = random.nextInt(50) == 0 ? 4.2 + random.nextDouble() : 3.5;
+            }
+            samples.add(time, value, 0);
+            time += MILLI;
+        }
+        Path path = write(samples);
+
+        double level = 4.0;
+        try (ArchiveReader reader = new ArchiveReader(List.of(path))) {
+            long from = samples.times.get(1500);
+            long to = samples.times.get(35_000);
+            List<ArchiveReader.Excursion> found = reader.findExcursions(from, to, level, 0);
+            List<long[]> expected = naiveExcursions(samples, from, to, level);
+            assertEquals(expected.size(), found.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i)[0], found.get(i).getStartNanos(), "inceput " + i);
+                assertEquals(expected.get(i)[1], found.get(i).getEndNanos(), "sfarsit " + i);
+                assertEquals(expected.get(i)[2], found.get(i).getSamples(), "esantioane " + i);
+            }
+        }
+    }
+
+    //start, end (primul esantion sub nivel), numar esantioane peste nivel
+    private static List<long[]> naiveExcursions(Samples samples, long from, long to, double level) {
+        List<long[]> result = new ArrayList<>();
+        long[] open = null;
+        long last = 0;
+        for (int i = 0; i < samples.times.size(); i++) {
+            long time = samples.times.get(i);
+            if (time < from || time >= to) {
+                continue;
+            }
+            if (samples.values.get(i) > level) {
+                if (open == null) {
+                    open = new long[] {time, 0, 0};
+                }
+                open[2]++;
+                last = time;
+            } else if (open != null) {
+                open[1] = time;
+                result.add(open);
+                open = null;
+            }
+        }
+        if (open != null) {
+            open[1] = last;
+            result.add(open);
+        }
+        return result;
+    }
+
+    @Test
+    void decimateMatchesFullScanWithIndexShortcut() throws IOException {
+        Samples samples = new Samples();
+        long time = BASE_NANOS;
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 50_000; i++) {
+            samples.add(time, random.nextDouble(0, 5), random.nextInt(100) == 0 ? 2 : 0);
+            time += MILLI + random.nextInt(1000);
+        }
+        Path path = write(samples);
+
+        try (ArchiveReader reader = new ArchiveReader(List.of(path))) {
+            long from = samples.times.get(0) + 1234;
+            long to = samples.times.get(samples.times.size() - 1) - 777;
+            //putine intervale: blocuri intregi din index; multe: aproape toate decodate
+            for (int buckets : new int[] {3, 17, 400, 5000}) {
+                Samples actual = new Samples();
+                reader.decimate(from, to, buckets, actual::add);
+                Samples expected = naiveDecimate(samples, from, to, buckets);
+                assertArrayEquals(expected.times.toArray(), actual.times.toArray(), "intervale " + buckets);
+                assertArrayEquals(expected.values.toArray(), actual.values.toArray(), "intervale " + buckets);
+                assertArrayEquals(expected.flags.toArray(), actual.flags.toArray(), "intervale " + buckets);
+            }
+        }
+    }
+
+    private static Samples naiveDecimate(Samples samples, long from, long to, int buckets) {
+        long span = to - from;
+        int[] minIndex = new int[buckets];
+        int[] maxIndex = new int[buckets];
+        int[] flags = new int[buckets];
+        Arrays.fill(minIndex, -1);
+        Arrays.fill(maxIndex, -1);
+        for (int i = 0; i < samples.times.size(); i++) {
+            long time = samples.times.get(i);
+            if (time < from || time >= to) {
+                continue;
+            }
+            int bucket = (int) Math.min(buckets - 1, Math.max(0, (long) ((double) (time - from) / span * buckets)));
+            double value = samples.values.get(i);
+            if (minIndex[bucket] < 0 || value < samples.values.get(minIndex[bucket])) {
+                minIndex[bucket] = i;
+            }
+            if (maxIndex[bucket] < 0 || value > samples.values.get(maxIndex[bucket])) {
+                maxIndex[bucket] = i;
+            }
+            flags[bucket] |= samples.flags.get(i);
+        }
+        Samples result = new Samples();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (maxIndex[bucket] < 0) {
+                continue;
+            }
+            int first = Math.min(minIndex[bucket], maxIndex[bucket]);
+            int second = Math.max(minIndex[bucket], maxIndex[bucket]);
+            result.add(samples.times.get(first), samples.values.get(first), flags[bucket]);
+            if (second != first) {
+                result.add(samples.times.get(second), samples.values.get(second), flags[bucket]);
+            }
+        }
+        return result;
+    }
+}
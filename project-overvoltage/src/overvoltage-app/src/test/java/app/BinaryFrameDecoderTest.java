@@ -0,0 +1,137 @@
+package app;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BinaryFrameDecoderTest {
+
+    private final List<Integer> samples = new ArrayList<>();
+    private final List<String> responses = new ArrayList<>();
+    private final BinaryFrameDecoder decoder = new BinaryFrameDecoder(new VoltageFrameParser.Listener() {
+        @Override
+        public void onSample(double voltage) {
+            //inapoi la valoarea ADC, ca egalitatea sa fie exacta
+            samples.add((int) Math.round(voltage / 5.0 * 1023.0));
+        }
+
+        @Override
+        public void onCommandResponse(int id, boolean ok, String detail) {
+            responses.add(id + " " + ok + " " + detail);
+        }
+    });
+
+    private static byte[] frame(int sequence, int adc) {
+        int low = adc & 0xFF;
+        int high = adc >> 8;
+        int sync = BinaryFrameDecoder.FRAME_SYNC;
+        return new byte[] {(byte) sync, (byte) sequence, (byte) low, (byte) high, (byte) (sync ^ sequence ^ low ^ high)};
+    }
+
+    private static byte[] ack(int id, int status, int value) {
+        int sync = BinaryFrameDecoder.ACK_SYNC;
+        int low = value & 0xFF;
+        int high = value >> 8;
+        return new byte[] {(byte) sync, (byte) id, (byte) status, (byte) low, (byte) high,
+                (byte) (sync ^ id ^ status ^ low ^ high)};
+    }
+
+    private void feed(byte[]... parts) {
+        for (byte[] part : parts) {
+            for (byte b : part) {
+                decoder.accept(b);
+            }
+        }
+    }
+
+    @Test
+    void decodesFramesAndCountsSequenceGaps() {
+        feed(frame(254, 0), frame(255, 1023), frame(0, 512), frame(3, 0x1A5));
+        assertEquals(List.of(0, 1023, 512, 0x1A5), samples);
+        assertEquals(4, decoder.getFrameCount());
+        //0 -> 3 peste trecerea 255 -> 0
+        assertEquals(2, decoder.getDroppedFrames());
+        assertEquals(0, decoder.getChecksumErrors());
+    }
+
+    @Test
+    void skipsNoiseBeforeSync() {
+        feed(new byte[] {'x', 0x00, 0x7F}, frame(1, 100));
+        assertEquals(List.of(100), samples);
+        assertEquals(3, decoder.getSkippedBytes());
+    }
+
+    @Test
+    void truncatedFrameDoesNotLoseTheNextOne() {
+        //cadrul 1 pierde doi octeti: sync-ul cadrului 2 ajunge in interiorul celui respins
+        byte[] first = frame(1, 300);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(first, 0, 3);
+        stream.writeBytes(frame(2, 301));
+        stream.writeBytes(frame(3, 302));
+        feed(stream.toByteArray());
+        assertEquals(List.of(301, 302), samples);
+        assertEquals(1, decoder.getChecksumErrors());
+    }
+
+    @Test
+    void syncValueInsideRejectedFrameIsTriedAgain() {
+        //0xA5 ca octet ADC low intr-un cadru stricat, urmat de un cadru valid
+        byte[] bad = frame(9, 0x0A5);
+        bad[4] ^= 0x01;
+        feed(bad, frame(10, 7));
+        assertEquals(List.of(7), samples);
+        //cadrul stricat si reluarea de la 0xA5 din interiorul lui
+        assertEquals(2, decoder.getChecksumErrors());
+    }
+
+    @Test
+    void rejectsAdcAboveTenBits() {
+        int sync = BinaryFrameDecoder.FRAME_SYNC;
+        feed(new byte[] {(byte) sync, 1, 0, 4, (byte) (sync ^ 1 ^ 4)}, frame(2, 4));
+        assertEquals(List.of(4), samples);
+        assertEquals(1, decoder.getChecksumErrors());
+    }
+
+    @Test
+    void acknowledgementsBetweenFrames() {
+        feed(frame(1, 10), ack(5, 0, 42), frame(2, 11), ack(6, 3, 0));
+        assertEquals(List.of(10, 11), samples);
+        assertEquals(List.of("5 true 42", "6 false cod 3"), responses);
+        assertEquals(0, decoder.getDroppedFrames());
+    }
+
+    @Test
+    void acknowledgementCarriesSixteenBitValue() {
+        feed(ack(1, 0, 60000), ack(2, 0, 0x1FF), ack(3, 0, BinaryFrameDecoder.ACK_NO_VALUE));
+        assertEquals(List.of("1 true 60000", "2 true 511", "3 true "), responses);
+    }
+
+    @Test
+    void truncatedAcknowledgementDoesNotLoseTheNextFrame() {
+        //raspunsul pierde ultimii doi octeti: cadrul urmator incepe in interiorul celui respins
+        byte[] truncated = ack(4, 0, 1000);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(truncated, 0, 4);
+        stream.writeBytes(frame(1, 20));
+        stream.writeBytes(ack(5, 0, 2000));
+        feed(stream.toByteArray());
+        assertEquals(List.of(20), samples);
+        assertEquals(List.of("5 true 2000"), responses);
+        assertEquals(1, decoder.getChecksumErrors());
+    }
+
+    @Test
+    void resetForgetsPartialFrame() {
+        byte[] first = frame(1, 1);
+        feed(new byte[] {first[0], first[1]});
+        decoder.reset();
+        feed(frame(7, 2));
+        assertEquals(List.of(2), samples);
+        assertEquals(0, decoder.getChecksumErrors());
+    }
+}
@@ -0,0 +1,164 @@
+package app;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandChannelTest {
+
+    private static final long LONG_TIMEOUT_MILLIS = 60_000;
+
+    //placa fara raspuns: doar retine liniile trimise
+    private static final class FakeSource implements ByteSource {
+        final List<String> lines = new ArrayList<>();
+        boolean failWrites;
+
+        @Override
+        public String getName() {
+            return "TEST";
+        }
+
+        @Override
+        public int read(byte[] buffer, int length) {
+            return -1;
+        }
+
+        @Override
+        public void write(byte[] data, int length) throws IOException {
+            if (failWrites) {
+                throw new IOException("port inchis");
+            }
+            lines.add(new String(data, 0, length, StandardCharsets.US_ASCII));
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public boolean close() {
+            return true;
+        }
+
+        //"#<id> <COD> ..."
+        int idOf(int index) {
+            String line = lines.get(index);
+            return Integer.parseInt(line.substring(1, line.indexOf(' ')));
+        }
+    }
+
+    private final FakeSource source = new FakeSource();
+    private final CommandChannel channel = new CommandChannel(source);
+
+    private CompletableFuture<CommandChannel.Response> send(CommandChannel.Command command) {
+        return channel.send(command, null, LONG_TIMEOUT_MILLIS);
+    }
+
+    private static Throwable failureOf(CompletableFuture<?> future) {
+        ExecutionException error = assertThrows(ExecutionException.class, future::get);
+        return error.getCause();
+    }
+
+    @Test
+    void responsesOutOfOrderAreMatchedById() throws Exception {
+        CompletableFuture<CommandChannel.Response> ping = send(CommandChannel.Command.PING);
+        CompletableFuture<CommandChannel.Response> threshold =
+                channel.send(CommandChannel.Command.SET_THRESHOLD, "4.50", LONG_TIMEOUT_MILLIS);
+        CompletableFuture<CommandChannel.Response> interval =
+                channel.send(CommandChannel.Command.SET_INTERVAL, "10", LONG_TIMEOUT_MILLIS);
+        assertEquals("#" + source.idOf(1) + " THR 4.50\n", source.lines.get(1));
+        assertEquals(3, channel.getInFlight());
+
+        long arrival = System.nanoTime();
+        assertEquals(CommandChannel.Command.SET_INTERVAL, channel.complete(source.idOf(2), true, "", arrival));
+        assertEquals(CommandChannel.Command.PING, channel.complete(source.idOf(0), true, "1234", arrival));
+        assertTrue(interval.isDone());
+        assertTrue(ping.isDone());
+        assertFalse(threshold.isDone());
+
+        CommandChannel.Response response = ping.get();
+        assertEquals(CommandChannel.Command.PING, response.getCommand());
+        assertEquals("1234", response.getDetail());
+        //de la trimitere, nu de la 0
+        assertTrue(response.getRttNanos() >= 0 && response.getRttNanos() < LONG_TIMEOUT_MILLIS * 1_000_000L);
+
+        assertEquals(CommandChannel.Command.SET_THRESHOLD,
+                channel.complete(source.idOf(1), false, "argument invalid", System.nanoTime()));
+        assertFalse(threshold.get().isOk());
+        assertEquals(1, channel.getRejectedCount());
+        assertEquals(0, channel.getInFlight());
+    }
+
+    @Test
+    void lateResponseAfterTimeoutCompletesNothing() throws Exception {
+        CompletableFuture<CommandChannel.Response> expired = channel.send(CommandChannel.Command.PING, null, 20);
+        assertInstanceOf(TimeoutException.class, failureOf(expired));
+        //scoaterea din asteptare ruleaza dupa completarea viitorului
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (channel.getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, channel.getInFlight());
+        assertEquals(1, channel.getTimeoutCount());
+
+        //id-ul expirat nu se refoloseste imediat, raspunsul intarziat nu nimereste comanda noua
+        CompletableFuture<CommandChannel.Response> next = send(CommandChannel.Command.PING);
+        assertNotEquals(source.idOf(0), source.idOf(1));
+        assertNull(channel.complete(source.idOf(0), true, "", System.nanoTime()));
+        assertFalse(next.isDone());
+        assertEquals(1, channel.getInFlight());
+    }
+
+    @Test
+    void failAllCompletesEveryPendingCommand() {
+        CompletableFuture<CommandChannel.Response> first = send(CommandChannel.Command.PING);
+        CompletableFuture<CommandChannel.Response> second = send(CommandChannel.Command.BINARY);
+        IOException lost = new IOException("legatura pierduta");
+        channel.failAll(lost);
+
+        assertSame(lost, failureOf(first));
+        assertSame(lost, failureOf(second));
+        assertEquals(0, channel.getInFlight());
+        assertNull(channel.complete(source.idOf(0), true, "", System.nanoTime()));
+    }
+
+    @Test
+    void rejectsCommandsAboveInFlightLimit() throws Exception {
+        for (int i = 0; i < CommandChannel.MAX_IN_FLIGHT; i++) {
+            send(CommandChannel.Command.PING);
+        }
+        CompletableFuture<CommandChannel.Response> rejected = send(CommandChannel.Command.PING);
+        assertInstanceOf(IOException.class, failureOf(rejected));
+        assertEquals(CommandChannel.MAX_IN_FLIGHT, source.lines.size());
+
+        //un raspuns elibereaza un loc
+        channel.complete(source.idOf(0), true, "", System.nanoTime());
+        CompletableFuture<CommandChannel.Response> accepted = send(CommandChannel.Command.PING);
+        assertFalse(accepted.isDone());
+        assertEquals(CommandChannel.MAX_IN_FLIGHT, channel.getInFlight());
+    }
+
+    @Test
+    void failedWriteLeavesNothingPending() {
+        source.failWrites = true;
+        assertInstanceOf(IOException.class, failureOf(send(CommandChannel.Command.PING)));
+        assertEquals(0, channel.getInFlight());
+        assertEquals(0, channel.getSentCount());
+    }
+}
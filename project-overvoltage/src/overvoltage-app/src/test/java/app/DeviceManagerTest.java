@@ -0,0 +1,144 @@
+package app;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeviceManagerTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<String> errors = new ArrayList<>();
+
+    private DeviceManager manager() {
+        DeviceManager manager = new DeviceManager(new DeviceMonitor.Listener() {
+            @Override
+            public void onLog(String source, LogBuffer.Level level, String message) {
+                if (level == LogBuffer.Level.ERROR) {
+                    errors.add(message);
+                }
+            }
+
+            @Override
+            public void onStopped(DeviceMonitor device, Exception error) {
+            }
+        });
+        manager.setRecordingDirectory(directory);
+        return manager;
+    }
+
+    //sesiune scrisa pe disc, dar fara arhiva (ca dupa o oprire brusca a aplicatiei)
+    private Path recordSession(String device, int samples) throws IOException {
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        try {
+            SampleRecorder recorder = new SampleRecorder(directory, device, 1, flusher);
+            long start = System.nanoTime();
+            for (int i = 0; i < samples; i++) {
+                recorder.record(start + i * 1_000_000L, 1.0 + i % 100 / 100.0, 0);
+            }
+            recorder.close();
+            return recorder.getArchivePath();
+        } finally {
+            flusher.shutdownNow();
+        }
+    }
+
+    @Test
+    void leftoverSessionsAreArchivedAtStartup() throws Exception {
+        Path first = recordSession("COM3", 5000);
+        Path second = recordSession("COM4", 10);
+        Map<Path, List<Path>> pending = DeviceManager.unarchivedSessions(directory);
+        assertEquals(2, pending.size());
+        assertTrue(pending.containsKey(first) && pending.containsKey(second));
+
+        DeviceManager manager = manager();
+        manager.archiveLeftoverSessions();
+        manager.shutdown(10_000);
+
+        assertTrue(errors.isEmpty(), errors.toString());
+        assertTrue(DeviceManager.unarchivedSessions(directory).isEmpty());
+        assertEquals(5000, ArchiveReader.readSummary(first).getSampleCount());
+        assertEquals(10, ArchiveReader.readSummary(second).getSampleCount());
+        //segmentele raman pentru redare
+        assertEquals(2, RecordingReader.listSegments(directory, null).size());
+    }
+
+    @Test
+    void sessionStartedAfterScanIsNotTakenForLeftover() throws Exception {
+        Path leftover = recordSession("COM3", 100);
+        DeviceManager manager = manager();
+        manager.archiveLeftoverSessions();
+
+        //ca o conexiune deschisa de supervizor imediat dupa pornire
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        try {
+            SampleRecorder active = new SampleRecorder(directory, "COM4", 2, flusher);
+            active.record(System.nanoTime(), 1.0, 0);
+            manager.shutdown(10_000);
+
+            assertTrue(Files.exists(leftover));
+            assertFalse(Files.exists(active.getArchivePath()));
+            active.close();
+        } finally {
+            flusher.shutdownNow();
+        }
+    }
+
+    @Test
+    void archivedSessionsAreLeftAlone() throws Exception {
+        Path archive = recordSession("COM3", 100);
+        Files.write(archive, new byte[] {1, 2, 3});
+        DeviceManager manager = manager();
+        manager.archiveLeftoverSessions();
+        manager.shutdown(10_000);
+        assertEquals(3, Files.size(archive));
+    }
+
+    @Test
+    void rawSegmentsAreDeletedOnceArchiveIsVerified() throws Exception {
+        Path archive = recordSession("COM3", 1000);
+        Path unrelated = directory.resolve("note.ovr");
+        Files.write(unrelated, new byte[] {1});
+        DeviceManager manager = manager();
+        manager.setRawRetention(Duration.ZERO);
+        manager.archiveLeftoverSessions();
+        manager.shutdown(10_000);
+
+        assertTrue(errors.isEmpty(), errors.toString());
+        assertEquals(1000, ArchiveReader.readSummary(archive).getSampleCount());
+        assertEquals(List.of(unrelated), RecordingReader.listSegments(directory, null));
+    }
+
+    @Test
+    void rawSegmentsExpireByAgeOnlyForValidArchives() throws Exception {
+        Path archived = recordSession("COM3", 100);
+        ArchiveWriter.archive(RecordingReader.listSegments(directory, "COM3"), archived, 1);
+        Path broken = recordSession("COM4", 100);
+        Files.write(broken, new byte[] {1, 2, 3});
+        recordSession("COM5", 100);
+        long now = System.currentTimeMillis();
+        for (Path segment : RecordingReader.listSegments(directory, null)) {
+            Files.setLastModifiedTime(segment, FileTime.fromMillis(now - Duration.ofDays(2).toMillis()));
+        }
+
+        assertTrue(DeviceManager.expiredSegments(directory, Duration.ofDays(3), now).isEmpty());
+        //COM4 are o arhiva stricata, COM5 niciuna: segmentele lor sunt singura copie
+        assertEquals(RecordingReader.listSegments(directory, "COM3"),
+                DeviceManager.expiredSegments(directory, Duration.ofDays(1), now));
+    }
+}
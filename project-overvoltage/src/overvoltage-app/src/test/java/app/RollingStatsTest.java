@@ -0,0 +1,179 @@
+package app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollingStatsTest {
+
+    private static final long TICK = 100_000_000L;
+    private static final double THRESHOLD = 4.0;
+    private static final double EPSILON = 1e-9;
+
+    private final List<Long> times = new ArrayList<>();
+    private final List<Double> values = new ArrayList<>();
+
+    //fereastra calculata direct: esantioanele cu bucket-ul (tick sau secunda) in [from, to)
+    private Expected expected(long from, long to, long bucketNanos) {
+        long count = 0;
+        double sum = 0;
+        double sumSquares = 0;
+        double min = Double.NaN;
+        double max = Double.NaN;
+        double aboveSeconds = 0;
+        long bucket = Long.MIN_VALUE;
+        long bucketCount = 0;
+        long bucketAbove = 0;
+        for (int i = 0; i < times.size(); i++) {
+            long index = Math.floorDiv(times.get(i), bucketNanos);
+            if (index < from || index >= to) {
+                continue;
+            }
+            if (index != bucket) {
+                if (bucketCount > 0) {
+                    aboveSeconds += bucketNanos / 1e9 * bucketAbove / bucketCount;
+                }
+                bucket = index;
+                bucketCount = 0;
+                bucketAbove = 0;
+            }
+            double value = values.get(i);
+            count++;
+            sum += value;
+            sumSquares += value * value;
+            min = count == 1 ? value : Math.min(min, value);
+            max = count == 1 ? value : Math.max(max, value);
+            bucketCount++;
+            if (value > THRESHOLD) {
+                bucketAbove++;
+            }
+        }
+        if (bucketCount > 0) {
+            aboveSeconds += bucketNanos / 1e9 * bucketAbove / bucketCount;
+        }
+        Expected window = new Expected();
+        window.count = count;
+        window.min = min;
+        window.max = max;
+        window.mean = sum / count;
+        window.rms = Math.sqrt(sumSquares / count);
+        double variance = 0;
+        for (int i = 0; i < times.size(); i++) {
+            long index = Math.floorDiv(times.get(i), bucketNanos);
+            if (index >= from && index < to) {
+                double delta = values.get(i) - window.mean;
+                variance += delta * delta;
+            }
+        }
+        window.stdDev = Math.sqrt(variance / count);
+        window.aboveSeconds = aboveSeconds;
+        return window;
+    }
+
+    private static final class Expected {
+        long count;
+        double min;
+        double max;
+        double mean;
+        double stdDev;
+        double rms;
+        double aboveSeconds;
+    }
+
+    private static void assertWindow(Expected expected, RollingStats.Window actual, String context) {
+        if (expected.count == 0) {
+            assertSame(RollingStats.Window.EMPTY, actual, context);
+            return;
+        }
+        assertEquals(expected.count, actual.getCount(), context);
+        assertEquals(expected.min, actual.getMin(), context);
+        assertEquals(expected.max, actual.getMax(), context);
+        assertEquals(expected.mean, actual.getMean(), EPSILON, context);
+        assertEquals(expected.stdDev, actual.getStdDev(), EPSILON, context);
+        assertEquals(expected.rms, actual.getRms(), EPSILON, context);
+        assertEquals(expected.aboveSeconds, actual.getTimeAboveSeconds(), EPSILON, context);
+    }
+
+    @Test
+    void windowsMatchDirectComputationAcrossGaps() {
+        SplittableRandom random = new SplittableRandom(13);
+        RollingStats stats = new RollingStats(null);
+        long time = 7 * TICK + 12_345;
+        long startTick = Math.floorDiv(time, TICK);
+        int checks = 0;
+        for (int i = 0; i < 30_000; i++) {
+            double value = random.nextInt(20) == 0 ? 4 + random.nextDouble() : 2 + random.nextDouble();
+            stats.add(value, value > THRESHOLD, time);
+            times.add(time);
+            values.add(value);
+
+            long tick = Math.floorDiv(time, TICK);
+            if (tick != startTick && i % 97 == 0) {
+                long second = Math.floorDiv(tick, 10);
+                //starea publicata acopera bucket-urile inchise, fara tick-ul curent
+                assertWindow(expected(tick - 10, tick, TICK), stats.getSecond(), "1 s la " + i);
+                assertWindow(expected(second - 60, second, 10 * TICK), stats.getMinute(), "1 min la " + i);
+                assertWindow(expected(second - 3600, second, 10 * TICK), stats.getHour(), "1 h la " + i);
+                checks++;
+            }
+
+            if (i % 7000 == 6999) {
+                //pauza mai lunga decat un minut, dar sub o ora
+                time += 75_000_000_000L;
+            } else if (i % 1500 == 1499) {
+                time += 2_300_000_000L;
+            } else {
+                time += 1_000_000L + random.nextInt(20_000_000);
+            }
+        }
+        assertTrue(checks > 200);
+    }
+
+    @Test
+    void secondListenerSeesEveryNonEmptySecond() {
+        List<Long> ends = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        RollingStats stats = new RollingStats((endNanos, second) -> {
+            ends.add(endNanos);
+            counts.add(second.getCount());
+        });
+        //5 esantioane in fiecare din secundele 0 si 1, nimic in 2, unul in 3
+        for (int second : new int[] {0, 1}) {
+            for (int i = 0; i < 5; i++) {
+                stats.add(1.0, false, second * 10 * TICK + 8 * TICK + i);
+            }
+        }
+        stats.add(1.0, false, 35 * TICK);
+        assertEquals(List.of(10 * TICK, 20 * TICK), ends);
+        assertEquals(List.of(5L, 5L), counts);
+    }
+
+    @Test
+    void pauseLongerThanAnHourClearsEverything() {
+        RollingStats stats = new RollingStats(null);
+        for (int i = 0; i < 50; i++) {
+            stats.add(3.0, false, i * 50_000_000L);
+        }
+        assertTrue(stats.getMinute().getCount() > 0);
+        stats.add(3.0, false, 2 * 3600 * 1_000_000_000L);
+        assertSame(RollingStats.Window.EMPTY, stats.getSecond());
+        assertSame(RollingStats.Window.EMPTY, stats.getMinute());
+        assertSame(RollingStats.Window.EMPTY, stats.getHour());
+    }
+
+    @Test
+    void coveredSecondsGrowUntilWindowIsFull() {
+        RollingStats stats = new RollingStats(null);
+        for (int i = 0; i <= 30; i++) {
+            stats.add(1.0, false, i * TICK);
+        }
+        assertEquals(1.0, stats.getSecond().getCoveredSeconds(), EPSILON);
+        assertEquals(3.0, stats.getMinute().getCoveredSeconds(), EPSILON);
+    }
+}
@@ -0,0 +1,98 @@
+package app;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SampleRecorderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sessionsStartedTogetherGetDistinctFiles() throws Exception {
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        List<SampleRecorder> recorders = new ArrayList<>();
+        try {
+            //mai multe sesiuni ale aceleiasi placi in aceeasi milisecunda, ca la o reconectare imediata
+            for (int i = 0; i < 5; i++) {
+                SampleRecorder recorder = new SampleRecorder(directory, "COM3", i, flusher);
+                recorders.add(recorder);
+                assertFalse(recorder.isFailed());
+                recorder.record(System.nanoTime(), 1.0, 0);
+            }
+            Set<Path> archives = new HashSet<>();
+            Set<Path> segments = new HashSet<>();
+            for (SampleRecorder recorder : recorders) {
+                archives.add(recorder.getArchivePath());
+                segments.addAll(recorder.getSegmentPaths());
+                assertEquals(1, recorder.getRecordCount());
+            }
+            assertEquals(5, archives.size());
+            assertEquals(5, segments.size());
+            //numele sesiunii ramane de forma <placa>-<numar>, ca exportul sa gaseasca placa
+            for (Path archive : archives) {
+                assertEquals("COM3", SessionExporter.deviceOf(archive));
+            }
+        } finally {
+            for (SampleRecorder recorder : recorders) {
+                recorder.close();
+            }
+            flusher.shutdownNow();
+        }
+    }
+
+    @Test
+    void longRecordingIsSplitIntoSessions() throws Exception {
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        List<List<Path>> rolledSegments = new ArrayList<>();
+        List<Path> rolledArchives = new ArrayList<>();
+        //10 inregistrari pe segment, 2 segmente pe sesiune
+        int segmentSize = SampleRecorder.HEADER_SIZE + 10 * SampleRecorder.RECORD_SIZE;
+        SampleRecorder recorder = new SampleRecorder(directory, "COM3", 1, flusher, segmentSize, 2,
+                (rolled, segments, archive) -> {
+                    rolledSegments.add(segments);
+                    rolledArchives.add(archive);
+                });
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < 50; i++) {
+                recorder.record(start + i * 1_000_000L, i, 0);
+            }
+        } finally {
+            recorder.close();
+            flusher.shutdownNow();
+        }
+
+        assertEquals(2, rolledSegments.size());
+        assertEquals(2, Set.copyOf(rolledArchives).size());
+        assertFalse(rolledArchives.contains(recorder.getArchivePath()));
+        List<Path> all = new ArrayList<>();
+        for (List<Path> segments : rolledSegments) {
+            assertEquals(2, segments.size());
+            all.addAll(segments);
+        }
+        assertEquals(1, recorder.getSegmentPaths().size());
+        all.addAll(recorder.getSegmentPaths());
+
+        //nicio inregistrare pierduta sau dublata la trecerea dintre sesiuni
+        int count = 0;
+        try (RecordingReader reader = new RecordingReader(all)) {
+            while (reader.next()) {
+                assertEquals(count, reader.getVoltage());
+                count++;
+            }
+        }
+        assertEquals(50, count);
+    }
+}
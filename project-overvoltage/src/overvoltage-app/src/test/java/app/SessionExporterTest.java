@@ -0,0 +1,248 @@
+package app;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionExporterTest {
+
+    private static final long BASE_NANOS = 1_767_225_600_000_000_000L;
+    private static final long MILLI = 1_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private static String formatLong(long value) {
+        byte[] out = new byte[32];
+        int end = SessionExporter.formatLong(out, 3, value);
+        return new String(out, 3, end - 3, StandardCharsets.US_ASCII);
+    }
+
+    private static String formatFixed(double value, int decimals) {
+        byte[] out = new byte[64];
+        int end = SessionExporter.formatFixed(out, 1, value, decimals);
+        return new String(out, 1, end - 1, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void formatLongMatchesLongToString() {
+        long[] values = {0, 1, -1, 9, 10, 99, 100, 101, 999, 1000, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                999_999_999_999_999_999L, 1_000_000_000_000_000_000L, Long.MAX_VALUE, Long.MIN_VALUE,
+                Long.MIN_VALUE + 1, BASE_NANOS};
+        for (long value : values) {
+            assertEquals(Long.toString(value), formatLong(value));
+        }
+        SplittableRandom random = new SplittableRandom(17);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >> random.nextInt(64);
+            assertEquals(Long.toString(value), formatLong(value));
+        }
+    }
+
+    @Test
+    void formatFixedRoundsToRequestedDecimals() {
+        assertEquals("3.2100", formatFixed(3.21, 4));
+        assertEquals("0.0000", formatFixed(0.0, 4));
+        assertEquals("0.0000", formatFixed(-0.0, 4));
+        //rotunjit la zero: fara semn
+        assertEquals("0.0000", formatFixed(-0.00001, 4));
+        assertEquals("-0.0001", formatFixed(-0.00009, 4));
+        assertEquals("5.0000", formatFixed(4.99996, 4));
+        assertEquals("-12.345", formatFixed(-12.3449999, 3));
+        assertEquals("4", formatFixed(3.5, 0));
+        assertEquals("1.000000", formatFixed(0.9999999, 6));
+        assertEquals("NaN", formatFixed(Double.NaN, 4));
+        assertEquals("Infinity", formatFixed(Double.POSITIVE_INFINITY, 4));
+        assertEquals("-Infinity", formatFixed(Double.NEGATIVE_INFINITY, 4));
+        assertEquals("1.0E300", formatFixed(1e300, 4));
+    }
+
+    @Test
+    void formatFixedStaysWithinHalfAUnit() {
+        SplittableRandom random = new SplittableRandom(19);
+        for (int i = 0; i < 100_000; i++) {
+            int decimals = random.nextInt(7);
+            double value = random.nextDouble(-1e6, 1e6) / Math.pow(10, random.nextInt(6));
+            String text = formatFixed(value, decimals);
+            BigDecimal parsed = new BigDecimal(text);
+            assertEquals(decimals, Math.max(0, parsed.scale()), text);
+            //rotunjirea se face pe value * 10^decimals in double: cel mult o jumatate de unitate plus eroarea produsului
+            double unit = Math.pow(10, -decimals);
+            assertTrue(Math.abs(parsed.doubleValue() - value) <= unit / 2 + Math.ulp(value) * 4, value + " -> " + text);
+        }
+    }
+
+    private void writeArchive(String device, int count, long stepNanos) throws IOException {
+        try (ArchiveWriter writer = new ArchiveWriter(directory.resolve(device + "-1000.ova"), 1)) {
+            for (int i = 0; i < count; i++) {
+                writer.append(BASE_NANOS + i * stepNanos, voltage(device, i), i % 1000 == 0 ? 1 : 0);
+            }
+        }
+    }
+
+    private static double voltage(String device, int i) {
+        return device.length() + (i % 500) / 100.0;
+    }
+
+    @Test
+    void columnarFooterDescribesEveryRowGroup() throws IOException {
+        int large = SessionExporter.ROW_GROUP_ROWS + 4464;
+        writeArchive("COM3", large, MILLI);
+        writeArchive("placa_2", 10, MILLI);
+        Path target = directory.resolve("export" + SessionExporter.Format.COLUMNAR.getExtension());
+        long rows = new SessionExporter(directory).export(List.of("COM3", "placa_2"), BASE_NANOS,
+                BASE_NANOS + 3600_000 * MILLI, 0, SessionExporter.Format.COLUMNAR, target, null);
+        assertEquals(large + 10, rows);
+
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(target));
+        int size = file.capacity();
+        assertEquals(SessionExporter.COLUMNAR_MAGIC, file.getLong(0));
+        assertEquals(SessionExporter.COLUMNAR_VERSION, file.getInt(8));
+        assertEquals(SessionExporter.ROW_GROUP_ROWS, file.getInt(12));
+        assertEquals(SessionExporter.COLUMNAR_MAGIC, file.getLong(size - 8));
+        int footerLength = file.getInt(size - 12);
+        file.position(size - 12 - footerLength);
+
+        assertEquals(2, file.getInt());
+        String[] names = new String[2];
+        for (int i = 0; i < names.length; i++) {
+            byte[] name = new byte[file.getShort()];
+            file.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        assertEquals(List.of("COM3", "placa_2"), List.of(names));
+
+        int groupCount = file.getInt();
+        assertEquals(3, groupCount);
+        int[] expectedDevices = {0, 0, 1};
+        int[] expectedRows = {SessionExporter.ROW_GROUP_ROWS, 4464, 10};
+        int[] firstIndex = {0, SessionExporter.ROW_GROUP_ROWS, 0};
+        long expectedOffset = 16;
+        for (int group = 0; group < groupCount; group++) {
+            int device = file.getInt();
+            int groupRows = file.getInt();
+            long offset = file.getLong();
+            long first = file.getLong();
+            long last = file.getLong();
+            double min = file.getDouble();
+            double max = file.getDouble();
+            assertEquals(expectedDevices[group], device);
+            assertEquals(expectedRows[group], groupRows);
+            assertEquals(expectedOffset, offset);
+            assertEquals(BASE_NANOS + firstIndex[group] * MILLI, first);
+            assertEquals(BASE_NANOS + (firstIndex[group] + groupRows - 1) * MILLI, last);
+
+            double expectedMin = Double.POSITIVE_INFINITY;
+            double expectedMax = Double.NEGATIVE_INFINITY;
+            for (int row = 0; row < groupRows; row++) {
+                int index = firstIndex[group] + row;
+                double value = voltage(names[device], index);
+                expectedMin = Math.min(expectedMin, value);
+                expectedMax = Math.max(expectedMax, value);
+                assertEquals(BASE_NANOS + index * MILLI, file.getLong((int) offset + row * 8));
+                assertEquals(value, file.getDouble((int) offset + groupRows * 8 + row * 8));
+                assertEquals(index % 1000 == 0 ? 1 : 0, file.get((int) offset + groupRows * 16 + row));
+            }
+            assertEquals(expectedMin, min);
+            assertEquals(expectedMax, max);
+            expectedOffset += groupRows * 17L;
+        }
+        //coloanele se termina exact unde incepe subsolul
+        assertEquals(expectedOffset, size - 12 - footerLength);
+    }
+
+    @Test
+    void decimationBucketsStartAtRequestedFrom() throws IOException {
+        long bucket = 10 * MILLI;
+        long from = BASE_NANOS - 3 * MILLI;
+        //arhiva incepe la 7 ms dupa from, in interiorul primului interval
+        try (ArchiveWriter writer = new ArchiveWriter(directory.resolve("COM3-1000.ova"), 1)) {
+            for (int i = 0; i < 200; i++) {
+                writer.append(BASE_NANOS + 4 * MILLI + i * MILLI, (i * 7919) % 101 / 10.0, 0);
+            }
+        }
+        Path target = directory.resolve("export" + SessionExporter.Format.CSV.getExtension());
+        new SessionExporter(directory).export(List.of("COM3"), from, from + 1000 * MILLI, bucket,
+                SessionExporter.Format.CSV, target, null);
+        List<String> lines = Files.readAllLines(target);
+
+        //min si max pe intervalele [from + k * bucket, from + (k + 1) * bucket)
+        StringBuilder expected = new StringBuilder();
+        for (long k = 0; k < 100; k++) {
+            int minIndex = -1;
+            int maxIndex = -1;
+            for (int i = 0; i < 200; i++) {
+                long time = BASE_NANOS + 4 * MILLI + i * MILLI;
+                if (Math.floorDiv(time - from, bucket) != k) {
+                    continue;
+                }
+                double value = (i * 7919) % 101 / 10.0;
+                if (minIndex < 0 || value < (minIndex * 7919) % 101 / 10.0) {
+                    minIndex = i;
+                }
+                if (maxIndex < 0 || value > (maxIndex * 7919) % 101 / 10.0) {
+                    maxIndex = i;
+                }
+            }
+            if (minIndex >= 0) {
+                expected.append(BASE_NANOS + 4 * MILLI + Math.min(minIndex, maxIndex) * MILLI).append('\n');
+                if (minIndex != maxIndex) {
+                    expected.append(BASE_NANOS + 4 * MILLI + Math.max(minIndex, maxIndex) * MILLI).append('\n');
+                }
+            }
+        }
+        StringBuilder actual = new StringBuilder();
+        for (String line : lines.subList(1, lines.size())) {
+            actual.append(line.split(",")[1]).append('\n');
+        }
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void unreadableArchivesAreSkipped() throws IOException {
+        writeArchive("COM3", 3000, MILLI);
+        Path broken = directory.resolve("COM3-2000.ova");
+        Files.write(broken, new byte[100]);
+        assertThrows(IOException.class, () -> ArchiveReader.readSummary(broken));
+
+        ArchiveReader.Summary summary = ArchiveReader.readSummary(directory.resolve("COM3-1000.ova"));
+        try (ArchiveReader reader = new ArchiveReader(List.of(summary.getPath()))) {
+            assertEquals(reader.getStartNanos(), summary.getStartNanos());
+            assertEquals(reader.getEndNanos(), summary.getEndNanos());
+            assertEquals(reader.getSampleCount(), summary.getSampleCount());
+            assertEquals(reader.getBlockCount(), summary.getBlockCount());
+        }
+
+        Path target = directory.resolve("export" + SessionExporter.Format.CSV.getExtension());
+        long rows = new SessionExporter(directory).export(List.of("COM3"), BASE_NANOS, BASE_NANOS + 10_000 * MILLI, 0,
+                SessionExporter.Format.CSV, target, null);
+        assertEquals(3000, rows);
+    }
+
+    @Test
+    void csvHasOneLinePerSample() throws IOException {
+        writeArchive("COM3", 2500, MILLI);
+        Path target = directory.resolve("export" + SessionExporter.Format.CSV.getExtension());
+        long rows = new SessionExporter(directory).export(List.of("COM3"), BASE_NANOS + 500 * MILLI,
+                BASE_NANOS + 2000 * MILLI, 0, SessionExporter.Format.CSV, target, null);
+        List<String> lines = Files.readAllLines(target);
+        assertEquals(1500, rows);
+        assertEquals(1501, lines.size());
+        assertEquals("device,timestamp_ns,voltage_v,flags", lines.get(0));
+        assertEquals("COM3," + (BASE_NANOS + 500 * MILLI) + ",4.0000,0", lines.get(1));
+        assertEquals("COM3," + (BASE_NANOS + 1000 * MILLI) + ",4.0000,1", lines.get(501));
+        assertEquals("COM3," + (BASE_NANOS + 1999 * MILLI) + ",8.9900,0", lines.get(1500));
+    }
+}
@@ -0,0 +1,110 @@
+package app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThresholdEngineTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    private final List<ThresholdEvent> events = new ArrayList<>();
+
+    private ThresholdEngine engine(ThresholdConfig config) {
+        ThresholdEngine engine = new ThresholdEngine("test", config);
+        engine.addListener(events::add);
+        return engine;
+    }
+
+    private List<ThresholdEvent.Type> types() {
+        return events.stream().map(ThresholdEvent::getType).toList();
+    }
+
+    @Test
+    void hysteresisKeepsLevelUntilBelowThresholdMinusBand() {
+        ThresholdEngine engine = engine(ThresholdConfig.defaults());
+        double[] voltages = {3.7, 3.81, 3.76, 3.74, 4.01, 3.96, 3.94, 3.76, 3.7};
+        ThresholdEngine.Level[] expected = {
+                ThresholdEngine.Level.NORMAL, ThresholdEngine.Level.WARNING, ThresholdEngine.Level.WARNING,
+                ThresholdEngine.Level.NORMAL, ThresholdEngine.Level.CRITICAL, ThresholdEngine.Level.CRITICAL,
+                ThresholdEngine.Level.WARNING, ThresholdEngine.Level.WARNING, ThresholdEngine.Level.NORMAL};
+        for (int i = 0; i < voltages.length; i++) {
+            assertEquals(expected[i], engine.evaluate(voltages[i], i * MILLI), "esantion " + i);
+        }
+        assertEquals(List.of(ThresholdEvent.Type.WARNING, ThresholdEvent.Type.RECOVERED, ThresholdEvent.Type.CRITICAL,
+                ThresholdEvent.Type.WARNING, ThresholdEvent.Type.RECOVERED), types());
+        ThresholdEvent fromCritical = events.get(3);
+        assertEquals(ThresholdEngine.Level.CRITICAL, fromCritical.getPreviousLevel());
+        assertEquals(ThresholdEngine.Level.WARNING, fromCritical.getLevel());
+        assertEquals(3.94, fromCritical.getVoltage());
+    }
+
+    @Test
+    void debounceIgnoresShortSpikes() {
+        ThresholdEngine engine = engine(new ThresholdConfig(3.8, 4.0, 0.05, 5, 0));
+        engine.evaluate(3.9, 0);
+        //inapoi sub prag: candidatul se anuleaza
+        engine.evaluate(3.7, MILLI);
+        engine.evaluate(3.9, 2 * MILLI);
+        assertEquals(ThresholdEngine.Level.NORMAL, engine.evaluate(3.9, 6 * MILLI));
+        assertTrue(events.isEmpty());
+        assertEquals(ThresholdEngine.Level.WARNING, engine.evaluate(3.9, 7 * MILLI));
+        assertEquals(List.of(ThresholdEvent.Type.WARNING), types());
+        assertEquals(7 * MILLI, events.get(0).getArrivalNanos());
+    }
+
+    @Test
+    void debounceRestartsWhenCandidateChanges() {
+        ThresholdEngine engine = engine(new ThresholdConfig(3.8, 4.0, 0.05, 5, 0));
+        engine.evaluate(3.9, 0);
+        engine.evaluate(4.2, 3 * MILLI);
+        //avertizarea ar fi implinit 5 ms, dar candidatul este acum critic din 3 ms
+        assertEquals(ThresholdEngine.Level.NORMAL, engine.evaluate(4.2, 5 * MILLI));
+        assertEquals(ThresholdEngine.Level.CRITICAL, engine.evaluate(4.2, 8 * MILLI));
+        assertEquals(List.of(ThresholdEvent.Type.CRITICAL), types());
+        assertEquals(ThresholdEngine.Level.NORMAL, events.get(0).getPreviousLevel());
+    }
+
+    @Test
+    void rateOfChangeFiresOncePerExcursionInBothDirections() {
+        ThresholdEngine engine = engine(new ThresholdConfig(4.5, 4.8, 0.05, 0, 10));
+        //panta se masoara doar intre esantioane la cel putin 10 ms distanta
+        engine.evaluate(1.0, 0);
+        engine.evaluate(3.0, 5 * MILLI);
+        engine.evaluate(1.05, 10 * MILLI);
+        assertEquals(5.0, engine.getLastRate(), 1e-9);
+        engine.evaluate(1.3, 20 * MILLI);
+        engine.evaluate(1.6, 30 * MILLI);
+        assertEquals(List.of(ThresholdEvent.Type.RATE_OF_CHANGE), types());
+        assertEquals(25.0, events.get(0).getRate(), 1e-9);
+        //revenire sub limita rearmeaza regula
+        engine.evaluate(1.6, 40 * MILLI);
+        engine.evaluate(1.2, 50 * MILLI);
+        assertEquals(2, events.size());
+        assertEquals(-40.0, events.get(1).getRate(), 1e-9);
+        assertEquals(ThresholdEngine.Level.NORMAL, events.get(1).getLevel());
+    }
+
+    @Test
+    void zeroMaxRateDisablesRule() {
+        ThresholdEngine engine = engine(new ThresholdConfig(4.5, 4.8, 0.05, 0, 0));
+        engine.evaluate(0.0, 0);
+        engine.evaluate(4.0, 10 * MILLI);
+        assertTrue(events.isEmpty());
+        assertEquals(0.0, engine.getLastRate());
+    }
+
+    @Test
+    void configChangeAppliesFromNextSample() {
+        ThresholdEngine engine = engine(ThresholdConfig.defaults());
+        assertEquals(ThresholdEngine.Level.NORMAL, engine.evaluate(3.5, 0));
+        engine.setConfig(new ThresholdConfig(3.0, 3.4, 0.05, 0, 0));
+        assertEquals(ThresholdEngine.Level.CRITICAL, engine.evaluate(3.5, MILLI));
+        engine.reset();
+        assertEquals(ThresholdEngine.Level.NORMAL, engine.getLevel());
+    }
+}
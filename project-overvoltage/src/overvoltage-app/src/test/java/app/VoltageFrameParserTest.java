@@ -0,0 +1,125 @@
+package app;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoltageFrameParserTest {
+
+    private static final class Recorder implements VoltageFrameParser.Listener {
+        final List<Double> samples = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        final List<String> responses = new ArrayList<>();
+        final List<Boolean> modes = new ArrayList<>();
+
+        @Override
+        public void onSample(double voltage) {
+            samples.add(voltage);
+        }
+
+        @Override
+        public void onParseError(byte[] line, int length) {
+            errors.add(new String(line, 0, length, StandardCharsets.US_ASCII));
+        }
+
+        @Override
+        public void onBinaryModeChanged(boolean binary) {
+            modes.add(binary);
+        }
+
+        @Override
+        public void onCommandResponse(int id, boolean ok, String detail) {
+            responses.add(id + " " + ok + " " + detail);
+        }
+    }
+
+    private final Recorder recorder = new Recorder();
+    private final VoltageFrameParser parser = new VoltageFrameParser(recorder);
+
+    private void feed(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        parser.feed(bytes, 0, bytes.length);
+    }
+
+    @Test
+    void headerFollowedByValue() {
+        feed("Tensiunea de pe pin:\r\n3.21\r\nTensiunea de pe pin:\r\n4.987\r\n");
+        assertEquals(List.of(3.21, 4.987), recorder.samples);
+        assertTrue(recorder.errors.isEmpty());
+    }
+
+    @Test
+    void valuesMatchDoubleParsing() {
+        String[] texts = {"0", "0.0", "5.5", "1.1", "2.345", "0.001", ".5", "3.141592653589"};
+        for (String text : texts) {
+            feed(text + "\n");
+        }
+        assertEquals(texts.length, recorder.samples.size());
+        for (int i = 0; i < texts.length; i++) {
+            assertEquals(Double.parseDouble(texts[i]), recorder.samples.get(i), texts[i]);
+        }
+    }
+
+    @Test
+    void plainLinesOutsideRangeOrMalformedAreIgnored() {
+        feed("6.0\n3.\n1.2.3\nabc\n 2.5 \n2.5 x\n\n");
+        assertEquals(List.of(2.5), recorder.samples);
+        //fara antet nu se raporteaza erori
+        assertTrue(recorder.errors.isEmpty());
+    }
+
+    @Test
+    void invalidValueAfterHeaderIsReported() {
+        feed("Tensiunea de pe pin:\nnu e numar\n\n2.0\n");
+        assertEquals(List.of("nu e numar"), recorder.errors);
+        //linia goala nu consuma asteptarea, dar eroarea da
+        assertEquals(List.of(2.0), recorder.samples);
+    }
+
+    @Test
+    void splitFeedsGiveSameSamples() {
+        String text = "Tensiunea de pe pin:\r\n3.30\r\n1.25\nTensiunea de pe pin:\n0.75\n";
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < bytes.length; i++) {
+            parser.feed(bytes, i, 1);
+        }
+        assertEquals(List.of(3.3, 1.25, 0.75), recorder.samples);
+    }
+
+    @Test
+    void overlongLineDoesNotBreakFollowingLines() {
+        feed("x".repeat(1000) + "\n" + "1".repeat(40) + "\n1.5\n");
+        assertEquals(List.of(1.5), recorder.samples);
+    }
+
+    @Test
+    void rawModeAcceptsAnyTokenInRange() {
+        parser.setRawMode(true);
+        feed("V=3.3;4.1,9.9 x0.5 1.2.3 2. 1.0\n");
+        assertEquals(List.of(3.3, 4.1, 0.5, 1.0), recorder.samples);
+    }
+
+    @Test
+    void commandResponsesAreParsedAndDoNotInterruptValue() {
+        feed("@12 OK 3\n@7 ERR cod 2\nTensiunea de pe pin:\n@255 OK\n2.75\n@x OK\n@3 MAYBE\n@4\n");
+        assertEquals(List.of("12 true 3", "7 false cod 2", "255 true "), recorder.responses);
+        assertEquals(List.of(2.75), recorder.samples);
+        assertTrue(recorder.errors.isEmpty());
+    }
+
+    @Test
+    void binaryAcknowledgementSwitchesMode() {
+        feed("1.0\r\n  MOD BINAR \r\n");
+        assertTrue(parser.isBinaryMode());
+        assertEquals(List.of(true), recorder.modes);
+        parser.setBinaryMode(false);
+        feed("2.0\n");
+        assertEquals(List.of(1.0, 2.0), recorder.samples);
+        assertEquals(List.of(true, false), recorder.modes);
+    }
+}
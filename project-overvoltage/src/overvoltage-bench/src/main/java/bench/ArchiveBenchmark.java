@@ -0,0 +1,114 @@
+package bench;
+
+import app.ArchiveReader;
+import app.ArchiveWriter;
+import app.RecordingReader;
+import app.SampleRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+//cautarea depasirilor peste 4 V: segmentele brute citite integral fata de arhiva cu index min/max
+//plus citirea completa si decimarea pentru grafic din arhiva
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArchiveBenchmark {
+
+    private static final int SAMPLES = 2_000_000;
+    private static final long SAMPLE_NANOS = 1_000_000L;
+    private static final int SAMPLES_PER_CHUNK = 17;
+    private static final double LEVEL = 4.0;
+
+    private Path directory;
+    private List<Path> segments;
+    private ArchiveReader archive;
+    private long sink;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("archive-bench");
+        double[] voltages = BenchData.voltages(SAMPLES);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        try (SampleRecorder recorder = new SampleRecorder(directory, "bench", 1, flusher)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < SAMPLES; i++) {
+                //esantioanele unei bucati citite de pe port au acelasi timestamp
+                long arrival = start + (i / SAMPLES_PER_CHUNK) * SAMPLES_PER_CHUNK * SAMPLE_NANOS;
+                recorder.record(arrival, Math.round(voltages[i] * 100) / 100.0, voltages[i] > LEVEL ? 1 : 0);
+            }
+        } finally {
+            flusher.shutdown();
+        }
+        segments = RecordingReader.listSegments(directory, "bench");
+        Path target = directory.resolve("bench" + ArchiveWriter.ARCHIVE_EXTENSION);
+        ArchiveWriter.archive(segments, target, 1);
+        archive = new ArchiveReader(List.of(target));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        archive.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int rawExcursionScan() throws IOException {
+        int excursions = 0;
+        boolean above = false;
+        try (RecordingReader reader = new RecordingReader(segments)) {
+            while (reader.next()) {
+                boolean now = reader.getVoltage() > LEVEL;
+                if (now && !above) {
+                    excursions++;
+                }
+                above = now;
+            }
+        }
+        return excursions;
+    }
+
+    @Benchmark
+    public int archiveExcursions() {
+        return archive.findExcursions(Long.MIN_VALUE, Long.MAX_VALUE, LEVEL, 0).size();
+    }
+
+    @Benchmark
+    public long archiveScan() {
+        sink = 0;
+        archive.scan(Long.MIN_VALUE, Long.MAX_VALUE, (timestampNanos, voltage, flags) -> sink += flags);
+        return sink;
+    }
+
+    @Benchmark
+    public int archiveDecimate() {
+        return archive.decimate(archive.getStartNanos(), archive.getEndNanos() + 1, 1000,
+                (timestampNanos, voltage, flags) -> { });
+    }
+}
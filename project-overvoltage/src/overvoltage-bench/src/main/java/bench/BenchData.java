@@ -0,0 +1,42 @@
+package bench;
+
+import app.ReplaySource;
+import app.SyntheticSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+//date de intrare deterministe, generate o singura data per trial
+final class BenchData {
+
+    static final int SAMPLES = 10_000;
+    static final int CHUNK_SIZE = 4096;
+    static final long SEED = 42;
+
+    private BenchData() {
+    }
+
+    //fluxul de octeti asa cum ar veni de pe port
+    static byte[] stream(ReplaySource.Encoding encoding, int samples) throws IOException {
+        SyntheticSource source = new SyntheticSource("bench", 1000, samples, ReplaySource.MAX_SPEED, encoding, SEED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[CHUNK_SIZE];
+        int read;
+        while ((read = source.read(buffer, buffer.length)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    //aceeasi forma ca generatorul: rampa, zgomot si varfuri peste prag
+    static double[] voltages(int samples) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        double[] values = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            double ramp = 2.5 + 1.3 * ((i % 20_000) / 20_000.0);
+            values[i] = i % 5000 >= 4995 ? 4.6 + random.nextDouble() * 0.4 : ramp + (random.nextDouble() - 0.5) * 0.1;
+        }
+        return values;
+    }
+}
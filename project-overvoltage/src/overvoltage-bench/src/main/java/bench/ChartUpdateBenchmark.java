@@ -0,0 +1,98 @@
+package bench;
+
+import app.SampleHistory;
+import javafx.collections.ObservableList;
+import javafx.scene.chart.XYChart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+//costul unui cadru UI: serie XYChart cu add + remove(0) fata de istoric primitiv decimat
+//fara toolkit pornit se masoara doar modelul seriei, nu si layout-ul graficului
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChartUpdateBenchmark {
+
+    //esantioane sosite intre doua cadre (1 kHz / 60 Hz si rafala binara)
+    @Param({"17", "1024"})
+    public int samplesPerFrame;
+
+    //puncte tinute in serie, respectiv esantioane in istoric
+    @Param({"100", "10000", "1000000"})
+    public int windowSize;
+
+    private static final int CHART_BUCKETS = 1000;
+
+    private double[] voltages;
+    private int next;
+    private ObservableList<XYChart.Data<Number, Number>> seriesData;
+    private long xSeriesData;
+    private SampleHistory history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        voltages = BenchData.voltages(1 << 16);
+        seriesData = new XYChart.Series<Number, Number>().getData();
+        for (int i = 0; i < windowSize; i++) {
+            seriesData.add(new XYChart.Data<>(xSeriesData++, nextVoltage()));
+        }
+        history = new SampleHistory(Integer.highestOneBit(Math.max(256, windowSize - 1)) << 1);
+        for (int i = 0; i < windowSize; i++) {
+            history.append(nextVoltage());
+        }
+    }
+
+    private double nextVoltage() {
+        double voltage = voltages[next];
+        next = (next + 1) & (voltages.length - 1);
+        return voltage;
+    }
+
+    //ca updateUI vechi: un Data nou per esantion, primul scos cand fereastra e plina
+    @Benchmark
+    public int legacySeriesAppend() {
+        for (int i = 0; i < samplesPerFrame; i++) {
+            seriesData.add(new XYChart.Data<>(xSeriesData++, nextVoltage()));
+            if (seriesData.size() > windowSize) {
+                seriesData.remove(0);
+            }
+        }
+        return seriesData.size();
+    }
+
+    //ca ScopeView: adaugare in istoric si decimare min/max a ferestrei, o data pe cadru
+    @Benchmark
+    public int historyDecimate(Blackhole bh) {
+        for (int i = 0; i < samplesPerFrame; i++) {
+            history.append(nextVoltage());
+        }
+        long end = history.getCount();
+        return history.decimate(end - windowSize, end, CHART_BUCKETS, (index, value) -> bh.consume(value));
+    }
+
+    //ca declansarea din ScopeView: adaugare in istoric si cautarea trecerii peste prag in esantioanele noi
+    @Benchmark
+    public long historyTrigger() {
+        long from = history.getCount();
+        for (int i = 0; i < samplesPerFrame; i++) {
+            history.append(nextVoltage());
+        }
+        return history.findRisingCrossing(from, history.getCount(), 4.0);
+    }
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import app.ArchiveWriter;
+import app.SessionExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+//exportul complet al unei arhive de 2M esantioane in CSV si pe coloane
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    private static final int SAMPLES = 2_000_000;
+    private static final long SAMPLE_NANOS = 1_000_000L;
+    private static final String DEVICE = "bench";
+
+    @Param({"CSV", "COLUMNAR"})
+    public SessionExporter.Format format;
+
+    private Path directory;
+    private Path target;
+    private SessionExporter exporter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("export-bench");
+        double[] voltages = BenchData.voltages(SAMPLES);
+        long start = System.currentTimeMillis() * 1_000_000L;
+        Path archive = directory.resolve(DEVICE + "-1" + ArchiveWriter.ARCHIVE_EXTENSION);
+        try (ArchiveWriter writer = new ArchiveWriter(archive, 1)) {
+            for (int i = 0; i < SAMPLES; i++) {
+                double voltage = Math.round(voltages[i] * 100) / 100.0;
+                writer.append(start + i * SAMPLE_NANOS, voltage, voltages[i] > 4.0 ? 1 : 0);
+            }
+        }
+        target = directory.resolve("export" + format.getExtension());
+        exporter = new SessionExporter(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        return exporter.export(List.of(DEVICE), Long.MIN_VALUE, Long.MAX_VALUE, 0, format, target, null);
+    }
+}
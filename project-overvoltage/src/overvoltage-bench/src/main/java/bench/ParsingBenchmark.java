@@ -0,0 +1,136 @@
+package bench;
+
+import app.ReplaySource;
+import app.VoltageFrameParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+//parsarea veche (readLine + regex / split + regex) fata de VoltageFrameParser, pe acelasi flux
+//un op = un esantion; rulati cu -prof gc pentru alocari per esantion
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+
+    private byte[] asciiStream;
+    private byte[] binaryStream;
+    private VoltageFrameParser lineParser;
+    private VoltageFrameParser rawParser;
+    private VoltageFrameParser binaryParser;
+    private Blackhole blackhole;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) throws IOException {
+        this.blackhole = blackhole;
+        asciiStream = BenchData.stream(ReplaySource.Encoding.ASCII, BenchData.SAMPLES);
+        binaryStream = BenchData.stream(ReplaySource.Encoding.BINARY, BenchData.SAMPLES);
+        lineParser = new VoltageFrameParser(this::consume);
+        rawParser = new VoltageFrameParser(this::consume);
+        rawParser.setRawMode(true);
+        binaryParser = new VoltageFrameParser(this::consume);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetParsers() {
+        lineParser.reset();
+        rawParser.reset();
+        rawParser.setRawMode(true);
+        binaryParser.setBinaryMode(false);
+        binaryParser.reset();
+    }
+
+    private void consume(double voltage) {
+        blackhole.consume(voltage);
+    }
+
+    //ca bucla veche din OvervoltageApp: BufferedReader.readLine, trim, contains, matches, parseDouble
+    @Benchmark
+    @OperationsPerInvocation(BenchData.SAMPLES)
+    public void legacyReadLine(Blackhole bh) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(asciiStream)));
+        boolean readingVoltage = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (readingVoltage) {
+                try {
+                    bh.consume(Double.parseDouble(line));
+                    readingVoltage = false;
+                } catch (NumberFormatException e) {
+                    bh.consume(e);
+                }
+            } else if (line.contains("Tensiunea de pe pin:")) {
+                readingVoltage = true;
+            } else if (line.matches("\\d*\\.?\\d+")) {
+                double voltage = Double.parseDouble(line);
+                if (voltage >= 0 && voltage <= 5.5) {
+                    bh.consume(voltage);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchData.SAMPLES)
+    public void frameParser() {
+        feedChunks(lineParser, asciiStream);
+    }
+
+    //ca modul brut vechi: fiecare bucata citita devine String, split si matches pe fiecare token
+    @Benchmark
+    @OperationsPerInvocation(BenchData.SAMPLES)
+    public void legacyRawSplit(Blackhole bh) {
+        for (int offset = 0; offset < asciiStream.length; offset += BenchData.CHUNK_SIZE) {
+            int length = Math.min(BenchData.CHUNK_SIZE, asciiStream.length - offset);
+            String data = new String(asciiStream, offset, length, StandardCharsets.UTF_8);
+            for (String token : data.split("[^0-9.]")) {
+                if (token.matches("\\d*\\.?\\d+")) {
+                    double voltage = Double.parseDouble(token);
+                    if (voltage >= 0 && voltage <= 5.5) {
+                        bh.consume(voltage);
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchData.SAMPLES)
+    public void rawParser() {
+        feedChunks(rawParser, asciiStream);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchData.SAMPLES)
+    public void binaryParser() {
+        feedChunks(binaryParser, binaryStream);
+    }
+
+    //bucati de marimea bufferului din SerialIngestEngine
+    private static void feedChunks(VoltageFrameParser parser, byte[] stream) {
+        for (int offset = 0; offset < stream.length; offset += BenchData.CHUNK_SIZE) {
+            parser.feed(stream, offset, Math.min(BenchData.CHUNK_SIZE, stream.length - offset));
+        }
+    }
+}
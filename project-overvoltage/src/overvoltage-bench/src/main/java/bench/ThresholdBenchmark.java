@@ -0,0 +1,92 @@
+package bench;
+
+import app.ThresholdConfig;
+import app.ThresholdEngine;
+import javafx.collections.ObservableList;
+import javafx.scene.chart.XYChart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+//detectia trecerii peste prag: citirea punctului anterior din serie, o stare primitiva si ThresholdEngine complet
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThresholdBenchmark {
+
+    private static final double THRESHOLD_VOLTAGE = 4.0;
+
+    private double[] voltages;
+    private ObservableList<XYChart.Data<Number, Number>> seriesData;
+    private boolean lastSampleAbove;
+    private ThresholdEngine engine;
+    private long sampleNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        voltages = BenchData.voltages(BenchData.SAMPLES);
+        seriesData = new XYChart.Series<Number, Number>().getData();
+        for (int i = 0; i < voltages.length; i++) {
+            seriesData.add(new XYChart.Data<>(i, voltages[i]));
+        }
+        engine = new ThresholdEngine("bench", new ThresholdConfig(3.8, THRESHOLD_VOLTAGE, 0.05, 2, 200));
+        engine.addListener(event -> { });
+    }
+
+    //ca updateUI vechi: valoarea anterioara citita din serie, cu unboxing
+    @Benchmark
+    @OperationsPerInvocation(BenchData.SAMPLES)
+    public int legacySeriesLookup() {
+        int crossings = 0;
+        for (int i = 1; i < voltages.length; i++) {
+            if (voltages[i] > THRESHOLD_VOLTAGE
+                    && (double) seriesData.get(i - 1).getYValue() <= THRESHOLD_VOLTAGE) {
+                crossings++;
+            }
+        }
+        return crossings;
+    }
+
+    //ca DeviceMonitor.onVoltage pe firul de citire
+    @Benchmark
+    @OperationsPerInvocation(BenchData.SAMPLES)
+    public int primitiveState() {
+        int crossings = 0;
+        boolean last = lastSampleAbove;
+        for (double voltage : voltages) {
+            boolean above = voltage > THRESHOLD_VOLTAGE;
+            if (above && !last) {
+                crossings++;
+            }
+            last = above;
+        }
+        lastSampleAbove = last;
+        return crossings;
+    }
+
+    //avertizare + critic cu histerezis, debounce si dV/dt, ca pe firul de citire (1 kHz)
+    @Benchmark
+    @OperationsPerInvocation(BenchData.SAMPLES)
+    public ThresholdEngine.Level thresholdEngine() {
+        ThresholdEngine.Level level = ThresholdEngine.Level.NORMAL;
+        for (double voltage : voltages) {
+            sampleNanos += 1_000_000L;
+            level = engine.evaluate(voltage, sampleNanos);
+        }
+        return level;
+    }
+}